@@ -5,6 +5,8 @@ import android.app.Activity;
 import com.airbnb.android.react.maps.open.OpenAirMapManager;
 import com.airbnb.android.react.maps.open.OpenAirMapModule;
 import com.airbnb.android.react.maps.open.collout.OpenAirMapCalloutManager;
+import com.airbnb.android.react.maps.open.layer.OpenAirMapGeoJsonLayerManager;
+import com.airbnb.android.react.maps.open.layer.OpenAirMapPointLayerManager;
 import com.airbnb.android.react.maps.open.marker.OpenAirMapMarkerManager;
 import com.airbnb.android.react.maps.open.polyline.OpenAirMapPolylineManager;
 import com.facebook.react.ReactPackage;
@@ -39,12 +41,16 @@ public class MapsPackage implements ReactPackage {
     OpenAirMapCalloutManager calloutManager = new OpenAirMapCalloutManager();
     OpenAirMapMarkerManager annotationManager = new OpenAirMapMarkerManager();
     OpenAirMapPolylineManager polylineManager = new OpenAirMapPolylineManager(reactContext);
+    OpenAirMapPointLayerManager pointLayerManager = new OpenAirMapPointLayerManager(reactContext);
+    OpenAirMapGeoJsonLayerManager geoJsonLayerManager = new OpenAirMapGeoJsonLayerManager(reactContext);
     OpenAirMapManager mapManager = new OpenAirMapManager(reactContext);
 
     return Arrays.<ViewManager>asList(
         calloutManager,
         annotationManager,
         polylineManager,
+        pointLayerManager,
+        geoJsonLayerManager,
         mapManager);
   }
 }
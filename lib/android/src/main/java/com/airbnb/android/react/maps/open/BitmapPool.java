@@ -0,0 +1,100 @@
+package com.airbnb.android.react.maps.open;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+
+// Process wide pool of mutable bitmaps for map snapshots. Snapshots are view sized, so taking
+// one after every layout or for every row of a list would otherwise allocate a full screen
+// bitmap each time; released bitmaps are handed out again for the same size and config.
+final class BitmapPool {
+    // a sixteenth of the heap, a few screens worth on common devices
+    private static final long MAX_SIZE_BYTES = Runtime.getRuntime().maxMemory() / 16;
+
+    // most recently released first
+    private static final LinkedList<Bitmap> pool = new LinkedList<>();
+    private static long sizeBytes = 0;
+
+    private BitmapPool() {
+    }
+
+    /**
+     * A cleared bitmap of the given size, reused from the pool when one is available.
+     */
+    static Bitmap acquire(int width, int height, Bitmap.Config config) {
+        synchronized (pool) {
+            Iterator<Bitmap> iterator = pool.iterator();
+            while (iterator.hasNext()) {
+                Bitmap bitmap = iterator.next();
+                if (bitmap.getWidth() == width && bitmap.getHeight() == height
+                        && bitmap.getConfig() == config) {
+                    iterator.remove();
+                    sizeBytes -= byteCount(bitmap);
+                    bitmap.eraseColor(Color.TRANSPARENT);
+                    return bitmap;
+                }
+            }
+        }
+        return Bitmap.createBitmap(width, height, config);
+    }
+
+    /**
+     * Returns a bitmap to the pool. The caller must not use it afterwards.
+     */
+    static void release(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) return;
+        long bytes = byteCount(bitmap);
+        if (bytes > MAX_SIZE_BYTES) {
+            bitmap.recycle();
+            return;
+        }
+        synchronized (pool) {
+            pool.addFirst(bitmap);
+            sizeBytes += bytes;
+            trimToSize(MAX_SIZE_BYTES);
+        }
+    }
+
+    /**
+     * Recycles pooled bitmaps, least recently released first, until the pool holds at most
+     * maxBytes.
+     */
+    static void trimToSize(long maxBytes) {
+        synchronized (pool) {
+            while (sizeBytes > maxBytes && !pool.isEmpty()) {
+                Bitmap bitmap = pool.removeLast();
+                sizeBytes -= byteCount(bitmap);
+                bitmap.recycle();
+            }
+        }
+    }
+
+    static long getSizeBytes() {
+        synchronized (pool) {
+            return sizeBytes;
+        }
+    }
+
+    static void clear() {
+        trimToSize(0);
+    }
+
+    /**
+     * Pooled bitmaps are only a head start for the next snapshot, so they go first: all of them
+     * once memory runs low or the UI is hidden, half of them before that.
+     */
+    static void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            clear();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            trimToSize(MAX_SIZE_BYTES / 2);
+        }
+    }
+
+    private static long byteCount(Bitmap bitmap) {
+        return (long) bitmap.getRowBytes() * bitmap.getHeight();
+    }
+}
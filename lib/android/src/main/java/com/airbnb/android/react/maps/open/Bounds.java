@@ -3,11 +3,68 @@ package com.airbnb.android.react.maps.open;
 import org.osmdroid.util.GeoPoint;
 
 public class Bounds {
-    private GeoPoint latitude;
-    private GeoPoint longitude;
+    private final double south;
+    private final double west;
+    private final double north;
+    private final double east;
 
-    public Bounds(GeoPoint latitude, GeoPoint longitude) {
-        this.latitude = latitude;
-        this.longitude = longitude;
+    public Bounds(double south, double west, double north, double east) {
+        this.south = south;
+        this.west = west;
+        this.north = north;
+        this.east = east;
+    }
+
+    public Bounds(GeoPoint southwest, GeoPoint northeast) {
+        this(southwest.getLatitude(), southwest.getLongitude(),
+                northeast.getLatitude(), northeast.getLongitude());
+    }
+
+    /**
+     * Bounds of a flat [lat, lng, lat, lng, ...] array, or null when it is empty.
+     */
+    public static Bounds fromLatLngs(double[] latLngs) {
+        if (latLngs.length < 2) return null;
+        double south = latLngs[0];
+        double north = latLngs[0];
+        double west = latLngs[1];
+        double east = latLngs[1];
+        for (int i = 2; i + 1 < latLngs.length; i += 2) {
+            double lat = latLngs[i];
+            double lng = latLngs[i + 1];
+            if (lat < south) south = lat;
+            if (lat > north) north = lat;
+            if (lng < west) west = lng;
+            if (lng > east) east = lng;
+        }
+        return new Bounds(south, west, north, east);
+    }
+
+    public double getSouth() {
+        return south;
+    }
+
+    public double getWest() {
+        return west;
+    }
+
+    public double getNorth() {
+        return north;
+    }
+
+    public double getEast() {
+        return east;
+    }
+
+    public boolean intersects(double south, double west, double north, double east) {
+        return south <= this.north && north >= this.south && west <= this.east && east >= this.west;
+    }
+
+    public boolean intersects(Bounds other) {
+        return intersects(other.south, other.west, other.north, other.east);
+    }
+
+    public boolean contains(double south, double west, double north, double east) {
+        return south >= this.south && north <= this.north && west >= this.west && east <= this.east;
     }
 }
@@ -0,0 +1,50 @@
+package com.airbnb.android.react.maps.open;
+
+// Accumulates the smallest bounds around points and boxes in one pass over primitives.
+// Longitudes are tracked both as given and shifted into [0, 360); the narrower extent wins, so
+// points on both sides of the antimeridian give a box across it, with an east above 180,
+// instead of one around the whole world.
+final class BoundsBuilder {
+    private double south = Double.POSITIVE_INFINITY;
+    private double north = Double.NEGATIVE_INFINITY;
+    private double west = Double.POSITIVE_INFINITY;
+    private double east = Double.NEGATIVE_INFINITY;
+    private double shiftedWest = Double.POSITIVE_INFINITY;
+    private double shiftedEast = Double.NEGATIVE_INFINITY;
+
+    void include(double latitude, double longitude) {
+        if (latitude < south) south = latitude;
+        if (latitude > north) north = latitude;
+        if (longitude < west) west = longitude;
+        if (longitude > east) east = longitude;
+        double shifted = longitude < 0 ? longitude + 360 : longitude;
+        if (shifted < shiftedWest) shiftedWest = shifted;
+        if (shifted > shiftedEast) shiftedEast = shifted;
+    }
+
+    void include(Bounds bounds) {
+        include(bounds.getSouth(), bounds.getWest());
+        include(bounds.getNorth(), bounds.getEast());
+    }
+
+    /**
+     * Includes a flat [lat, lng, lat, lng, ...] array.
+     */
+    void include(double[] latLngs) {
+        for (int i = 0; i + 1 < latLngs.length; i += 2) {
+            include(latLngs[i], latLngs[i + 1]);
+        }
+    }
+
+    boolean isEmpty() {
+        return south > north;
+    }
+
+    Bounds build() {
+        if (isEmpty()) return null;
+        if (shiftedEast - shiftedWest < east - west) {
+            return new Bounds(south, shiftedWest, north, shiftedEast);
+        }
+        return new Bounds(south, west, north, east);
+    }
+}
@@ -0,0 +1,126 @@
+package com.airbnb.android.react.maps.open;
+
+import android.view.Choreographer;
+
+import org.osmdroid.util.GeoPoint;
+import org.osmdroid.views.MapView;
+
+// Moves the camera of a map on Choreographer frames. The center is eased along a straight line
+// in Mercator space; the zoom level, which is an integer in osmdroid, changes only once so no
+// tiles are requested for the levels in between: at the start when zooming out, so the whole
+// path stays covered, and at the end when zooming in.
+class CameraAnimator implements Choreographer.FrameCallback {
+    private final MapView map;
+    private final GeoPoint center = new GeoPoint(0.0, 0.0);
+    private Path path;
+    private int targetZoom;
+    private long durationNanos;
+    private long startNanos;
+    private boolean running = false;
+
+    // Eased straight line in Mercator space between two centers.
+    static class Path {
+        final double fromX;
+        final double fromY;
+        final double deltaX;
+        final double deltaY;
+
+        Path(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+            fromX = MercatorProjection.x(fromLongitude);
+            fromY = MercatorProjection.y(fromLatitude);
+            double dx = MercatorProjection.x(toLongitude) - fromX;
+            // take the short way around the antimeridian
+            if (dx > 0.5) {
+                dx -= 1;
+            } else if (dx < -0.5) {
+                dx += 1;
+            }
+            deltaX = dx;
+            deltaY = MercatorProjection.y(toLatitude) - fromY;
+        }
+
+        /**
+         * Eased fraction of the way at a fraction t of the duration, slow at both ends.
+         */
+        static double ease(double t) {
+            return (1 - Math.cos(Math.PI * t)) / 2;
+        }
+
+        double latitudeAt(double eased) {
+            return MercatorProjection.latitude(fromY + deltaY * eased);
+        }
+
+        double longitudeAt(double eased) {
+            double x = fromX + deltaX * eased;
+            if (x < 0) {
+                x += 1;
+            } else if (x > 1) {
+                x -= 1;
+            }
+            return MercatorProjection.longitude(x);
+        }
+    }
+
+    CameraAnimator(MapView map) {
+        this.map = map;
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Animates to a center and zoom level, or jumps there when the duration is not positive.
+     */
+    void animateTo(double latitude, double longitude, int zoom, int durationMs) {
+        cancel();
+        zoom = Math.max(map.getMinZoomLevel(), Math.min(map.getMaxZoomLevel(), zoom));
+
+        if (durationMs <= 0) {
+            map.getController().setZoom(zoom);
+            center.setCoords(latitude, longitude);
+            map.getController().setCenter(center);
+            return;
+        }
+
+        GeoPoint start = (GeoPoint) map.getMapCenter();
+        path = new Path(start.getLatitude(), start.getLongitude(), latitude, longitude);
+        targetZoom = zoom;
+        durationNanos = durationMs * 1000000L;
+        startNanos = -1;
+
+        if (targetZoom < map.getZoomLevel()) {
+            map.getController().setZoom(targetZoom);
+        }
+        running = true;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    void cancel() {
+        if (!running) return;
+        running = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) return;
+        if (startNanos < 0) {
+            startNanos = frameTimeNanos;
+        }
+        double t = Math.min(1.0, (frameTimeNanos - startNanos) / (double) durationNanos);
+        double eased = Path.ease(t);
+        center.setCoords(path.latitudeAt(eased), path.longitudeAt(eased));
+
+        if (t >= 1.0) {
+            running = false;
+            if (targetZoom != map.getZoomLevel()) {
+                map.getController().setZoom(targetZoom);
+            }
+            map.getController().setCenter(center);
+            return;
+        }
+        map.getController().setCenter(center);
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+}
@@ -0,0 +1,252 @@
+package com.airbnb.android.react.maps.open;
+
+import com.airbnb.android.react.maps.open.polyline.SimplifiedPolyline;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+
+import org.osmdroid.util.GeoPoint;
+import org.osmdroid.views.MapView;
+import org.osmdroid.views.overlay.Marker;
+import org.osmdroid.views.overlay.Overlay;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Markers and polylines managed through the applyFeatureBatch command rather than as React
+// children. They are plain osmdroid overlays keyed by id, and a batch touches the map's overlay
+// list once: osmdroid keeps overlays in a CopyOnWriteArrayList, so adding or removing them one
+// by one copies the whole list per feature.
+//
+// Batch features are culled to the viewport like React features, through their own index.
+class FeatureBatchLayer {
+    private static final String TYPE_POLYLINE = "polyline";
+
+    private final OpenAirMapView map;
+    private final float density;
+    private final Map<String, Overlay> overlays = new HashMap<>();
+    private final Map<Overlay, String> ids = new IdentityHashMap<>();
+    private final SpatialIndex<Overlay> index = new SpatialIndex<>();
+    private Set<Overlay> visible = Collections.newSetFromMap(new IdentityHashMap<Overlay, Boolean>());
+    private Set<Overlay> visibleNext = Collections.newSetFromMap(new IdentityHashMap<Overlay, Boolean>());
+    private final List<Overlay> visibleScratch = new ArrayList<>();
+
+    FeatureBatchLayer(OpenAirMapView map) {
+        this.map = map;
+        this.density = map.getResources().getDisplayMetrics().density;
+    }
+
+    int size() {
+        return overlays.size();
+    }
+
+    /**
+     * Applies { add, update, remove } in one pass. Added features replace existing ones with the
+     * same id, updates to unknown ids are ignored. Returns whether anything changed.
+     */
+    boolean apply(ReadableMap batch) {
+        List<Overlay> added = new ArrayList<>();
+        Set<Overlay> removed = Collections.newSetFromMap(new IdentityHashMap<Overlay, Boolean>());
+
+        if (batch.hasKey("remove")) {
+            ReadableArray remove = batch.getArray("remove");
+            for (int i = 0; i < remove.size(); i++) {
+                Overlay overlay = detach(remove.getString(i));
+                if (overlay != null) {
+                    removed.add(overlay);
+                }
+            }
+        }
+
+        if (batch.hasKey("add")) {
+            ReadableArray add = batch.getArray("add");
+            for (int i = 0; i < add.size(); i++) {
+                ReadableMap feature = add.getMap(i);
+                String id = feature.getString("id");
+                Overlay previous = detach(id);
+                if (previous != null) {
+                    removed.add(previous);
+                }
+                boolean polyline = feature.hasKey("type") && TYPE_POLYLINE.equals(feature.getString("type"));
+                Overlay overlay = polyline ? createPolyline() : createMarker(id);
+                overlays.put(id, overlay);
+                ids.put(overlay, id);
+                update(overlay, feature);
+                added.add(overlay);
+            }
+        }
+
+        if (batch.hasKey("update")) {
+            ReadableArray update = batch.getArray("update");
+            for (int i = 0; i < update.size(); i++) {
+                ReadableMap feature = update.getMap(i);
+                Overlay overlay = overlays.get(feature.getString("id"));
+                if (overlay != null) {
+                    update(overlay, feature);
+                }
+            }
+        }
+
+        List<Overlay> list = map.getOverlays();
+        if (!removed.isEmpty()) {
+            list.removeAll(removed);
+        }
+        if (!added.isEmpty()) {
+            list.addAll(added);
+        }
+        return !removed.isEmpty() || !added.isEmpty() || batch.hasKey("update");
+    }
+
+    void includeBounds(BoundsBuilder builder) {
+        for (Overlay overlay : overlays.values()) {
+            Bounds bounds = index.boundsOf(overlay);
+            if (bounds != null) {
+                builder.include(bounds);
+            }
+        }
+    }
+
+    void clear() {
+        if (overlays.isEmpty()) return;
+        for (Overlay overlay : overlays.values()) {
+            if (overlay instanceof Marker) {
+                ((Marker) overlay).closeInfoWindow();
+            }
+        }
+        map.getOverlays().removeAll(ids.keySet());
+        overlays.clear();
+        ids.clear();
+        index.clear();
+        visible.clear();
+    }
+
+    /**
+     * Enables the features intersecting the area and disables those that left it. West is
+     * greater than east when the area crosses the antimeridian.
+     */
+    void updateVisible(double south, double west, double north, double east) {
+        if (index.size() == 0) return;
+        List<Overlay> inView = visibleScratch;
+        inView.clear();
+        index.query(south, west, north, east, inView);
+
+        Set<Overlay> next = visibleNext;
+        next.clear();
+        for (Overlay overlay : inView) {
+            next.add(overlay);
+            if (!visible.contains(overlay)) {
+                overlay.setEnabled(true);
+            }
+        }
+        for (Overlay overlay : visible) {
+            if (!next.contains(overlay)) {
+                overlay.setEnabled(false);
+            }
+        }
+        visibleNext = visible;
+        visible = next;
+        inView.clear();
+    }
+
+    private Overlay detach(String id) {
+        Overlay overlay = overlays.remove(id);
+        if (overlay == null) return null;
+        ids.remove(overlay);
+        index.remove(overlay);
+        visible.remove(overlay);
+        if (overlay instanceof Marker) {
+            ((Marker) overlay).closeInfoWindow();
+        }
+        return overlay;
+    }
+
+    private Marker createMarker(final String id) {
+        Marker marker = new Marker(map);
+        marker.setOnMarkerClickListener(new Marker.OnMarkerClickListener() {
+            @Override
+            public boolean onMarkerClick(Marker marker, MapView mapView) {
+                map.pushPointEvent(map.getId(), "onMarkerPress", marker.getPosition(), "marker-press", id, false);
+                if (marker.getTitle() != null || marker.getSnippet() != null) {
+                    marker.showInfoWindow();
+                }
+                return true;
+            }
+        });
+        return marker;
+    }
+
+    private SimplifiedPolyline createPolyline() {
+        SimplifiedPolyline polyline = new SimplifiedPolyline();
+        polyline.setWidth(density);
+        return polyline;
+    }
+
+    private void update(Overlay overlay, ReadableMap feature) {
+        Bounds bounds = null;
+        if (overlay instanceof Marker) {
+            bounds = updateMarker((Marker) overlay, feature);
+        } else if (overlay instanceof SimplifiedPolyline) {
+            bounds = updatePolyline((SimplifiedPolyline) overlay, feature);
+        }
+        if (bounds != null) {
+            index.insert(overlay, bounds);
+            // shown on the next viewport pass if it is in view
+            overlay.setEnabled(false);
+            visible.remove(overlay);
+        } else if (index.boundsOf(overlay) == null) {
+            // added without a coordinate: kept for later updates, but not drawn at (0, 0)
+            overlay.setEnabled(false);
+        }
+    }
+
+    private Bounds updateMarker(Marker marker, ReadableMap feature) {
+        Bounds bounds = null;
+        if (feature.hasKey("coordinate")) {
+            ReadableMap coordinate = feature.getMap("coordinate");
+            double latitude = coordinate.getDouble("latitude");
+            double longitude = coordinate.getDouble("longitude");
+            marker.setPosition(new GeoPoint(latitude, longitude));
+            bounds = new Bounds(latitude, longitude, latitude, longitude);
+        }
+        if (feature.hasKey("title")) {
+            marker.setTitle(feature.getString("title"));
+        }
+        if (feature.hasKey("description")) {
+            marker.setSnippet(feature.getString("description"));
+        }
+        if (feature.hasKey("anchor")) {
+            ReadableMap anchor = feature.getMap("anchor");
+            marker.setAnchor((float) anchor.getDouble("x"), (float) anchor.getDouble("y"));
+        }
+        if (feature.hasKey("rotation")) {
+            marker.setRotation((float) feature.getDouble("rotation"));
+        }
+        if (feature.hasKey("opacity")) {
+            marker.setAlpha((float) feature.getDouble("opacity"));
+        }
+        if (feature.hasKey("flat")) {
+            marker.setFlat(feature.getBoolean("flat"));
+        }
+        return bounds;
+    }
+
+    private Bounds updatePolyline(SimplifiedPolyline polyline, ReadableMap feature) {
+        double[] latLngs = PackedCoordinates.fromShape(feature);
+        if (feature.hasKey("strokeColor")) {
+            polyline.setColor(feature.getInt("strokeColor"));
+        }
+        if (feature.hasKey("strokeWidth")) {
+            polyline.setWidth((float) feature.getDouble("strokeWidth") * density);
+        }
+        if (feature.hasKey("geodesic")) {
+            polyline.setGeodesic(feature.getBoolean("geodesic"));
+        }
+        if (latLngs == null) return null;
+        polyline.setCoordinates(latLngs);
+        return Bounds.fromLatLngs(latLngs);
+    }
+}
@@ -3,6 +3,8 @@ package com.airbnb.android.react.maps.open;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.LatLngBounds;
 
+import org.osmdroid.util.BoundingBox;
+
 public class LatLngBoundsUtils {
   public static boolean BoundsAreDifferent(LatLngBounds a, LatLngBounds b) {
     LatLng centerA = a.getCenter();
@@ -27,6 +29,17 @@ public class LatLngBoundsUtils {
             different(lngDeltaA, lngDeltaB, lngEps);
   }
 
+  public static boolean BoundsAreDifferent(BoundingBox a, BoundingBox b) {
+    double latEps = Math.min(a.getLatitudeSpan(), b.getLatitudeSpan()) / 2560;
+    double lngEps = Math.min(a.getLongitudeSpan(), b.getLongitudeSpan()) / 2560;
+
+    return
+        different(a.getLatNorth() + a.getLatSouth(), b.getLatNorth() + b.getLatSouth(), 2 * latEps) ||
+            different(a.getLonEast() + a.getLonWest(), b.getLonEast() + b.getLonWest(), 2 * lngEps) ||
+            different(a.getLatitudeSpan(), b.getLatitudeSpan(), latEps) ||
+            different(a.getLongitudeSpan(), b.getLongitudeSpan(), lngEps);
+  }
+
   private static boolean different(double a, double b, double epsilon) {
     return Math.abs(a - b) > epsilon;
   }
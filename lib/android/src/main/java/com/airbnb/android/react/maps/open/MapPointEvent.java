@@ -0,0 +1,96 @@
+package com.airbnb.android.react.maps.open;
+
+import android.support.v4.util.Pools;
+
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeMap;
+import com.facebook.react.uimanager.events.Event;
+import com.facebook.react.uimanager.events.RCTEventEmitter;
+
+// Event at a point of the map: presses, long presses, pan drags and marker drags. Instances are
+// pooled and keep plain fields, so the payload maps are only built for events that survive
+// coalescing, when the dispatcher hands them to JS.
+public class MapPointEvent extends Event<MapPointEvent> {
+    private static final Pools.SynchronizedPool<MapPointEvent> EVENTS_POOL =
+            new Pools.SynchronizedPool<>(8);
+
+    private String eventName;
+    private double latitude;
+    private double longitude;
+    private float x;
+    private float y;
+    private String action;
+    private String identifier;
+    private boolean coalesce;
+
+    private MapPointEvent() {
+    }
+
+    /**
+     * @param coalesce whether the event may replace an earlier one of the same name that was not
+     *                 sent yet, for events that fire at touch rate
+     */
+    public static MapPointEvent obtain(int viewTag, String eventName, double latitude, double longitude,
+                                       float x, float y, String action, String identifier,
+                                       boolean coalesce) {
+        MapPointEvent event = EVENTS_POOL.acquire();
+        if (event == null) {
+            event = new MapPointEvent();
+        }
+        event.init(viewTag);
+        event.eventName = eventName;
+        event.latitude = latitude;
+        event.longitude = longitude;
+        event.x = x;
+        event.y = y;
+        event.action = action;
+        event.identifier = identifier;
+        event.coalesce = coalesce;
+        return event;
+    }
+
+    @Override
+    public void onDispose() {
+        action = null;
+        identifier = null;
+        EVENTS_POOL.release(this);
+    }
+
+    @Override
+    public String getEventName() {
+        return eventName;
+    }
+
+    @Override
+    public boolean canCoalesce() {
+        return coalesce;
+    }
+
+    @Override
+    public short getCoalescingKey() {
+        return 0;
+    }
+
+    @Override
+    public void dispatch(RCTEventEmitter rctEventEmitter) {
+        WritableMap event = new WritableNativeMap();
+
+        WritableMap coordinate = new WritableNativeMap();
+        coordinate.putDouble("latitude", latitude);
+        coordinate.putDouble("longitude", longitude);
+        event.putMap("coordinate", coordinate);
+
+        WritableMap position = new WritableNativeMap();
+        position.putDouble("x", x);
+        position.putDouble("y", y);
+        event.putMap("position", position);
+
+        if (action != null) {
+            event.putString("action", action);
+        }
+        if (identifier != null) {
+            event.putString("id", identifier);
+        }
+        rctEventEmitter.receiveEvent(getViewTag(), eventName, event);
+    }
+}
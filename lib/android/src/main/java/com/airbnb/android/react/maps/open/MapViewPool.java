@@ -0,0 +1,68 @@
+package com.airbnb.android.react.maps.open;
+
+import com.facebook.react.uimanager.ThemedReactContext;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+
+// Unmounted map views kept for the next mount, so going back to a map screen doesn't pay for a
+// new view, tile provider and download threads, and tiles still in memory show at once.
+// Pooling is off until MapView.setViewPoolSize is called with a size above 0.
+//
+// A view holds the context of the React root it was created in and is only reused there.
+// All methods run on the UI thread.
+final class MapViewPool {
+    // most recently released first
+    private static final LinkedList<OpenAirMapView> views = new LinkedList<>();
+    private static int maxSize = 0;
+
+    private MapViewPool() {
+    }
+
+    static boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    static void setMaxSize(int size) {
+        maxSize = Math.max(0, size);
+        trim();
+    }
+
+    /**
+     * A pooled view created for the context, or null.
+     */
+    static OpenAirMapView acquire(ThemedReactContext context) {
+        Iterator<OpenAirMapView> iterator = views.iterator();
+        while (iterator.hasNext()) {
+            OpenAirMapView view = iterator.next();
+            if (view.getContext() == context) {
+                iterator.remove();
+                return view;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Keeps a recycled view, destroying the least recently released one when the pool is full.
+     * Returns false when pooling is off.
+     */
+    static boolean release(OpenAirMapView view) {
+        if (maxSize == 0) return false;
+        views.addFirst(view);
+        trim();
+        return true;
+    }
+
+    static void clear() {
+        while (!views.isEmpty()) {
+            views.removeLast().doDestroy();
+        }
+    }
+
+    private static void trim() {
+        while (views.size() > maxSize) {
+            views.removeLast().doDestroy();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.airbnb.android.react.maps.open;
+
+import org.osmdroid.util.TileSystem;
+
+// Spherical Web Mercator helpers. Coordinates are normalized to [0, 1] on both axes, with
+// (0, 0) at the north-west corner of the world, so a value multiplied by worldSize(zoom)
+// gives the pixel coordinate used by the tile system at that zoom level.
+public final class MercatorProjection {
+    public static final double MAX_LATITUDE = 85.05112877980659;
+    // tile size of tile sources that do not declare one
+    public static final int TILE_SIZE = 256;
+
+    private MercatorProjection() {
+    }
+
+    public static double x(double longitude) {
+        return (longitude + 180.0) / 360.0;
+    }
+
+    public static double y(double latitude) {
+        double lat = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude));
+        double sin = Math.sin(Math.toRadians(lat));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+    public static double longitude(double x) {
+        return x * 360.0 - 180.0;
+    }
+
+    public static double latitude(double y) {
+        return 90.0 - Math.toDegrees(2 * Math.atan(Math.exp((y - 0.5) * 2 * Math.PI)));
+    }
+
+    /**
+     * Size of the world in pixels at a zoom level of the map view. osmdroid sizes its tiles by
+     * the tile source and the screen density, so this follows TileSystem rather than TILE_SIZE.
+     */
+    public static double worldSize(int zoom) {
+        return TileSystem.getTileSize() * (double) (1L << zoom);
+    }
+
+    /**
+     * Highest integer zoom at which a normalized span fits into width x height pixels of the map
+     * view, or Integer.MAX_VALUE for an empty span.
+     */
+    public static int zoomToFit(double spanX, double spanY, int width, int height) {
+        return zoomToFit(spanX, spanY, width, height, TileSystem.getTileSize());
+    }
+
+    /**
+     * zoomToFit for tiles of the given size in pixels.
+     */
+    public static int zoomToFit(double spanX, double spanY, int width, int height, int tileSize) {
+        double scale = Double.POSITIVE_INFINITY;
+        if (spanX > 0) {
+            scale = Math.min(scale, width / (spanX * tileSize));
+        }
+        if (spanY > 0) {
+            scale = Math.min(scale, height / (spanY * tileSize));
+        }
+        if (Double.isInfinite(scale)) return Integer.MAX_VALUE;
+        return (int) Math.floor(Math.log(scale) / Math.log(2));
+    }
+}
@@ -0,0 +1,104 @@
+package com.airbnb.android.react.maps.open;
+
+import android.graphics.Point;
+
+import org.osmdroid.api.IGeoPoint;
+import org.osmdroid.views.MapView;
+
+// Screen transform of a map for one frame, over normalized Mercator coordinates (see
+// MercatorProjection). Only the map center goes through osmdroid's Projection; overlays that
+// keep their coordinates pre-projected then place each point with a multiply and an add.
+public class MercatorViewport {
+    private final Point scratch = new Point();
+    private double scale = MercatorProjection.worldSize(0);
+    private double offsetX;
+    private double offsetY;
+    private double centerX;
+    private double centerY;
+    private int width;
+    private int height;
+    private int zoom;
+
+    public void update(MapView map) {
+        zoom = map.getZoomLevel();
+        scale = MercatorProjection.worldSize(zoom);
+        IGeoPoint center = map.getMapCenter();
+        map.getProjection().toPixels(center, scratch);
+        centerX = scratch.x;
+        centerY = scratch.y;
+        offsetX = centerX - MercatorProjection.x(center.getLongitude()) * scale;
+        offsetY = centerY - MercatorProjection.y(center.getLatitude()) * scale;
+        width = map.getWidth();
+        height = map.getHeight();
+    }
+
+    /**
+     * Pixels per normalized unit, the size of the world at the current zoom level.
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    public int getZoom() {
+        return zoom;
+    }
+
+    public double getOffsetX() {
+        return offsetX;
+    }
+
+    public double getOffsetY() {
+        return offsetY;
+    }
+
+    public double screenX(double x) {
+        return x * scale + offsetX;
+    }
+
+    public double screenY(double y) {
+        return y * scale + offsetY;
+    }
+
+    /**
+     * Screen x of the copy of the world nearest to the center of the map, for points near the
+     * antimeridian.
+     */
+    public double wrappedScreenX(double x) {
+        double screenX = x * scale + offsetX;
+        return screenX - Math.rint((screenX - centerX) / scale) * scale;
+    }
+
+    /**
+     * The world copy shift, in normalized units, that brings a span starting at x closest to
+     * the center of the map.
+     */
+    public double wrapShift(double x) {
+        return -Math.rint((x * scale + offsetX - centerX) / scale);
+    }
+
+    public double mercatorX(double screenX) {
+        return (screenX - offsetX) / scale;
+    }
+
+    public double mercatorY(double screenY) {
+        return (screenY - offsetY) / scale;
+    }
+
+    /**
+     * Whether a point is within margin pixels of the visible part of the map.
+     */
+    public boolean isVisible(double screenX, double screenY, double margin) {
+        return Math.abs(screenX - centerX) <= width / 2.0 + margin
+                && Math.abs(screenY - centerY) <= height / 2.0 + margin;
+    }
+
+    /**
+     * Whether a screen rectangle intersects the visible part of the map, grown by margin pixels.
+     */
+    public boolean intersects(double left, double top, double right, double bottom, double margin) {
+        double halfWidth = width / 2.0 + margin;
+        double halfHeight = height / 2.0 + margin;
+        return right >= centerX - halfWidth && left <= centerX + halfWidth
+                && bottom >= centerY - halfHeight && top <= centerY + halfHeight;
+    }
+}
@@ -7,6 +7,10 @@ import com.facebook.react.views.view.ReactViewGroup;
 import org.osmdroid.views.MapView;
 
 public abstract class OpenAirMapFeature extends ReactViewGroup {
+  // last viewport pass that found this feature visible, see OpenAirMapView.updateVisibleFeatures
+  int viewportGeneration = -1;
+  boolean culled = false;
+
   public OpenAirMapFeature(Context context) {
     super(context);
   }
@@ -16,4 +20,24 @@ public abstract class OpenAirMapFeature extends ReactViewGroup {
   public abstract void removeFromMap(MapView map);
 
   public abstract Object getFeature();
+
+  /**
+   * Geographic bounds of the feature, or null when it has none yet. Features without bounds
+   * are never culled.
+   */
+  public Bounds getBounds() {
+    return null;
+  }
+
+  /**
+   * Called when the feature leaves or enters the visible part of the map.
+   */
+  public void setCulled(boolean culled) {
+  }
+
+  protected void notifyBoundsChanged(MapView map) {
+    if (map instanceof OpenAirMapView) {
+      ((OpenAirMapView) map).onFeatureBoundsChanged(this);
+    }
+  }
 }
@@ -1,9 +1,15 @@
 package com.airbnb.android.react.maps.open;
 
+import android.graphics.Color;
 import android.util.Log;
 import android.view.View;
 
+import com.airbnb.android.react.maps.open.tile.TileArchiveConfig;
+import com.airbnb.android.react.maps.open.tile.TileCacheConfig;
+import com.airbnb.android.react.maps.open.tile.TileSourceRegistry;
 import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.LifecycleEventListener;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
@@ -11,6 +17,7 @@ import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.common.MapBuilder;
 import com.facebook.react.modules.core.DeviceEventManagerModule;
 import com.facebook.react.uimanager.LayoutShadowNode;
+import com.facebook.react.uimanager.ReactStylesDiffMap;
 import com.facebook.react.uimanager.ThemedReactContext;
 import com.facebook.react.uimanager.ViewGroupManager;
 import com.facebook.react.uimanager.annotations.ReactProp;
@@ -37,6 +44,7 @@ public class OpenAirMapManager extends ViewGroupManager<OpenAirMapView> {
     private static final int FIT_TO_SUPPLIED_MARKERS = 6;
     private static final int FIT_TO_COORDINATES = 7;
     private static final int SET_MAP_BOUNDARIES = 8;
+    private static final int APPLY_FEATURE_BATCH = 9;
 
     private final Map<String, OnlineTileSourceBase> MAP_TYPES = MapBuilder.of(
             "standard", TileSourceFactory.MAPNIK,
@@ -47,6 +55,21 @@ public class OpenAirMapManager extends ViewGroupManager<OpenAirMapView> {
 
     public OpenAirMapManager(ReactApplicationContext context) {
         this.appContext = context;
+        context.addLifecycleEventListener(new LifecycleEventListener() {
+            @Override
+            public void onHostResume() {
+            }
+
+            @Override
+            public void onHostPause() {
+            }
+
+            @Override
+            public void onHostDestroy() {
+                // pooled views hold the activity
+                MapViewPool.clear();
+            }
+        });
     }
 
     @Override
@@ -56,6 +79,10 @@ public class OpenAirMapManager extends ViewGroupManager<OpenAirMapView> {
 
     @Override
     protected OpenAirMapView createViewInstance(ThemedReactContext context) {
+        OpenAirMapView pooled = MapViewPool.acquire(context);
+        if (pooled != null) {
+            return pooled;
+        }
         OpenAirMapView view = new OpenAirMapView(context, this.appContext, this);
         if (view.map != null) {
             MapView mapView = view.map;
@@ -103,7 +130,40 @@ public class OpenAirMapManager extends ViewGroupManager<OpenAirMapView> {
     @ReactProp(name = "mapType")
     public void setMapType(OpenAirMapView view, @Nullable String mapType) {
         OnlineTileSourceBase titleMap = MAP_TYPES.get(mapType);
-        view.setTileSource(titleMap);
+        if (titleMap == null) {
+            titleMap = TileSourceRegistry.get(mapType);
+        }
+        view.setOnlineTileSource(titleMap);
+    }
+
+    @ReactProp(name = "tileDownloadConcurrency", defaultInt = 0)
+    public void setTileDownloadConcurrency(OpenAirMapView view, int concurrency) {
+        view.setTileDownloadLimits(concurrency, view.getTileDownloadQueueSize());
+    }
+
+    @ReactProp(name = "tileDownloadQueueSize", defaultInt = 0)
+    public void setTileDownloadQueueSize(OpenAirMapView view, int queueSize) {
+        view.setTileDownloadLimits(view.getTileDownloadConcurrency(), queueSize);
+    }
+
+    @ReactProp(name = "handlePanDrag", defaultBoolean = false)
+    public void setHandlePanDrag(OpenAirMapView view, boolean handlePanDrag) {
+        view.setHandlePanDrag(handlePanDrag);
+    }
+
+    @ReactProp(name = "regionChangeThrottle", defaultInt = 0)
+    public void setRegionChangeThrottle(OpenAirMapView view, int throttleMs) {
+        view.setRegionChangeThrottle(throttleMs);
+    }
+
+    @ReactProp(name = "tileSource")
+    public void setTileSource(OpenAirMapView view, @Nullable ReadableMap tileSource) {
+        view.setTileArchive(tileSource != null ? TileArchiveConfig.fromReadableMap(tileSource) : null);
+    }
+
+    @ReactProp(name = "tileCache")
+    public void setTileCache(OpenAirMapView view, @Nullable ReadableMap tileCache) {
+        view.setTileCache(tileCache != null ? TileCacheConfig.fromReadableMap(tileCache) : null);
     }
 
     @ReactProp(name = "router")
@@ -128,9 +188,9 @@ public class OpenAirMapManager extends ViewGroupManager<OpenAirMapView> {
             if (router.hasKey("descriptionB")) {
                 descriptionB = router.getString("descriptionB");
             }
-            if (router.hasKey("coordinates")) {
-                ReadableArray array = router.getArray("coordinates");
-                view.router(array, titlePointerA, descriptionA, titlePointerB, descriptionB);
+            double[] coordinates = PackedCoordinates.fromShape(router);
+            if (coordinates != null && coordinates.length >= 2) {
+                view.router(coordinates, titlePointerA, descriptionA, titlePointerB, descriptionB);
             }
         }
     }
@@ -222,6 +282,26 @@ public class OpenAirMapManager extends ViewGroupManager<OpenAirMapView> {
         view.setCacheEnabled(cacheEnabled);
     }
 
+    @ReactProp(name = "clusteringEnabled", defaultBoolean = false)
+    public void setClusteringEnabled(OpenAirMapView view, boolean clusteringEnabled) {
+        view.setClusteringEnabled(clusteringEnabled);
+    }
+
+    @ReactProp(name = "clusterRadius", defaultFloat = 40f)
+    public void setClusterRadius(OpenAirMapView view, float clusterRadius) {
+        view.setClusterRadius(clusterRadius);
+    }
+
+    @ReactProp(name = "clusterColor", defaultInt = 0xFF1976D2, customType = "Color")
+    public void setClusterColor(OpenAirMapView view, int clusterColor) {
+        view.setClusterColor(clusterColor);
+    }
+
+    @ReactProp(name = "clusterTextColor", defaultInt = Color.WHITE, customType = "Color")
+    public void setClusterTextColor(OpenAirMapView view, int clusterTextColor) {
+        view.setClusterTextColor(clusterTextColor);
+    }
+
     @ReactProp(name = "loadingEnabled", defaultBoolean = false)
     public void setLoadingEnabled(OpenAirMapView view, boolean loadingEnabled) {
         view.enableMapLoading(loadingEnabled);
@@ -261,11 +341,7 @@ public class OpenAirMapManager extends ViewGroupManager<OpenAirMapView> {
                 lat = region.getDouble("latitude");
                 lngDelta = region.getDouble("longitudeDelta");
                 latDelta = region.getDouble("latitudeDelta");
-
-                GeoPoint southwest = new GeoPoint(lat + latDelta / 2, lng + lngDelta / 2);
-                GeoPoint northeast = new GeoPoint(lat + latDelta / 2, lng + lngDelta / 2);
-                GeoPoint point = new GeoPoint(lat, lng);
-                view.animateToRegion(point, duration);
+                view.animateToRegion(lat, lng, latDelta, lngDelta, duration);
                 break;
 
             case ANIMATE_TO_COORDINATE:
@@ -281,6 +357,22 @@ public class OpenAirMapManager extends ViewGroupManager<OpenAirMapView> {
                 angle = (float)args.getDouble(0);
                 duration = args.getInt(1);
                 break;
+
+            case FIT_TO_ELEMENTS:
+                view.fitToElements(args.getBoolean(0));
+                break;
+
+            case FIT_TO_SUPPLIED_MARKERS:
+                view.fitToSuppliedMarkers(args.getArray(0), args.getBoolean(1));
+                break;
+
+            case FIT_TO_COORDINATES:
+                view.fitToCoordinates(args.getArray(0), args.getMap(1), args.getBoolean(2));
+                break;
+
+            case APPLY_FEATURE_BATCH:
+                view.applyFeatureBatch(args.getMap(0));
+                break;
         }
     }
 
@@ -301,7 +393,8 @@ public class OpenAirMapManager extends ViewGroupManager<OpenAirMapView> {
                 "onMarkerDragStart", MapBuilder.of("registrationName", "onMarkerDragStart"),
                 "onMarkerDrag", MapBuilder.of("registrationName", "onMarkerDrag"),
                 "onMarkerDragEnd", MapBuilder.of("registrationName", "onMarkerDragEnd"),
-                "onPanDrag", MapBuilder.of("registrationName", "onPanDrag")
+                "onPanDrag", MapBuilder.of("registrationName", "onPanDrag"),
+                "onClusterPress", MapBuilder.of("registrationName", "onClusterPress")
         ));
 
         return map;
@@ -321,7 +414,8 @@ public class OpenAirMapManager extends ViewGroupManager<OpenAirMapView> {
         );
 
         map.putAll(MapBuilder.of(
-                "setMapBoundaries", SET_MAP_BOUNDARIES
+                "setMapBoundaries", SET_MAP_BOUNDARIES,
+                "applyFeatureBatch", APPLY_FEATURE_BATCH
         ));
 
         return map;
@@ -334,7 +428,7 @@ public class OpenAirMapManager extends ViewGroupManager<OpenAirMapView> {
 
     @Override
     public void addView(OpenAirMapView parent, View child, int index) {
-//        parent.addFeature(child, index);
+        parent.addFeature(child, index);
     }
 
     @Override
@@ -364,8 +458,25 @@ public class OpenAirMapManager extends ViewGroupManager<OpenAirMapView> {
 
     @Override
     public void onDropViewInstance(OpenAirMapView view) {
-        view.doDestroy();
+        if (MapViewPool.isEnabled() && !view.isDestroyed()) {
+            resetProperties(view);
+            view.recycle();
+            MapViewPool.release(view);
+        } else {
+            view.doDestroy();
+        }
         super.onDropViewInstance(view);
     }
 
+    /**
+     * Sets every prop back to its default, so a pooled view starts like a new one.
+     */
+    private void resetProperties(OpenAirMapView view) {
+        JavaOnlyMap props = new JavaOnlyMap();
+        for (String name : getNativeProps().keySet()) {
+            props.putNull(name);
+        }
+        updateProperties(view, new ReactStylesDiffMap(props));
+    }
+
 }
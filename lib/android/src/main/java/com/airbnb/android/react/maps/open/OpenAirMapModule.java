@@ -2,14 +2,46 @@ package com.airbnb.android.react.maps.open;
 
 
 import android.app.Activity;
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.util.Base64;
+import android.util.DisplayMetrics;
 
+import com.airbnb.android.react.maps.open.marker.MarkerBitmapCache;
+import com.airbnb.android.react.maps.open.tile.TileDiskCache;
+import com.airbnb.android.react.maps.open.tile.TilePrefetcher;
+import com.airbnb.android.react.maps.open.tile.TileSourceRegistry;
+import com.airbnb.android.react.maps.open.tile.UrlTemplateTileSource;
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.UiThreadUtil;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+import com.facebook.react.uimanager.NativeViewHierarchyManager;
+import com.facebook.react.uimanager.UIBlock;
+import com.facebook.react.uimanager.UIManagerModule;
 
+import org.osmdroid.tileprovider.tilesource.ITileSource;
+import org.osmdroid.tileprovider.tilesource.OnlineTileSourceBase;
+import org.osmdroid.tileprovider.tilesource.TileSourceFactory;
+
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class OpenAirMapModule extends ReactContextBaseJavaModule {
 
@@ -18,8 +50,37 @@ public class OpenAirMapModule extends ReactContextBaseJavaModule {
     private static final String SNAPSHOT_FORMAT_PNG = "png";
     private static final String SNAPSHOT_FORMAT_JPG = "jpg";
 
+    private static final String PREFETCH_PROGRESS_EVENT = "OpenAirMapPrefetchProgress";
+    private static final int MAX_PREFETCH_CONCURRENCY = 8;
+
+    // snapshots are encoded one at a time, so a burst of thumbnails holds few bitmaps at once
+    private static final ExecutorService snapshotExecutor = Executors.newSingleThreadExecutor();
+
+    private final Map<String, TilePrefetcher> prefetchers = new HashMap<>();
+    private int prefetchCount = 0;
+    private StaticMapRenderer staticMapRenderer;
+
+    // process wide caches; each map trims its own tiles, see OpenAirMapView.trimMemory
+    private final ComponentCallbacks2 memoryCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            BitmapPool.trimMemory(level);
+            MarkerBitmapCache.trimMemory(level);
+        }
+
+        @Override
+        public void onLowMemory() {
+            onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+        }
+    };
+
     public OpenAirMapModule(ReactApplicationContext reactContext) {
         super(reactContext);
+        reactContext.getApplicationContext().registerComponentCallbacks(memoryCallbacks);
     }
 
     @Override
@@ -31,9 +92,312 @@ public class OpenAirMapModule extends ReactContextBaseJavaModule {
     public Map<String, Object> getConstants() {
         final Map<String, Object> constants = new HashMap<>();
         constants.put("legalNotice", "This license information is displayed in Settings > Google > Open Source on any device running Google Play services.");
+        constants.put("prefetchProgressEvent", PREFETCH_PROGRESS_EVENT);
         return constants;
     }
 
+    @ReactMethod
+    public void getTileCacheStats(Promise promise) {
+        WritableArray result = Arguments.createArray();
+        for (TileDiskCache cache : TileDiskCache.all()) {
+            WritableMap stats = Arguments.createMap();
+            stats.putString("namespace", cache.getNamespace());
+            stats.putDouble("hits", cache.getHits());
+            stats.putDouble("misses", cache.getMisses());
+            stats.putDouble("size", cache.getSizeBytes());
+            stats.putInt("tiles", cache.getTileCount());
+            result.pushMap(stats);
+        }
+        promise.resolve(result);
+    }
+
+    @ReactMethod
+    public void clearTileCache(String namespace, Promise promise) {
+        for (TileDiskCache cache : TileDiskCache.all()) {
+            if (namespace == null || namespace.equals(cache.getNamespace())) {
+                cache.clear();
+            }
+        }
+        promise.resolve(null);
+    }
+
+    /**
+     * Renders a map view into an image. The view is drawn on the UI thread into a pooled bitmap,
+     * scaling and PNG or JPG encoding happen in the background. Resolves with a file uri or a
+     * base64 string depending on options.result.
+     */
+    @ReactMethod
+    public void takeSnapshot(final int tag, final ReadableMap options, final Promise promise) {
+        final ReactApplicationContext context = getReactApplicationContext();
+        DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+        final int width = options.hasKey("width") ? (int) (metrics.density * options.getDouble("width")) : 0;
+        final int height = options.hasKey("height") ? (int) (metrics.density * options.getDouble("height")) : 0;
+        final String format = options.hasKey("format") ? options.getString("format") : SNAPSHOT_FORMAT_PNG;
+        final int quality = options.hasKey("quality") ? (int) (100.0 * options.getDouble("quality")) : 100;
+        final String result = options.hasKey("result") ? options.getString("result") : SNAPSHOT_RESULT_FILE;
+        final Bitmap.CompressFormat compressFormat = SNAPSHOT_FORMAT_JPG.equals(format)
+                ? Bitmap.CompressFormat.JPEG : Bitmap.CompressFormat.PNG;
+
+        UIManagerModule uiManager = context.getNativeModule(UIManagerModule.class);
+        uiManager.addUIBlock(new UIBlock() {
+            @Override
+            public void execute(NativeViewHierarchyManager nvhm) {
+                OpenAirMapView view = (OpenAirMapView) nvhm.resolveView(tag);
+                if (view == null) {
+                    promise.reject("E_SNAPSHOT", "OpenAirMapView not found");
+                    return;
+                }
+                if (view.getWidth() <= 0 || view.getHeight() <= 0) {
+                    promise.reject("E_SNAPSHOT", "OpenAirMapView has not been laid out");
+                    return;
+                }
+                final Bitmap snapshot = view.renderSnapshot();
+                snapshotExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            promise.resolve(encodeSnapshot(context, snapshot, width, height,
+                                    compressFormat, quality, format, result));
+                        } catch (IOException | RuntimeException e) {
+                            promise.reject("E_SNAPSHOT", e);
+                        } finally {
+                            BitmapPool.release(snapshot);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private static String encodeSnapshot(ReactApplicationContext context, Bitmap snapshot,
+                                         int width, int height, Bitmap.CompressFormat compressFormat,
+                                         int quality, String format, String result) throws IOException {
+        Bitmap bitmap = snapshot;
+        if (width > 0 && height > 0 && (width != snapshot.getWidth() || height != snapshot.getHeight())) {
+            bitmap = Bitmap.createScaledBitmap(snapshot, width, height, true);
+        }
+        try {
+            if (SNAPSHOT_RESULT_BASE64.equals(result)) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                bitmap.compress(compressFormat, quality, out);
+                return Base64.encodeToString(out.toByteArray(), Base64.NO_WRAP);
+            }
+
+            File file = File.createTempFile("OpenAirMapSnapshot", "." + format, context.getCacheDir());
+            OutputStream out = null;
+            try {
+                out = new FileOutputStream(file);
+                bitmap.compress(compressFormat, quality, out);
+            } finally {
+                closeQuietly(out);
+            }
+            return Uri.fromFile(file).toString();
+        } finally {
+            if (bitmap != snapshot) {
+                bitmap.recycle();
+            }
+        }
+    }
+
+    /**
+     * Keeps up to size unmounted map views for reuse by the next mounts, 0 turns pooling off.
+     */
+    @ReactMethod
+    public void setMapViewPoolSize(final int size) {
+        UiThreadUtil.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                MapViewPool.setMaxSize(size);
+            }
+        });
+    }
+
+    /**
+     * Registers a URL template tile source that maps can select through mapType.
+     */
+    @ReactMethod
+    public void registerTileSource(String name, ReadableMap config, Promise promise) {
+        if (name == null || config == null || !config.hasKey("urlTemplate")) {
+            promise.reject("E_TILE_SOURCE", "A name and a urlTemplate are required");
+            return;
+        }
+        TileSourceRegistry.register(UrlTemplateTileSource.fromReadableMap(name, config));
+        promise.resolve(name);
+    }
+
+    /**
+     * Downloads every tile of a region and zoom range into the tile cache. Resolves with the id
+     * of the download; progress is reported through OpenAirMapPrefetchProgress events.
+     */
+    @ReactMethod
+    public void prefetchRegion(ReadableMap options, Promise promise) {
+        ITileSource tileSource;
+        try {
+            tileSource = tileSourceOf(options);
+        } catch (IllegalArgumentException e) {
+            promise.reject("E_TILE_SOURCE", e.getMessage());
+            return;
+        }
+        if (!(tileSource instanceof OnlineTileSourceBase)) {
+            promise.reject("E_TILE_SOURCE", tileSource.name() + " is not an online tile source");
+            return;
+        }
+        if (!options.hasKey("region")) {
+            promise.reject("E_REGION", "A region is required");
+            return;
+        }
+
+        ReadableMap region = options.getMap("region");
+        double lat = region.getDouble("latitude");
+        double lng = region.getDouble("longitude");
+        double latDelta = region.getDouble("latitudeDelta");
+        double lngDelta = region.getDouble("longitudeDelta");
+        int minZoom = options.hasKey("minZoom") ? options.getInt("minZoom") : 0;
+        int maxZoom = options.hasKey("maxZoom") ? options.getInt("maxZoom") : 16;
+        int concurrency = options.hasKey("concurrency") ? options.getInt("concurrency") : 2;
+        concurrency = Math.max(1, Math.min(MAX_PREFETCH_CONCURRENCY, concurrency));
+        if (minZoom < 0 || maxZoom < minZoom || maxZoom > tileSource.getMaximumZoomLevel()) {
+            promise.reject("E_ZOOM", "Invalid zoom range " + minZoom + "-" + maxZoom);
+            return;
+        }
+
+        String namespace = options.hasKey("namespace") ? options.getString("namespace") : "default";
+        TileDiskCache cache = TileDiskCache.forNamespace(getReactApplicationContext(), namespace);
+
+        String id;
+        synchronized (prefetchers) {
+            id = options.hasKey("id") ? options.getString("id") : "prefetch-" + (++prefetchCount);
+            TilePrefetcher existing = prefetchers.get(id);
+            if (existing != null && existing.isRunning()) {
+                promise.reject("E_RUNNING", "Prefetch " + id + " is already running");
+                return;
+            }
+            TilePrefetcher prefetcher = new TilePrefetcher(id, (OnlineTileSourceBase) tileSource, cache,
+                    lat + latDelta / 2, lng + lngDelta / 2, lat - latDelta / 2, lng - lngDelta / 2,
+                    minZoom, maxZoom, concurrency, new TilePrefetcher.Listener() {
+                        @Override
+                        public void onProgress(TilePrefetcher prefetcher, boolean finished) {
+                            emitPrefetchProgress(prefetcher, finished);
+                            if (finished && !prefetcher.isCancelled()) {
+                                // only cancelled prefetches can be resumed
+                                synchronized (prefetchers) {
+                                    if (prefetchers.get(prefetcher.getId()) == prefetcher) {
+                                        prefetchers.remove(prefetcher.getId());
+                                    }
+                                }
+                            }
+                        }
+                    });
+            prefetchers.put(id, prefetcher);
+            prefetcher.start();
+        }
+        promise.resolve(id);
+    }
+
+    /**
+     * Renders a region with an optional polyline and markers into an image file without a map
+     * view, from the tile cache and the network. Resolves with the file uri; the same request
+     * resolves with the same file without rendering again.
+     */
+    @ReactMethod
+    public void renderStaticMap(ReadableMap options, Promise promise) {
+        if (!options.hasKey("region") || !options.hasKey("width") || !options.hasKey("height")) {
+            promise.reject("E_STATIC_MAP", "A region, width and height are required");
+            return;
+        }
+        ITileSource tileSource;
+        try {
+            tileSource = tileSourceOf(options);
+        } catch (IllegalArgumentException e) {
+            promise.reject("E_TILE_SOURCE", e.getMessage());
+            return;
+        }
+        ReactApplicationContext context = getReactApplicationContext();
+        String namespace = options.hasKey("namespace") ? options.getString("namespace") : "default";
+        TileDiskCache cache = TileDiskCache.forNamespace(context, namespace);
+        float density = context.getResources().getDisplayMetrics().density;
+
+        StaticMapRenderer renderer;
+        synchronized (this) {
+            if (staticMapRenderer == null) {
+                staticMapRenderer = new StaticMapRenderer(context);
+            }
+            renderer = staticMapRenderer;
+        }
+        renderer.render(StaticMapRenderer.Request.fromReadableMap(options, tileSource, cache, density), promise);
+    }
+
+    private static ITileSource tileSourceOf(ReadableMap options) {
+        String name = options.hasKey("tileSource") ? options.getString("tileSource") : TileSourceFactory.MAPNIK.name();
+        ITileSource tileSource = TileSourceRegistry.get(name);
+        return tileSource != null ? tileSource : TileSourceFactory.getTileSource(name);
+    }
+
+    @ReactMethod
+    public void cancelPrefetch(String id, Promise promise) {
+        TilePrefetcher prefetcher;
+        synchronized (prefetchers) {
+            prefetcher = prefetchers.get(id);
+        }
+        if (prefetcher == null) {
+            promise.reject("E_NOT_FOUND", "No prefetch with id " + id);
+            return;
+        }
+        prefetcher.cancel();
+        promise.resolve(null);
+    }
+
+    @ReactMethod
+    public void resumePrefetch(String id, Promise promise) {
+        TilePrefetcher prefetcher;
+        synchronized (prefetchers) {
+            prefetcher = prefetchers.get(id);
+        }
+        if (prefetcher == null) {
+            promise.reject("E_NOT_FOUND", "No prefetch with id " + id);
+            return;
+        }
+        prefetcher.resume();
+        promise.resolve(id);
+    }
+
+    private void emitPrefetchProgress(TilePrefetcher prefetcher, boolean finished) {
+        WritableMap event = Arguments.createMap();
+        event.putString("id", prefetcher.getId());
+        event.putDouble("total", prefetcher.getTotal());
+        event.putInt("downloaded", prefetcher.getDownloaded());
+        event.putInt("skipped", prefetcher.getSkipped());
+        event.putInt("failed", prefetcher.getFailed());
+        event.putBoolean("finished", finished);
+        event.putBoolean("cancelled", prefetcher.isCancelled());
+        getReactApplicationContext()
+                .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+                .emit(PREFETCH_PROGRESS_EVENT, event);
+    }
+
+    @Override
+    public void onCatalystInstanceDestroy() {
+        getReactApplicationContext().getApplicationContext().unregisterComponentCallbacks(memoryCallbacks);
+        synchronized (prefetchers) {
+            for (TilePrefetcher prefetcher : prefetchers.values()) {
+                prefetcher.cancel();
+            }
+            prefetchers.clear();
+        }
+        UiThreadUtil.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                MapViewPool.clear();
+            }
+        });
+        synchronized (this) {
+            if (staticMapRenderer != null) {
+                staticMapRenderer.shutdown();
+                staticMapRenderer = null;
+            }
+        }
+    }
+
     public Activity getActivity() {
         return getCurrentActivity();
     }
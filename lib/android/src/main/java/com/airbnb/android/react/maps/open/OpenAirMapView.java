@@ -1,13 +1,22 @@
 package com.airbnb.android.react.maps.open;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.pm.PackageManager;
 import android.content.res.ColorStateList;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Point;
 import android.graphics.PorterDuff;
+import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+import android.os.SystemClock;
 import android.support.v4.view.GestureDetectorCompat;
 import android.util.Log;
 import android.view.GestureDetector;
@@ -19,32 +28,61 @@ import android.widget.ProgressBar;
 import android.widget.RelativeLayout;
 
 import com.airbnb.android.react.maps.R;
+import com.airbnb.android.react.maps.open.marker.ClusterOverlay;
+import com.airbnb.android.react.maps.open.marker.MarkerClusterer;
+import com.airbnb.android.react.maps.open.marker.OpenAirMapMarker;
 import com.airbnb.android.react.maps.open.polyline.OpenAirMapPolyline;
+import com.airbnb.android.react.maps.open.polyline.SimplifiedPolyline;
+import com.airbnb.android.react.maps.open.tile.ArchiveTileProvider;
+import com.airbnb.android.react.maps.open.tile.OpenAirTileProvider;
+import com.airbnb.android.react.maps.open.tile.TileArchive;
+import com.airbnb.android.react.maps.open.tile.TileArchiveConfig;
+import com.airbnb.android.react.maps.open.tile.TileCacheConfig;
+import com.airbnb.android.react.maps.open.tile.TileDiskCache;
+import com.airbnb.android.react.maps.open.tile.UrlTemplateTileSource;
 import com.facebook.react.bridge.LifecycleEventListener;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeArray;
 import com.facebook.react.bridge.WritableNativeMap;
 import com.facebook.react.uimanager.ThemedReactContext;
 import com.facebook.react.uimanager.UIManagerModule;
 import com.facebook.react.uimanager.events.EventDispatcher;
 
+import org.osmdroid.api.IGeoPoint;
 import org.osmdroid.api.IMapController;
+import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.tileprovider.MapTileProviderBase;
+import org.osmdroid.tileprovider.tilesource.ITileSource;
+import org.osmdroid.tileprovider.tilesource.TileSourceFactory;
+import org.osmdroid.events.MapEventsReceiver;
+import org.osmdroid.events.MapListener;
+import org.osmdroid.events.ScrollEvent;
+import org.osmdroid.events.ZoomEvent;
+import org.osmdroid.util.BoundingBox;
 import org.osmdroid.util.GeoPoint;
 import org.osmdroid.views.MapView;
-import org.osmdroid.views.Projection;
 import org.osmdroid.views.overlay.ItemizedIconOverlay;
 import org.osmdroid.views.overlay.ItemizedOverlayWithFocus;
+import org.osmdroid.views.overlay.MapEventsOverlay;
 import org.osmdroid.views.overlay.Marker;
+import org.osmdroid.views.overlay.Overlay;
 import org.osmdroid.views.overlay.OverlayItem;
-import org.osmdroid.views.overlay.Polyline;
-import org.osmdroid.views.overlay.infowindow.BasicInfoWindow;
+import org.osmdroid.views.overlay.infowindow.InfoWindow;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static android.support.v4.content.PermissionChecker.checkSelfPermission;
 
@@ -57,28 +95,69 @@ public class OpenAirMapView extends MapView implements Marker.OnMarkerDragListen
     private Integer loadingBackgroundColor = null;
     private Integer loadingIndicatorColor = null;
     private final int baseMapPadding = 50;
+    private static final int FIT_ANIMATION_MS = 500;
 
     private boolean showUserLocation = false;
     private boolean handlePanDrag = false;
     private boolean moveOnMarkerPress = true;
     private boolean cacheEnabled = false;
+    private boolean snapshotShown = false;
+    private Bitmap snapshotBitmap;
     private boolean initialRegionSet = false;
     private int cameraMoveReason = 0;
+    private final Point scratchPoint = new Point();
+    private final Rect scratchRect = new Rect();
+    private final GeoPoint scratchGeoPoint = new GeoPoint(0.0, 0.0);
+    private int regionChangeThrottleMs = 0;
+    private long lastRegionChangeTime = 0;
+    private boolean regionChangePending = false;
+    private boolean touching = false;
+    private BoundingBox lastRegion;
+    private BoundingBox lastSettledRegion;
+
+    // the camera counts as settled once it has not moved for this long without a finger down
+    private static final int REGION_SETTLE_DELAY_MS = 150;
+    // in cache mode the map counts as complete once it has not been invalidated for this long
+    private static final int SNAPSHOT_IDLE_DELAY_MS = 300;
 
     private static final String[] PERMISSIONS = new String[] {
             "android.permission.ACCESS_FINE_LOCATION", "android.permission.ACCESS_COARSE_LOCATION"
     };
 
     private final List<OpenAirMapFeature> features = new ArrayList<>();
-    private final Map<Polyline, OpenAirMapPolyline> polylineMap = new HashMap<>();
+    private final Map<Overlay, OpenAirMapPolyline> polylineMap = new HashMap<>();
+    private final SpatialIndex<OpenAirMapFeature> featureIndex = new SpatialIndex<>();
+    private List<OpenAirMapFeature> visibleFeatures = new ArrayList<>();
+    private List<OpenAirMapFeature> visibleScratch = new ArrayList<>();
+    private int viewportGeneration = 0;
+    private final MarkerClusterer clusterer = new MarkerClusterer();
+    private ClusterOverlay clusterOverlay;
+    private FeatureBatchLayer featureBatch;
+    private boolean clusterUpdatePending = false;
+    private Integer clusterColor = null;
+    private Integer clusterTextColor = null;
+    private ITileSource onlineTileSource = TileSourceFactory.MAPNIK;
+    private TileCacheConfig tileCacheConfig;
+    private int tileDownloadConcurrency = 0;
+    private int tileDownloadQueueSize = 0;
+    // archive last requested, an archive that finishes opening after a newer request is closed
+    private TileArchiveConfig tileArchiveConfig;
     private final GestureDetectorCompat gestureDetector;
+    private final CameraAnimator cameraAnimator = new CameraAnimator(this);
+    // camera move requested before the first layout, applied as soon as the size is known
+    private Runnable pendingCameraMove;
     private final OpenAirMapManager manager;
     private LifecycleEventListener lifecycleListener;
     private boolean paused = false;
     private boolean destroyed = false;
+    private boolean osmdroidDetached = false;
+    private final List<Overlay> routerOverlays = new ArrayList<>();
     private final ThemedReactContext context;
     private final EventDispatcher eventDispatcher;
 
+    private static final ExecutorService archiveExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
     private static boolean contextHasBug(Context context) {
         return context == null ||
                 context.getResources() == null ||
@@ -100,7 +179,7 @@ public class OpenAirMapView extends MapView implements Marker.OnMarkerDragListen
                                     float distanceX,
                                     float distanceY) {
                 if (handlePanDrag) {
-//                onPanDrag(e2);
+                    onPanDrag(e2);
                 }
                 return false;
             }
@@ -112,10 +191,125 @@ public class OpenAirMapView extends MapView implements Marker.OnMarkerDragListen
                 if (!paused) {
                     OpenAirMapView.this.cacheView();
                 }
+                if (pendingCameraMove != null && hasViewport()) {
+                    Runnable move = pendingCameraMove;
+                    pendingCameraMove = null;
+                    move.run();
+                }
+                updateVisibleFeatures();
+                updateTileViewport(getTileProvider());
             }
         });
 
+        this.setMapListener(new MapListener() {
+            @Override
+            public boolean onScroll(ScrollEvent event) {
+                invalidateSnapshot();
+                updateVisibleFeatures();
+                updateTileViewport(getTileProvider());
+                onCameraMove();
+                return false;
+            }
+
+            @Override
+            public boolean onZoom(ZoomEvent event) {
+                invalidateSnapshot();
+                updateVisibleFeatures();
+                updateTileViewport(getTileProvider());
+                applyClusters();
+                onCameraMove();
+                return false;
+            }
+        });
+
+        setTileProvider(createOnlineTileProvider());
+
+        // below every feature, so it only sees taps no marker or shape handled
+        getOverlays().add(0, new MapEventsOverlay(new MapEventsReceiver() {
+            @Override
+            public boolean singleTapConfirmedHelper(GeoPoint point) {
+                pushPointEvent(getId(), "onPress", point, null, null, false);
+                return false;
+            }
+
+            @Override
+            public boolean longPressHelper(GeoPoint point) {
+                pushPointEvent(getId(), "onLongPress", point, null, null, false);
+                return false;
+            }
+        }));
+
         eventDispatcher = reactContext.getNativeModule(UIManagerModule.class).getEventDispatcher();
+
+        lifecycleListener = new LifecycleEventListener() {
+            @Override
+            public void onHostResume() {
+                setPaused(false);
+            }
+
+            @Override
+            public void onHostPause() {
+                setPaused(true);
+            }
+
+            @Override
+            public void onHostDestroy() {
+                doDestroy();
+            }
+        };
+        context.addLifecycleEventListener(lifecycleListener);
+        getContext().getApplicationContext().registerComponentCallbacks(memoryCallbacks);
+    }
+
+    /**
+     * Stops tile downloads and pending region events while the app is in the background, and
+     * picks them up again when it returns.
+     */
+    private void setPaused(boolean paused) {
+        if (destroyed || this.paused == paused) return;
+        this.paused = paused;
+        MapTileProviderBase provider = getTileProvider();
+        if (provider instanceof OpenAirTileProvider) {
+            ((OpenAirTileProvider) provider).setPaused(paused);
+        }
+        if (paused) {
+            cameraAnimator.cancel();
+            removeCallbacks(throttledRegionChange);
+            regionChangePending = false;
+        } else {
+            // tiles dropped while paused are requested again by the next draw
+            invalidate();
+        }
+    }
+
+    private final ComponentCallbacks2 memoryCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            trimMemory(level);
+        }
+
+        @Override
+        public void onLowMemory() {
+            trimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+        }
+    };
+
+    /**
+     * Drops the tiles held in memory when the map is off screen or memory is critical. They load
+     * again from the disk cache when the map draws.
+     */
+    private void trimMemory(int level) {
+        if (destroyed) return;
+        boolean offScreen = paused || getWindowToken() == null;
+        if ((offScreen && level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW)
+                || level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            getTileProvider().clearTileCache();
+        }
     }
 
     private boolean hasPermissions() {
@@ -132,16 +326,65 @@ public class OpenAirMapView extends MapView implements Marker.OnMarkerDragListen
         }
 
         destroyed = true;
+        pendingCameraMove = null;
+        removeCallbacks(takeCacheSnapshot);
+        removeCacheImageView();
+        removeCallbacks(regionSettled);
+        removeCallbacks(throttledRegionChange);
+        cameraAnimator.cancel();
 
         if (lifecycleListener != null && context != null) {
             context.removeLifecycleEventListener(lifecycleListener);
             lifecycleListener = null;
         }
-        if (!paused) {
-//            onPause();
-            paused = true;
+        getContext().getApplicationContext().unregisterComponentCallbacks(memoryCallbacks);
+        paused = true;
+        // stops the tile threads and frees the memory tile cache and the overlays
+        onDetach();
+    }
+
+    boolean isDestroyed() {
+        return destroyed;
+    }
+
+    @Override
+    public void onDetach() {
+        // with pooling, a map taken off the screen keeps its tile provider and overlays until it
+        // is destroyed, see MapViewPool
+        if (osmdroidDetached || (MapViewPool.isEnabled() && !destroyed)) return;
+        osmdroidDetached = true;
+        super.onDetach();
+    }
+
+    /**
+     * Removes everything a mount added, so the view can serve the next mount as if it were new.
+     * Props are reset by the manager; the tile provider and its in-memory tiles are kept.
+     */
+    void recycle() {
+        cameraAnimator.cancel();
+        pendingCameraMove = null;
+        removeCallbacks(regionSettled);
+        removeCallbacks(throttledRegionChange);
+        removeCallbacks(takeCacheSnapshot);
+        regionChangePending = false;
+        touching = false;
+        lastRegion = null;
+        lastSettledRegion = null;
+        lastRegionChangeTime = 0;
+        initialRegionSet = false;
+
+        for (int i = features.size() - 1; i >= 0; i--) {
+            removeFeatureAt(i);
+        }
+        if (featureBatch != null) {
+            featureBatch.clear();
         }
-//        onDestroy();
+        clearRouter();
+        InfoWindow.closeAllInfoWindowsOn(this);
+        removeCacheImageView();
+        removeMapLoadingLayoutView();
+        removeAllViews();
+        invalidate();
     }
 
     public void setInitialRegion(ReadableMap initialRegion) {
@@ -162,26 +405,13 @@ public class OpenAirMapView extends MapView implements Marker.OnMarkerDragListen
     public void setRegion(ReadableMap region) {
         if (region == null) return;
 
-        Double lng = region.getDouble("longitude");
-        Double lat = region.getDouble("latitude");
-        Double lngDelta = region.getDouble("longitudeDelta");
-        Double latDelta = region.getDouble("latitudeDelta");
-        GeoPoint southwest = new GeoPoint(lat - latDelta / 2, lng - lngDelta / 2);
-        GeoPoint northeast = new GeoPoint(lat + latDelta / 2, lng + lngDelta / 2);
-
-        Bounds bounds = new Bounds(southwest, northeast);
-
-        if (super.getHeight() <= 0 || super.getWidth() <= 0) {
-            // in this case, our map has not been laid out yet, so we save the bounds in a local
-            // variable, and make a guess of zoomLevel 10. Not to worry, though: as soon as layout
-            // occurs, we will move the camera to the saved bounds. Note that if we tried to move
-            // to the bounds now, it would trigger an exception.
-//            map.moveCamera(CameraUpdateFactory.newLatLngZoom(new LatLng(lat, lng), 10));
-//            boundsToMove = bounds;
-        } else {
-//            map.moveCamera(CameraUpdateFactory.newLatLngBounds(bounds, 0));
-//            boundsToMove = null;
-        }
+        double lng = region.getDouble("longitude");
+        double lat = region.getDouble("latitude");
+        double lngDelta = region.getDouble("longitudeDelta");
+        double latDelta = region.getDouble("latitudeDelta");
+        Bounds bounds = new Bounds(lat - latDelta / 2, lng - lngDelta / 2,
+                lat + latDelta / 2, lng + lngDelta / 2);
+        fitBounds(bounds, 0, 0, 0, 0, false);
     }
 
     public void setShowsUserLocation(boolean showUserLocation) {
@@ -194,31 +424,21 @@ public class OpenAirMapView extends MapView implements Marker.OnMarkerDragListen
         }
     }
 
-    public void router(ReadableArray array, String titlePointerA, String descritptionA, String titlePointerB, String descritptionB) {
-        List<GeoPoint> coordinates = new ArrayList<>();
-        if (array.size() > 1) {
-            for (int i = 0; i < array.size(); i++) {
-                ReadableMap coordinate = array.getMap(i);
-                GeoPoint poit = new GeoPoint(coordinate.getDouble("latitude"), coordinate.getDouble("longitude"));
-                coordinates.add(i, poit);
-            }
-            ReadableMap coo = array.getMap(0);
-            GeoPoint pt = new GeoPoint(coo.getDouble("latitude"), coo.getDouble("longitude"));    
-            IMapController mapController = this.map.getController();
-            if (mapController != null) {
-                mapController.setZoom(15);
-                mapController.setCenter(pt);
-            }
-            loadingMap(coordinates, titlePointerA, descritptionA, titlePointerB, descritptionB);
+    public void router(double[] latLngs, String titlePointerA, String descritptionA, String titlePointerB, String descritptionB) {
+        clearRouter();
+        int count = latLngs.length / 2;
+        List<GeoPoint> coordinates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            coordinates.add(new GeoPoint(latLngs[2 * i], latLngs[2 * i + 1]));
+        }
+        IMapController mapController = this.map.getController();
+        if (mapController != null) {
+            mapController.setZoom(15);
+            mapController.setCenter(coordinates.get(0));
+        }
+        if (count > 1) {
+            loadingMap(latLngs, coordinates, titlePointerA, descritptionA, titlePointerB, descritptionB);
         } else {
-            ReadableMap coordinate = array.getMap(0);
-            GeoPoint poit = new GeoPoint(coordinate.getDouble("latitude"), coordinate.getDouble("longitude"));
-            coordinates.add(0, poit);            
-            IMapController mapController = this.map.getController();
-            if (mapController != null) {
-                mapController.setZoom(15);
-                mapController.setCenter(poit);
-            }
             loadingSingleMap(coordinates, titlePointerA, descritptionA);
         }
     }
@@ -247,16 +467,15 @@ public class OpenAirMapView extends MapView implements Marker.OnMarkerDragListen
         });
         mOverlay.setFocusItemsOnTap(true);
         this.map.getOverlays().add(mOverlay);
+        routerOverlays.add(mOverlay);
     }
 
-    private void loadingMap(List<GeoPoint> pts, String titlePointerA, String descritptionA, String titlePointerB,  String descritptionB) {
-        Polyline line = new Polyline(this.getContext());
-        line.setSubDescription(Polyline.class.getCanonicalName());
+    private void loadingMap(double[] latLngs, List<GeoPoint> pts, String titlePointerA, String descritptionA, String titlePointerB,  String descritptionB) {
+        SimplifiedPolyline line = new SimplifiedPolyline();
         line.setWidth(5);
         line.setColor(this.getResources().getColor(R.color.line_router_color));
-        line.setPoints(pts);
         line.setGeodesic(true);
-        line.setInfoWindow(new BasicInfoWindow(R.layout.bonuspack_bubble, this.map));
+        line.setCoordinates(latLngs);
 
         OverlayItem myLocation = new OverlayItem(titlePointerA, descritptionA, new GeoPoint(pts.get(0).getLatitude(), pts.get(0).getLongitude()));
         Drawable newMarker = this.getResources().getDrawable(R.drawable.person);
@@ -284,6 +503,126 @@ public class OpenAirMapView extends MapView implements Marker.OnMarkerDragListen
         mOverlay.setFocusItemsOnTap(true);
         this.map.getOverlays().add(mOverlay);
         this.map.getOverlayManager().add(line);
+        routerOverlays.add(mOverlay);
+        routerOverlays.add(line);
+    }
+
+    private void clearRouter() {
+        if (routerOverlays.isEmpty()) return;
+        getOverlays().removeAll(routerOverlays);
+        routerOverlays.clear();
+        invalidate();
+    }
+
+    /**
+     * Sets the online tile source. It is remembered while an offline archive is shown.
+     */
+    public void setOnlineTileSource(ITileSource tileSource) {
+        ITileSource previous = onlineTileSource;
+        onlineTileSource = tileSource != null ? tileSource : TileSourceFactory.MAPNIK;
+        if (getTileProvider() instanceof ArchiveTileProvider || previous == onlineTileSource) return;
+
+        // URL template sources size their download threads by their hosts
+        if (previous instanceof UrlTemplateTileSource || onlineTileSource instanceof UrlTemplateTileSource) {
+            setTileProvider(createOnlineTileProvider());
+        } else {
+            setTileSource(onlineTileSource);
+        }
+    }
+
+    public void setTileCache(TileCacheConfig config) {
+        tileCacheConfig = config;
+        updateOnlineTileProvider();
+    }
+
+    /**
+     * Number of parallel tile downloads and of tiles waiting for one, 0 for the defaults.
+     */
+    public void setTileDownloadLimits(int concurrency, int queueSize) {
+        tileDownloadConcurrency = concurrency;
+        tileDownloadQueueSize = queueSize;
+        updateOnlineTileProvider();
+    }
+
+    public int getTileDownloadConcurrency() {
+        return tileDownloadConcurrency;
+    }
+
+    public int getTileDownloadQueueSize() {
+        return tileDownloadQueueSize;
+    }
+
+    /**
+     * Shows tiles from a local MBTiles file or tile directory instead of an online source, or
+     * goes back online when the config is null.
+     */
+    public void setTileArchive(final TileArchiveConfig config) {
+        tileArchiveConfig = config;
+        if (config == null) {
+            if (getTileProvider() instanceof ArchiveTileProvider) {
+                setTileProvider(createOnlineTileProvider());
+            }
+            return;
+        }
+
+        // opening reads the file, which must not happen on the UI thread
+        archiveExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final TileArchive archive;
+                try {
+                    archive = config.open();
+                } catch (IOException e) {
+                    Log.w("OpenAirMapView", "Failed to open tile archive", e);
+                    return;
+                }
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (destroyed || tileArchiveConfig != config) {
+                            archive.close();
+                            return;
+                        }
+                        setTileProvider(new ArchiveTileProvider(getContext(), archive, config.getHotCacheBytes()));
+                    }
+                });
+            }
+        });
+    }
+
+    private void updateOnlineTileProvider() {
+        MapTileProviderBase current = getTileProvider();
+        if (current instanceof ArchiveTileProvider) return;
+        if (current instanceof OpenAirTileProvider) {
+            OpenAirTileProvider provider = (OpenAirTileProvider) current;
+            if (provider.getCache() == getTileDiskCache()
+                    && provider.hasDownloadLimits(tileDownloadConcurrency, tileDownloadQueueSize)) {
+                return;
+            }
+        }
+        setTileProvider(createOnlineTileProvider());
+    }
+
+    private TileDiskCache getTileDiskCache() {
+        Context appContext = getContext().getApplicationContext();
+        return tileCacheConfig != null
+                ? TileDiskCache.forConfig(appContext, tileCacheConfig)
+                : TileDiskCache.forNamespace(appContext, "default");
+    }
+
+    private MapTileProviderBase createOnlineTileProvider() {
+        OpenAirTileProvider provider = new OpenAirTileProvider(getContext(), onlineTileSource,
+                getTileDiskCache(), tileDownloadConcurrency, tileDownloadQueueSize);
+        provider.setPaused(paused);
+        updateTileViewport(provider);
+        return provider;
+    }
+
+    private void updateTileViewport(MapTileProviderBase provider) {
+        if (!(provider instanceof OpenAirTileProvider) || !hasViewport()) return;
+        BoundingBox box = getBoundingBox();
+        ((OpenAirTileProvider) provider).getScheduler().setViewport(getZoomLevel(),
+                box.getLatNorth(), box.getLonEast(), box.getLatSouth(), box.getLonWest());
     }
 
     public void zoom(int zoom) {
@@ -296,7 +635,11 @@ public class OpenAirMapView extends MapView implements Marker.OnMarkerDragListen
     }
 
     public void setCacheEnabled(boolean cacheEnabled) {
+        if (this.cacheEnabled == cacheEnabled) return;
         this.cacheEnabled = cacheEnabled;
+        if (hasViewport()) {
+            cacheView();
+        }
     }
 
     public void enableMapLoading(boolean loadingEnabled) {
@@ -357,6 +700,99 @@ public class OpenAirMapView extends MapView implements Marker.OnMarkerDragListen
         this.handlePanDrag = handlePanDrag;
     }
 
+    /**
+     * Minimum time between two continuous region change events, 0 to send one per frame.
+     */
+    public void setRegionChangeThrottle(int throttleMs) {
+        this.regionChangeThrottleMs = Math.max(0, throttleMs);
+    }
+
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent ev) {
+        gestureDetector.onTouchEvent(ev);
+
+        int action = ev.getActionMasked();
+        if (action == MotionEvent.ACTION_DOWN) {
+            touching = true;
+            // the user takes over the camera
+            cameraAnimator.cancel();
+        } else if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            touching = false;
+            scheduleRegionSettled();
+        }
+        return super.dispatchTouchEvent(ev);
+    }
+
+    private void onPanDrag(MotionEvent ev) {
+        getProjection().fromPixels((int) ev.getX(), (int) ev.getY(), scratchGeoPoint);
+        eventDispatcher.dispatchEvent(MapPointEvent.obtain(getId(), "onPanDrag",
+                scratchGeoPoint.getLatitude(), scratchGeoPoint.getLongitude(), ev.getX(), ev.getY(),
+                null, null, true));
+    }
+
+    /**
+     * Dispatches an event at a point of the map to the view with the given tag, without
+     * allocating its payload until it is sent. Must be called on the UI thread.
+     */
+    public void pushPointEvent(int viewTag, String name, IGeoPoint point, String action, String id,
+                               boolean coalesce) {
+        toViewPixels(point);
+        eventDispatcher.dispatchEvent(MapPointEvent.obtain(viewTag, name,
+                point.getLatitude(), point.getLongitude(), scratchPoint.x, scratchPoint.y,
+                action, id, coalesce));
+    }
+
+    private final Runnable regionSettled = new Runnable() {
+        @Override
+        public void run() {
+            if (!touching) {
+                dispatchRegionChange(false);
+            }
+        }
+    };
+
+    private final Runnable throttledRegionChange = new Runnable() {
+        @Override
+        public void run() {
+            regionChangePending = false;
+            dispatchRegionChange(true);
+        }
+    };
+
+    private void scheduleRegionSettled() {
+        removeCallbacks(regionSettled);
+        postDelayed(regionSettled, REGION_SETTLE_DELAY_MS);
+    }
+
+    private void onCameraMove() {
+        if (!hasViewport()) return;
+        scheduleRegionSettled();
+        if (regionChangePending) return;
+
+        long wait = lastRegionChangeTime + regionChangeThrottleMs - SystemClock.uptimeMillis();
+        if (wait > 0) {
+            regionChangePending = true;
+            postDelayed(throttledRegionChange, wait);
+        } else {
+            dispatchRegionChange(true);
+        }
+    }
+
+    private void dispatchRegionChange(boolean continuous) {
+        if (!hasViewport()) return;
+        BoundingBox region = getBoundingBox();
+        BoundingBox previous = continuous ? lastRegion : lastSettledRegion;
+        if (previous != null && !LatLngBoundsUtils.BoundsAreDifferent(previous, region)) return;
+
+        if (continuous) {
+            lastRegion = region;
+            lastRegionChangeTime = SystemClock.uptimeMillis();
+        } else {
+            lastSettledRegion = region;
+        }
+        eventDispatcher.dispatchEvent(RegionChangeEvent.obtain(getId(), region, continuous));
+    }
+
     public int getFeatureCount() {
         return features.size();
     }
@@ -365,14 +801,241 @@ public class OpenAirMapView extends MapView implements Marker.OnMarkerDragListen
         return features.get(index);
     }
 
+    public void addFeature(View child, int index) {
+        if (child instanceof OpenAirMapPolyline) {
+            OpenAirMapPolyline polylineView = (OpenAirMapPolyline) child;
+            polylineView.addToMap(map);
+            features.add(index, polylineView);
+            polylineMap.put((Overlay) polylineView.getFeature(), polylineView);
+            onFeatureBoundsChanged(polylineView);
+        } else if (child instanceof OpenAirMapMarker) {
+            OpenAirMapMarker markerView = (OpenAirMapMarker) child;
+            markerView.addToMap(map);
+            features.add(index, markerView);
+            if (clusterOverlay != null) {
+                clusterer.addMarker(markerView);
+            }
+            onFeatureBoundsChanged(markerView);
+        } else if (child instanceof OpenAirMapFeature) {
+            OpenAirMapFeature feature = (OpenAirMapFeature) child;
+            feature.addToMap(map);
+            features.add(index, feature);
+            onFeatureBoundsChanged(feature);
+        } else {
+            addView(child, index);
+        }
+    }
+
     public void removeFeatureAt(int index) {
+        invalidateSnapshot();
         OpenAirMapFeature feature = features.remove(index);
 //        if (feature instanceof OpenAirMapMarker) {
 //            markerMap.remove(feature.getFeature());
 //        }
+        if (feature instanceof OpenAirMapPolyline) {
+            polylineMap.remove(feature.getFeature());
+        } else if (feature instanceof OpenAirMapMarker && clusterOverlay != null) {
+            clusterer.removeMarker((OpenAirMapMarker) feature);
+            scheduleClusterUpdate();
+        }
+        featureIndex.remove(feature);
+        visibleFeatures.remove(feature);
         feature.removeFromMap(map);
     }
 
+    public void onFeatureBoundsChanged(OpenAirMapFeature feature) {
+        invalidateSnapshot();
+        if (feature instanceof OpenAirMapMarker && clusterOverlay != null) {
+            clusterer.invalidate();
+            scheduleClusterUpdate();
+        }
+        Bounds bounds = feature.getBounds();
+        if (bounds == null) {
+            featureIndex.remove(feature);
+            visibleFeatures.remove(feature);
+            setFeatureCulled(feature, false);
+            return;
+        }
+        boolean indexed = featureIndex.contains(feature);
+        featureIndex.insert(feature, bounds);
+        if (!indexed && hasViewport()) {
+            // new features start culled, the pass below enables them if they are in view
+            setFeatureCulled(feature, true);
+        }
+        updateVisibleFeatures();
+    }
+
+    /**
+     * Adds, updates and removes many native markers and polylines at once, with a single change
+     * to the overlay list and a single redraw.
+     */
+    public void applyFeatureBatch(ReadableMap batch) {
+        if (featureBatch == null) {
+            featureBatch = new FeatureBatchLayer(this);
+        }
+        if (featureBatch.apply(batch)) {
+            invalidateSnapshot();
+            updateVisibleFeatures();
+            invalidate();
+        }
+    }
+
+    public void setClusteringEnabled(boolean clusteringEnabled) {
+        if (clusteringEnabled == (clusterOverlay != null)) return;
+
+        if (clusteringEnabled) {
+            clusterOverlay = new ClusterOverlay(clusterer, getResources().getDisplayMetrics().density);
+            if (clusterColor != null) clusterOverlay.setColor(clusterColor);
+            if (clusterTextColor != null) clusterOverlay.setTextColor(clusterTextColor);
+            clusterOverlay.setOnClusterPressListener(new ClusterOverlay.OnClusterPressListener() {
+                @Override
+                public void onClusterPress(double latitude, double longitude, List<OpenAirMapMarker> markers) {
+                    pushClusterPress(latitude, longitude, markers);
+                }
+            });
+            getOverlayManager().add(clusterOverlay);
+            for (OpenAirMapFeature feature : features) {
+                if (feature instanceof OpenAirMapMarker) {
+                    clusterer.addMarker((OpenAirMapMarker) feature);
+                }
+            }
+            scheduleClusterUpdate();
+        } else {
+            getOverlayManager().remove(clusterOverlay);
+            clusterOverlay = null;
+            clusterer.clear();
+            invalidate();
+        }
+    }
+
+    public void setClusterRadius(float radius) {
+        clusterer.setRadius(radius * getResources().getDisplayMetrics().density);
+        scheduleClusterUpdate();
+    }
+
+    public void setClusterColor(int color) {
+        this.clusterColor = color;
+        if (clusterOverlay != null) {
+            clusterOverlay.setColor(color);
+            invalidate();
+        }
+    }
+
+    public void setClusterTextColor(int color) {
+        this.clusterTextColor = color;
+        if (clusterOverlay != null) {
+            clusterOverlay.setTextColor(color);
+            invalidate();
+        }
+    }
+
+    // markers usually arrive one addView at a time, so the hierarchy is rebuilt once per batch
+    private void scheduleClusterUpdate() {
+        if (clusterOverlay == null || clusterUpdatePending) return;
+        clusterUpdatePending = true;
+        post(new Runnable() {
+            @Override
+            public void run() {
+                clusterUpdatePending = false;
+                applyClusters();
+            }
+        });
+    }
+
+    private void applyClusters() {
+        if (clusterOverlay != null && clusterer.apply(getZoomLevel())) {
+            invalidate();
+        }
+    }
+
+    private void pushClusterPress(double latitude, double longitude, List<OpenAirMapMarker> markers) {
+        WritableMap event = makeClickEventData(new GeoPoint(latitude, longitude));
+        event.putInt("count", markers.size());
+        WritableArray ids = new WritableNativeArray();
+        for (OpenAirMapMarker marker : markers) {
+            ids.pushString(marker.getIdentifier());
+        }
+        event.putArray("markers", ids);
+        manager.pushEvent(context, this, "onClusterPress", event);
+    }
+
+    private boolean hasViewport() {
+        return getWidth() > 0 && getHeight() > 0;
+    }
+
+    /**
+     * Enables the overlays of features intersecting the visible part of the map and disables all
+     * others, so osmdroid neither draws nor hit-tests them. Only features whose visibility
+     * changed since the last pass are touched.
+     */
+    void updateVisibleFeatures() {
+        boolean hasBatch = featureBatch != null && featureBatch.size() > 0;
+        if ((featureIndex.size() == 0 && !hasBatch) || !hasViewport()) return;
+
+        BoundingBox box = getBoundingBox();
+        double west = box.getLonWest();
+        double east = box.getLonEast();
+        // west is greater than east when the viewport crosses the antimeridian
+        double lngSpan = east >= west ? east - west : east + 360 - west;
+        // keep a margin around the viewport so features don't pop in while panning
+        double latMargin = (box.getLatNorth() - box.getLatSouth()) / 4;
+        double lngMargin = lngSpan / 4;
+        double south = box.getLatSouth() - latMargin;
+        double north = box.getLatNorth() + latMargin;
+        if (lngSpan + 2 * lngMargin >= 360) {
+            west = -180;
+            east = 180;
+        } else {
+            west -= lngMargin;
+            east += lngMargin;
+            if (west < -180) west += 360;
+            if (east > 180) east -= 360;
+        }
+
+        if (hasBatch) {
+            featureBatch.updateVisible(south, west, north, east);
+        }
+        if (featureIndex.size() == 0) return;
+
+        int generation = ++viewportGeneration;
+        List<OpenAirMapFeature> visible = visibleScratch;
+        visible.clear();
+        featureIndex.query(south, west, north, east, visible);
+
+        for (int i = 0; i < visible.size(); i++) {
+            visible.get(i).viewportGeneration = generation;
+        }
+        for (int i = 0; i < visibleFeatures.size(); i++) {
+            OpenAirMapFeature feature = visibleFeatures.get(i);
+            if (feature.viewportGeneration != generation) {
+                setFeatureCulled(feature, true);
+            }
+        }
+        for (int i = 0; i < visible.size(); i++) {
+            setFeatureCulled(visible.get(i), false);
+        }
+
+        visibleScratch = visibleFeatures;
+        visibleFeatures = visible;
+    }
+
+    private void setFeatureCulled(OpenAirMapFeature feature, boolean culled) {
+        if (feature.culled != culled) {
+            feature.culled = culled;
+            feature.setCulled(culled);
+        }
+    }
+
+    /**
+     * Projects a point into scratchPoint, in the view's coordinates rather than the scrolled
+     * pixel space toPixels returns.
+     */
+    private void toViewPixels(IGeoPoint point) {
+        getProjection().toPixels(point, scratchPoint);
+        getIntrinsicScreenRect(scratchRect);
+        scratchPoint.offset(-scratchRect.left, -scratchRect.top);
+    }
+
     public WritableMap makeClickEventData(GeoPoint point) {
         WritableMap event = new WritableNativeMap();
 
@@ -381,34 +1044,147 @@ public class OpenAirMapView extends MapView implements Marker.OnMarkerDragListen
         coordinate.putDouble("longitude", point.getLongitude());
         event.putMap("coordinate", coordinate);
 
-        Projection projection = map.getProjection();
-        Point screenPoint = projection.toProjectedPixels(point, null);
+        toViewPixels(point);
 
         WritableMap position = new WritableNativeMap();
-        position.putDouble("x", screenPoint.x);
-        position.putDouble("y", screenPoint.y);
+        position.putDouble("x", scratchPoint.x);
+        position.putDouble("y", scratchPoint.y);
         event.putMap("position", position);
 
         return event;
     }
 
-    public void animateToRegion(GeoPoint bounds, int duration) {
-        if (map == null) return;
-        map.getController().animateTo(bounds);
+    /**
+     * Animates the camera to show a region: its center at the highest zoom level at which the
+     * deltas fit into the view.
+     */
+    public void animateToRegion(double latitude, double longitude, double latitudeDelta,
+                                double longitudeDelta, int duration) {
+        int zoom = getZoomLevel();
+        if (hasViewport()) {
+            double spanX = longitudeDelta / 360;
+            double spanY = MercatorProjection.y(latitude - latitudeDelta / 2)
+                    - MercatorProjection.y(latitude + latitudeDelta / 2);
+            zoom = MercatorProjection.zoomToFit(spanX, spanY, getWidth(), getHeight());
+        }
+        cameraAnimator.animateTo(latitude, longitude, zoom, duration);
     }
 
     public void animateToCoordinate(GeoPoint coordinate, int duration) {
-        if (map == null) return;
+        cameraAnimator.animateTo(coordinate.getLatitude(), coordinate.getLongitude(), getZoomLevel(), duration);
+    }
+
+    /**
+     * Moves the camera to show every marker and polyline, React children and batch features.
+     */
+    public void fitToElements(boolean animated) {
+        BoundsBuilder builder = new BoundsBuilder();
+        for (int i = 0; i < features.size(); i++) {
+            Bounds bounds = featureIndex.boundsOf(features.get(i));
+            if (bounds != null) {
+                builder.include(bounds);
+            }
+        }
+        if (featureBatch != null) {
+            featureBatch.includeBounds(builder);
+        }
+        fitBounds(builder.build(), baseMapPadding, baseMapPadding, baseMapPadding, baseMapPadding, animated);
+    }
+
+    /**
+     * Moves the camera to show the markers whose identifier is in the list.
+     */
+    public void fitToSuppliedMarkers(ReadableArray markerIds, boolean animated) {
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < markerIds.size(); i++) {
+            ids.add(markerIds.getString(i));
+        }
+
+        BoundsBuilder builder = new BoundsBuilder();
+        for (int i = 0; i < features.size(); i++) {
+            OpenAirMapFeature feature = features.get(i);
+            if (feature instanceof OpenAirMapMarker
+                    && ids.contains(((OpenAirMapMarker) feature).getIdentifier())) {
+                Bounds bounds = featureIndex.boundsOf(feature);
+                if (bounds != null) {
+                    builder.include(bounds);
+                }
+            }
+        }
+        fitBounds(builder.build(), baseMapPadding, baseMapPadding, baseMapPadding, baseMapPadding, animated);
+    }
+
+    /**
+     * Moves the camera to show coordinates given as {latitude, longitude} maps or as a flat
+     * [lat, lng, ...] array. The edge padding is in dp.
+     */
+    public void fitToCoordinates(ReadableArray coordinates, ReadableMap edgePadding, boolean animated) {
+        if (coordinates.size() == 0) return;
+        double[] latLngs = coordinates.getType(0) == ReadableType.Number
+                ? PackedCoordinates.fromFlatArray(coordinates)
+                : PackedCoordinates.fromCoordinateArray(coordinates);
+        BoundsBuilder builder = new BoundsBuilder();
+        builder.include(latLngs);
+
+        fitBounds(builder.build(), paddingPx(edgePadding, "top"), paddingPx(edgePadding, "right"),
+                paddingPx(edgePadding, "bottom"), paddingPx(edgePadding, "left"), animated);
+    }
+
+    private int paddingPx(ReadableMap edgePadding, String edge) {
+        if (edgePadding == null || !edgePadding.hasKey(edge)) return 0;
+        return Math.round((float) edgePadding.getDouble(edge) * getResources().getDisplayMetrics().density);
+    }
+
+    /**
+     * Centers the bounds in the view minus the padding, in pixels, at the highest zoom level at
+     * which they fit. Before the first layout the move is kept until the size is known.
+     */
+    private void fitBounds(final Bounds bounds, final int top, final int right, final int bottom,
+                           final int left, final boolean animated) {
+        if (bounds == null) return;
+        if (!hasViewport()) {
+            pendingCameraMove = new Runnable() {
+                @Override
+                public void run() {
+                    fitBounds(bounds, top, right, bottom, left, animated);
+                }
+            };
+            return;
+        }
+        pendingCameraMove = null;
+
+        // an east above 180 means the bounds cross the antimeridian, x then runs past 1
+        double westX = MercatorProjection.x(bounds.getWest());
+        double eastX = MercatorProjection.x(bounds.getEast());
+        double northY = MercatorProjection.y(bounds.getNorth());
+        double southY = MercatorProjection.y(bounds.getSouth());
+        int width = Math.max(1, getWidth() - left - right);
+        int height = Math.max(1, getHeight() - top - bottom);
+        int zoom = MercatorProjection.zoomToFit(eastX - westX, southY - northY, width, height);
+        zoom = Math.max(getMinZoomLevel(), Math.min(getMaxZoomLevel(), zoom));
+
+        // shift the center so the bounds sit in the middle of the padded area
+        double worldSize = MercatorProjection.worldSize(zoom);
+        double centerX = (westX + eastX) / 2 + (right - left) / 2.0 / worldSize;
+        double centerY = (northY + southY) / 2 + (bottom - top) / 2.0 / worldSize;
+        centerX -= Math.floor(centerX);
+        centerY = Math.max(0, Math.min(1, centerY));
+
+        cameraAnimator.animateTo(MercatorProjection.latitude(centerY), MercatorProjection.longitude(centerX),
+                zoom, animated ? FIT_ANIMATION_MS : 0);
     }
 
     @Override
     public void onMarkerDragEnd(Marker marker) {
-        Log.v("test", "onMarkerDragEnd");
+        OpenAirMapMarker feature = (OpenAirMapMarker) marker.getRelatedObject();
+        feature.onDragEnd(marker.getPosition());
+        pushMarkerDragEvent(feature, marker, "onDragEnd", "onMarkerDragEnd", false);
     }
 
     @Override
     public void onMarkerDragStart(Marker marker) {
-        Log.v("test", "onMarkerDragStart");
+        pushMarkerDragEvent((OpenAirMapMarker) marker.getRelatedObject(), marker,
+                "onDragStart", "onMarkerDragStart", false);
     }
 
     @Override
@@ -462,6 +1238,9 @@ public class OpenAirMapView extends MapView implements Marker.OnMarkerDragListen
             ((ViewGroup) this.cacheImageView.getParent()).removeView(this.cacheImageView);
             this.cacheImageView = null;
         }
+        snapshotShown = false;
+        BitmapPool.release(snapshotBitmap);
+        snapshotBitmap = null;
     }
 
     private void removeMapLoadingProgressBar() {
@@ -481,8 +1260,15 @@ public class OpenAirMapView extends MapView implements Marker.OnMarkerDragListen
 
     @Override
     public void onMarkerDrag(Marker marker) {
+        pushMarkerDragEvent((OpenAirMapMarker) marker.getRelatedObject(), marker,
+                "onDrag", "onMarkerDrag", true);
+    }
 
-        Log.v("test", "onMarkerDragEnd");
+    private void pushMarkerDragEvent(OpenAirMapMarker feature, Marker marker, String markerEvent,
+                                     String mapEvent, boolean coalesce) {
+        if (feature == null) return;
+        pushPointEvent(feature.getId(), markerEvent, marker.getPosition(), null, feature.getIdentifier(), coalesce);
+        pushPointEvent(getId(), mapEvent, marker.getPosition(), null, feature.getIdentifier(), coalesce);
     }
 
     private void cacheView() {
@@ -491,21 +1277,109 @@ public class OpenAirMapView extends MapView implements Marker.OnMarkerDragListen
             final RelativeLayout mapLoadingLayout = this.getMapLoadingLayoutView();
             cacheImageView.setVisibility(View.INVISIBLE);
             mapLoadingLayout.setVisibility(View.VISIBLE);
+            snapshotShown = false;
+            removeCallbacks(takeCacheSnapshot);
             if (this.isMapLoaded) {
-                Log.v("test", "log map");
-//                this.map.snapshot(new GoogleMap.SnapshotReadyCallback() {
-                //       @Override public void onSnapshotReady(Bitmap bitmap) {
-                //         cacheImageView.setImageBitmap(bitmap);
-                //         cacheImageView.setVisibility(View.VISIBLE);
-                //         mapLoadingLayout.setVisibility(View.INVISIBLE);
-                //       }
-                //     });
+                postDelayed(takeCacheSnapshot, SNAPSHOT_IDLE_DELAY_MS);
             }
         } else {
+            removeCallbacks(takeCacheSnapshot);
             this.removeCacheImageView();
             if (this.isMapLoaded) {
                 this.removeMapLoadingLayoutView();
             }
         }
     }
+
+    /**
+     * Shows the live map again until a new snapshot is taken, after the camera or the features
+     * changed.
+     */
+    private void invalidateSnapshot() {
+        if (!snapshotShown) return;
+        snapshotShown = false;
+        if (cacheImageView != null) {
+            cacheImageView.setVisibility(View.INVISIBLE);
+        }
+        invalidate();
+    }
+
+    /**
+     * Replaces the handler MapView gives every tile provider, so a tile that arrives after the
+     * snapshot was taken brings the live map back instead of staying hidden behind it.
+     */
+    private final Handler tileRequestCompleteHandler = new Handler(Looper.getMainLooper()) {
+        @Override
+        public void handleMessage(Message msg) {
+            if (msg.what == MapTile.MAPTILE_SUCCESS_ID) {
+                invalidateSnapshot();
+            }
+            invalidate();
+        }
+    };
+
+    @Override
+    public void setTileProvider(MapTileProviderBase base) {
+        super.setTileProvider(base);
+        base.setTileRequestCompleteHandler(tileRequestCompleteHandler);
+    }
+
+    private final Runnable takeCacheSnapshot = new Runnable() {
+        @Override
+        public void run() {
+            if (!cacheEnabled || snapshotShown || destroyed || !hasViewport()) return;
+            Bitmap bitmap = renderSnapshot();
+            ImageView imageView = getCacheImageView();
+            imageView.setImageBitmap(bitmap);
+            BitmapPool.release(snapshotBitmap);
+            snapshotBitmap = bitmap;
+            snapshotShown = true;
+            imageView.setVisibility(View.VISIBLE);
+            if (mapLoadingLayout != null) {
+                mapLoadingLayout.setVisibility(View.INVISIBLE);
+            }
+        }
+    };
+
+    /**
+     * Draws the map, without the loading layout, into a pooled bitmap of the view's size. Give
+     * the bitmap back to BitmapPool once it is no longer used.
+     */
+    Bitmap renderSnapshot() {
+        Bitmap bitmap = BitmapPool.acquire(getWidth(), getHeight(), Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        if (snapshotShown && snapshotBitmap != null) {
+            canvas.drawBitmap(snapshotBitmap, 0, 0, null);
+            return bitmap;
+        }
+        int loadingVisibility = mapLoadingLayout != null ? mapLoadingLayout.getVisibility() : View.GONE;
+        if (mapLoadingLayout != null) {
+            mapLoadingLayout.setVisibility(View.INVISIBLE);
+        }
+        draw(canvas);
+        if (mapLoadingLayout != null) {
+            mapLoadingLayout.setVisibility(loadingVisibility);
+        }
+        return bitmap;
+    }
+
+    @Override
+    public void invalidate() {
+        super.invalidate();
+        if (cacheEnabled && !snapshotShown && !destroyed) {
+            // every tile that arrives invalidates the map, it is complete once that stops
+            removeCallbacks(takeCacheSnapshot);
+            postDelayed(takeCacheSnapshot, SNAPSHOT_IDLE_DELAY_MS);
+        }
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        if (snapshotShown && cacheImageView != null) {
+            // the snapshot covers the whole view, drawing the tiles and overlays below it is wasted
+            drawChild(canvas, cacheImageView, getDrawingTime());
+            return;
+        }
+        super.dispatchDraw(canvas);
+    }
 }
@@ -0,0 +1,109 @@
+package com.airbnb.android.react.maps.open;
+
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+
+import java.util.Arrays;
+
+// Decoders that turn the different coordinate inputs accepted from JS into a flat
+// [lat, lng, lat, lng, ...] array, without allocating an object per vertex.
+public final class PackedCoordinates {
+    private static final int ENCODED_PRECISION = 5;
+
+    private PackedCoordinates() {
+    }
+
+    /**
+     * Decodes the coordinates of a shape given as encodedCoordinates, packedCoordinates or
+     * coordinates, in that order of preference. Returns null when it has none of them.
+     */
+    public static double[] fromShape(ReadableMap shape) {
+        if (shape.hasKey("encodedCoordinates")) {
+            return fromEncodedPolyline(shape.getString("encodedCoordinates"));
+        } else if (shape.hasKey("packedCoordinates")) {
+            return fromFlatArray(shape.getArray("packedCoordinates"));
+        } else if (shape.hasKey("coordinates")) {
+            return fromCoordinateArray(shape.getArray("coordinates"));
+        }
+        return null;
+    }
+
+    /**
+     * Decodes an array of {latitude, longitude} maps. This is the slow path, every vertex costs
+     * a map lookup and two key lookups across JNI.
+     */
+    public static double[] fromCoordinateArray(ReadableArray coordinates) {
+        double[] latLngs = new double[coordinates.size() * 2];
+        for (int i = 0; i < coordinates.size(); i++) {
+            ReadableMap coordinate = coordinates.getMap(i);
+            latLngs[2 * i] = coordinate.getDouble("latitude");
+            latLngs[2 * i + 1] = coordinate.getDouble("longitude");
+        }
+        return latLngs;
+    }
+
+    /**
+     * Decodes a flat [lat, lng, lat, lng, ...] number array.
+     */
+    public static double[] fromFlatArray(ReadableArray array) {
+        int size = array.size() - array.size() % 2;
+        double[] latLngs = new double[size];
+        for (int i = 0; i < size; i++) {
+            latLngs[i] = array.getDouble(i);
+        }
+        return latLngs;
+    }
+
+    /**
+     * Decodes a string in the Encoded Polyline Algorithm Format with a precision of 5 digits.
+     * Throws IllegalArgumentException when the string is cut off inside a value.
+     */
+    public static double[] fromEncodedPolyline(String encoded) {
+        return fromEncodedPolyline(encoded, ENCODED_PRECISION);
+    }
+
+    public static double[] fromEncodedPolyline(String encoded, int precision) {
+        // every encoded value takes at least one character, so the length is an upper bound
+        double[] latLngs = new double[encoded.length()];
+        double factor = Math.pow(10, precision);
+        int length = encoded.length();
+        int index = 0;
+        int count = 0;
+        int lat = 0;
+        int lng = 0;
+
+        while (index < length) {
+            int result = 0;
+            int shift = 0;
+            int b;
+            do {
+                if (index >= length) {
+                    throw new IllegalArgumentException("Encoded polyline of length " + length + " ends inside a value");
+                }
+                b = encoded.charAt(index++) - 63;
+                result |= (b & 0x1f) << shift;
+                shift += 5;
+            } while (b >= 0x20);
+            lat += (result & 1) != 0 ? ~(result >> 1) : (result >> 1);
+
+            if (index >= length) break;
+
+            result = 0;
+            shift = 0;
+            do {
+                if (index >= length) {
+                    throw new IllegalArgumentException("Encoded polyline of length " + length + " ends inside a value");
+                }
+                b = encoded.charAt(index++) - 63;
+                result |= (b & 0x1f) << shift;
+                shift += 5;
+            } while (b >= 0x20);
+            lng += (result & 1) != 0 ? ~(result >> 1) : (result >> 1);
+
+            latLngs[count++] = lat / factor;
+            latLngs[count++] = lng / factor;
+        }
+
+        return count == latLngs.length ? latLngs : Arrays.copyOf(latLngs, count);
+    }
+}
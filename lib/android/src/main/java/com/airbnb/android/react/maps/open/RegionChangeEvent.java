@@ -0,0 +1,83 @@
+package com.airbnb.android.react.maps.open;
+
+import android.support.v4.util.Pools;
+
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeMap;
+import com.facebook.react.uimanager.events.Event;
+import com.facebook.react.uimanager.events.RCTEventEmitter;
+
+import org.osmdroid.util.BoundingBox;
+
+// Region change of a map, delivered to JS as onChange. Continuous events coalesce with each
+// other, so at most one reaches the bridge per frame however often the camera moves; the final
+// event of a gesture never coalesces.
+public class RegionChangeEvent extends Event<RegionChangeEvent> {
+    private static final Pools.SynchronizedPool<RegionChangeEvent> EVENTS_POOL =
+            new Pools.SynchronizedPool<>(3);
+
+    private double latitude;
+    private double longitude;
+    private double latitudeDelta;
+    private double longitudeDelta;
+    private boolean continuous;
+
+    private RegionChangeEvent() {
+    }
+
+    public static RegionChangeEvent obtain(int viewTag, BoundingBox bounds, boolean continuous) {
+        RegionChangeEvent event = EVENTS_POOL.acquire();
+        if (event == null) {
+            event = new RegionChangeEvent();
+        }
+        event.init(viewTag);
+        event.latitude = (bounds.getLatNorth() + bounds.getLatSouth()) / 2;
+        event.latitudeDelta = bounds.getLatitudeSpan();
+        double west = bounds.getLonWest();
+        double east = bounds.getLonEast();
+        if (east < west) {
+            // the region crosses the antimeridian
+            east += 360;
+        }
+        double longitude = (west + east) / 2;
+        event.longitude = longitude > 180 ? longitude - 360 : longitude;
+        event.longitudeDelta = east - west;
+        event.continuous = continuous;
+        return event;
+    }
+
+    @Override
+    public void onDispose() {
+        EVENTS_POOL.release(this);
+    }
+
+    @Override
+    public String getEventName() {
+        return "topChange";
+    }
+
+    @Override
+    public boolean canCoalesce() {
+        return continuous;
+    }
+
+    @Override
+    public short getCoalescingKey() {
+        return 0;
+    }
+
+    @Override
+    public void dispatch(RCTEventEmitter rctEventEmitter) {
+        WritableMap event = new WritableNativeMap();
+        event.putBoolean("continuous", continuous);
+
+        WritableMap region = new WritableNativeMap();
+        region.putDouble("latitude", latitude);
+        region.putDouble("longitude", longitude);
+        region.putDouble("latitudeDelta", latitudeDelta);
+        region.putDouble("longitudeDelta", longitudeDelta);
+        event.putMap("region", region);
+
+        rctEventEmitter.receiveEvent(getViewTag(), getEventName(), event);
+    }
+}
@@ -0,0 +1,156 @@
+package com.airbnb.android.react.maps.open;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Region quadtree over lat/lng bounding boxes. Every item lives in the deepest node that fully
+// contains it, so inserts and removals only touch one node and queries skip every quadrant
+// that does not intersect the searched area.
+public class SpatialIndex<T> {
+    private static final int NODE_CAPACITY = 8;
+    private static final int MAX_DEPTH = 16;
+
+    private final Node<T> root = new Node<>(new Bounds(-90, -180, 90, 180), 0);
+    private final Map<T, Entry<T>> entries = new HashMap<>();
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean contains(T item) {
+        return entries.containsKey(item);
+    }
+
+    public Bounds boundsOf(T item) {
+        Entry<T> entry = entries.get(item);
+        return entry != null ? entry.bounds : null;
+    }
+
+    public void insert(T item, Bounds bounds) {
+        remove(item);
+        Entry<T> entry = new Entry<>(item, bounds);
+        entries.put(item, entry);
+        root.insert(entry);
+    }
+
+    public void remove(T item) {
+        Entry<T> entry = entries.remove(item);
+        if (entry != null) {
+            entry.node.items.remove(entry);
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        root.items.clear();
+        root.children = null;
+    }
+
+    /**
+     * Adds every item whose bounds intersect the given area to out.
+     */
+    public void query(Bounds area, List<T> out) {
+        query(area.getSouth(), area.getWest(), area.getNorth(), area.getEast(), out);
+    }
+
+    /**
+     * Adds every item whose bounds intersect the given area to out, once. An area with west
+     * greater than east crosses the antimeridian and is searched as its two halves.
+     */
+    public void query(double south, double west, double north, double east, List<T> out) {
+        if (west <= east) {
+            root.query(south, west, north, east, Double.POSITIVE_INFINITY, out);
+            return;
+        }
+        root.query(south, west, north, 180, Double.POSITIVE_INFINITY, out);
+        // items reaching past west were found by the first half
+        root.query(south, -180, north, east, west, out);
+    }
+
+    private static class Entry<T> {
+        final T item;
+        final Bounds bounds;
+        Node<T> node;
+
+        Entry(T item, Bounds bounds) {
+            this.item = item;
+            this.bounds = bounds;
+        }
+    }
+
+    private static class Node<T> {
+        final Bounds bounds;
+        final int depth;
+        final List<Entry<T>> items = new ArrayList<>();
+        Node<T>[] children;
+
+        Node(Bounds bounds, int depth) {
+            this.bounds = bounds;
+            this.depth = depth;
+        }
+
+        void insert(Entry<T> entry) {
+            Node<T> node = this;
+            while (node.children != null) {
+                Node<T> child = node.childContaining(entry.bounds);
+                if (child == null) break;
+                node = child;
+            }
+            node.items.add(entry);
+            entry.node = node;
+            if (node.children == null && node.items.size() > NODE_CAPACITY && node.depth < MAX_DEPTH) {
+                node.split();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void split() {
+            double midLat = (bounds.getSouth() + bounds.getNorth()) / 2;
+            double midLng = (bounds.getWest() + bounds.getEast()) / 2;
+            children = new Node[] {
+                    new Node<T>(new Bounds(midLat, bounds.getWest(), bounds.getNorth(), midLng), depth + 1),
+                    new Node<T>(new Bounds(midLat, midLng, bounds.getNorth(), bounds.getEast()), depth + 1),
+                    new Node<T>(new Bounds(bounds.getSouth(), bounds.getWest(), midLat, midLng), depth + 1),
+                    new Node<T>(new Bounds(bounds.getSouth(), midLng, midLat, bounds.getEast()), depth + 1)
+            };
+
+            List<Entry<T>> current = new ArrayList<>(items);
+            items.clear();
+            for (Entry<T> entry : current) {
+                Node<T> child = childContaining(entry.bounds);
+                if (child == null) {
+                    items.add(entry);
+                } else {
+                    child.insert(entry);
+                }
+            }
+        }
+
+        private Node<T> childContaining(Bounds b) {
+            for (Node<T> child : children) {
+                if (child.bounds.contains(b.getSouth(), b.getWest(), b.getNorth(), b.getEast())) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        void query(double south, double west, double north, double east, double skipEast, List<T> out) {
+            for (int i = 0; i < items.size(); i++) {
+                Entry<T> entry = items.get(i);
+                if (entry.bounds.intersects(south, west, north, east) && entry.bounds.getEast() < skipEast) {
+                    out.add(entry.item);
+                }
+            }
+            if (children != null) {
+                for (Node<T> child : children) {
+                    if (child.bounds.intersects(south, west, north, east)) {
+                        child.query(south, west, north, east, skipEast, out);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package com.airbnb.android.react.maps.open;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.drawable.Drawable;
+import android.net.Uri;
+import android.util.Log;
+
+import com.airbnb.android.react.maps.open.tile.TileDiskCache;
+import com.airbnb.android.react.maps.open.tile.TilePrefetcher;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+
+import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.tileprovider.tilesource.BitmapTileSourceBase;
+import org.osmdroid.tileprovider.tilesource.ITileSource;
+import org.osmdroid.tileprovider.tilesource.OnlineTileSourceBase;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Renders a region into an image file without a map view, for lists of small maps. Tiles come
+// from a TileDiskCache, missing ones are downloaded into it, and a polyline and markers are
+// drawn on top. Everything runs on background threads.
+//
+// Images are kept in <cache dir>/static-maps, named by a hash of the region, size, tile source
+// and overlays, so asking for the same map again resolves with the existing file. A map with
+// tiles that could not be loaded is rejected rather than stored, so it is rendered again on the
+// next request.
+class StaticMapRenderer {
+    private static final String TAG = "StaticMapRenderer";
+    private static final String DIRECTORY = "static-maps";
+    private static final int MAX_RESULTS = 200;
+    private static final int THREADS = 2;
+
+    private final File directory;
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    // rendered images by key, least recently used first
+    private final LinkedHashMap<String, File> results = new LinkedHashMap<>(16, 0.75f, true);
+    private boolean resultsLoaded = false;
+    // promises waiting for a render in progress, by key, so identical requests share one render
+    private final Map<String, List<Promise>> pending = new HashMap<>();
+
+    static class Request {
+        ITileSource tileSource;
+        TileDiskCache cache;
+        double north;
+        double east;
+        double south;
+        double west;
+        int width;
+        int height;
+        double[] polyline;
+        int strokeColor = Color.BLUE;
+        float strokeWidth;
+        // [lat, lng, ...] of the markers and their colors
+        double[] markers = new double[0];
+        int[] markerColors = new int[0];
+        float markerRadius;
+        boolean jpg = false;
+
+        /**
+         * Reads a request; sizes are in dp and are converted to pixels with the density.
+         */
+        static Request fromReadableMap(ReadableMap options, ITileSource tileSource, TileDiskCache cache,
+                                       float density) {
+            Request request = new Request();
+            request.tileSource = tileSource;
+            request.cache = cache;
+
+            ReadableMap region = options.getMap("region");
+            double lat = region.getDouble("latitude");
+            double lng = region.getDouble("longitude");
+            double latDelta = region.getDouble("latitudeDelta");
+            double lngDelta = region.getDouble("longitudeDelta");
+            request.north = lat + latDelta / 2;
+            request.south = lat - latDelta / 2;
+            request.west = lng - lngDelta / 2;
+            request.east = lng + lngDelta / 2;
+            request.width = Math.max(1, Math.round((float) options.getDouble("width") * density));
+            request.height = Math.max(1, Math.round((float) options.getDouble("height") * density));
+            request.jpg = options.hasKey("format") && "jpg".equals(options.getString("format"));
+
+            request.strokeWidth = 3 * density;
+            if (options.hasKey("polyline")) {
+                ReadableMap polyline = options.getMap("polyline");
+                request.polyline = PackedCoordinates.fromShape(polyline);
+                if (polyline.hasKey("strokeColor")) {
+                    request.strokeColor = polyline.getInt("strokeColor");
+                }
+                if (polyline.hasKey("strokeWidth")) {
+                    request.strokeWidth = (float) polyline.getDouble("strokeWidth") * density;
+                }
+            }
+
+            request.markerRadius = 6 * density;
+            if (options.hasKey("markers")) {
+                ReadableArray markers = options.getArray("markers");
+                request.markers = new double[markers.size() * 2];
+                request.markerColors = new int[markers.size()];
+                for (int i = 0; i < markers.size(); i++) {
+                    ReadableMap marker = markers.getMap(i);
+                    request.markers[2 * i] = marker.getDouble("latitude");
+                    request.markers[2 * i + 1] = marker.getDouble("longitude");
+                    request.markerColors[i] = marker.hasKey("color") ? marker.getInt("color") : Color.RED;
+                }
+            }
+            return request;
+        }
+
+        String extension() {
+            return jpg ? ".jpg" : ".png";
+        }
+
+        /**
+         * Identifies the rendered image. Overlays enter through their hash codes, so long
+         * polylines don't build a long key.
+         */
+        String key() {
+            StringBuilder key = new StringBuilder()
+                    .append(tileSource.name()).append('|').append(cache.getNamespace()).append('|')
+                    .append(north).append(',').append(east).append(',')
+                    .append(south).append(',').append(west).append('|')
+                    .append(width).append('x').append(height).append(extension()).append('|')
+                    .append(Arrays.hashCode(polyline)).append(',').append(polyline != null ? polyline.length : 0)
+                    .append(',').append(strokeColor).append(',').append(strokeWidth).append('|')
+                    .append(Arrays.hashCode(markers)).append(',').append(Arrays.hashCode(markerColors))
+                    .append(',').append(markerRadius);
+            return md5(key.toString());
+        }
+    }
+
+    StaticMapRenderer(Context context) {
+        this.directory = new File(context.getCacheDir(), DIRECTORY);
+    }
+
+    /**
+     * Resolves the promise with the file uri of the rendered map, rendering it unless an image
+     * of the same request exists.
+     */
+    void render(final Request request, final Promise promise) {
+        final String key = request.key();
+        File cached;
+        synchronized (results) {
+            loadResults();
+            cached = results.get(key);
+        }
+        if (cached != null && cached.exists()) {
+            promise.resolve(Uri.fromFile(cached).toString());
+            return;
+        }
+        synchronized (pending) {
+            List<Promise> waiting = pending.get(key);
+            if (waiting != null) {
+                waiting.add(promise);
+                return;
+            }
+            waiting = new ArrayList<>();
+            waiting.add(promise);
+            pending.put(key, waiting);
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                Bitmap bitmap = BitmapPool.acquire(request.width, request.height, Bitmap.Config.ARGB_8888);
+                String uri = null;
+                Exception error = null;
+                try {
+                    int missing = draw(request, bitmap);
+                    if (missing > 0) {
+                        throw new IOException(missing + " tiles of the map could not be loaded");
+                    }
+                    File file = write(bitmap, key, request);
+                    synchronized (results) {
+                        results.put(key, file);
+                        trimResults();
+                    }
+                    uri = Uri.fromFile(file).toString();
+                } catch (IOException | RuntimeException e) {
+                    error = e;
+                } finally {
+                    BitmapPool.release(bitmap);
+                }
+                finish(key, uri, error);
+            }
+        });
+    }
+
+    private void finish(String key, String uri, Exception error) {
+        List<Promise> waiting;
+        synchronized (pending) {
+            waiting = pending.remove(key);
+        }
+        if (waiting == null) return;
+        for (Promise promise : waiting) {
+            if (error != null) {
+                promise.reject("E_STATIC_MAP", error);
+            } else {
+                promise.resolve(uri);
+            }
+        }
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Draws the map into the bitmap and returns the number of tiles that could not be loaded.
+     */
+    private int draw(Request request, Bitmap bitmap) {
+        int width = request.width;
+        int height = request.height;
+        Canvas canvas = new Canvas(bitmap);
+        canvas.drawColor(Color.LTGRAY);
+
+        double westX = MercatorProjection.x(request.west);
+        double eastX = MercatorProjection.x(request.east);
+        if (eastX < westX) {
+            eastX += 1;
+        }
+        double northY = MercatorProjection.y(request.north);
+        double southY = MercatorProjection.y(request.south);
+
+        // tile sources with other tile sizes get a correspondingly lower or higher zoom level
+        int tileSize = request.tileSource.getTileSizePixels();
+        int zoom = MercatorProjection.zoomToFit(eastX - westX, southY - northY, width, height, tileSize);
+        zoom = Math.max(request.tileSource.getMinimumZoomLevel(),
+                Math.min(request.tileSource.getMaximumZoomLevel(), zoom));
+
+        double worldSize = tileSize * (double) (1L << zoom);
+        double originX = (westX + eastX) / 2 * worldSize - width / 2.0;
+        double originY = (northY + southY) / 2 * worldSize - height / 2.0;
+
+        int tiles = 1 << zoom;
+        int firstX = (int) Math.floor(originX / tileSize);
+        int lastX = (int) Math.floor((originX + width) / tileSize);
+        int firstY = Math.max(0, (int) Math.floor(originY / tileSize));
+        int lastY = Math.min(tiles - 1, (int) Math.floor((originY + height) / tileSize));
+        int missing = 0;
+        for (int y = firstY; y <= lastY; y++) {
+            for (int x = firstX; x <= lastX; x++) {
+                Drawable tile = loadTile(request, new MapTile(zoom, ((x % tiles) + tiles) % tiles, y));
+                if (tile == null) {
+                    missing++;
+                    continue;
+                }
+                int left = (int) Math.round(x * (double) tileSize - originX);
+                int top = (int) Math.round(y * (double) tileSize - originY);
+                tile.setBounds(left, top, left + tileSize, top + tileSize);
+                tile.draw(canvas);
+            }
+        }
+
+        if (missing > 0) {
+            // the map is not used, the overlays need not be drawn
+            return missing;
+        }
+
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        if (request.polyline != null && request.polyline.length >= 4) {
+            Path path = new Path();
+            double previousX = 0;
+            for (int i = 0; i + 1 < request.polyline.length; i += 2) {
+                double x = MercatorProjection.x(request.polyline[i + 1]);
+                // keep lines across the antimeridian continuous
+                if (i > 0) {
+                    x += Math.rint(previousX - x);
+                }
+                previousX = x;
+                float px = (float) (x * worldSize - originX);
+                float py = (float) (MercatorProjection.y(request.polyline[i]) * worldSize - originY);
+                if (i == 0) {
+                    path.moveTo(px, py);
+                } else {
+                    path.lineTo(px, py);
+                }
+            }
+            paint.setStyle(Paint.Style.STROKE);
+            paint.setStrokeJoin(Paint.Join.ROUND);
+            paint.setStrokeCap(Paint.Cap.ROUND);
+            paint.setStrokeWidth(request.strokeWidth);
+            paint.setColor(request.strokeColor);
+            canvas.drawPath(path, paint);
+        }
+
+        double centerX = (westX + eastX) / 2;
+        for (int i = 0; i < request.markerColors.length; i++) {
+            double x = MercatorProjection.x(request.markers[2 * i + 1]);
+            x += Math.rint(centerX - x);
+            float px = (float) (x * worldSize - originX);
+            float py = (float) (MercatorProjection.y(request.markers[2 * i]) * worldSize - originY);
+            paint.setStyle(Paint.Style.FILL);
+            paint.setColor(request.markerColors[i]);
+            canvas.drawCircle(px, py, request.markerRadius, paint);
+            paint.setStyle(Paint.Style.STROKE);
+            paint.setStrokeWidth(request.markerRadius / 3);
+            paint.setColor(Color.WHITE);
+            canvas.drawCircle(px, py, request.markerRadius, paint);
+        }
+        return 0;
+    }
+
+    private Drawable loadTile(Request request, MapTile tile) {
+        try {
+            Drawable drawable = request.cache.loadTile(request.tileSource, tile);
+            if (drawable == null && request.tileSource instanceof OnlineTileSourceBase
+                    && TilePrefetcher.downloadTile((OnlineTileSourceBase) request.tileSource, request.cache, tile)) {
+                drawable = request.cache.loadTile(request.tileSource, tile);
+            }
+            return drawable;
+        } catch (BitmapTileSourceBase.LowMemoryException e) {
+            Log.w(TAG, "Not enough memory for tile " + tile, e);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to download tile " + tile, e);
+        }
+        return null;
+    }
+
+    private File write(Bitmap bitmap, String key, Request request) throws IOException {
+        if (!directory.exists() && !directory.mkdirs() && !directory.exists()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File file = new File(directory, key + request.extension());
+        File temp = new File(directory, key + "." + Thread.currentThread().getId());
+        OutputStream out = null;
+        try {
+            out = new FileOutputStream(temp);
+            bitmap.compress(request.jpg ? Bitmap.CompressFormat.JPEG : Bitmap.CompressFormat.PNG, 90, out);
+        } finally {
+            OpenAirMapModule.closeQuietly(out);
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Cannot write " + file);
+        }
+        return file;
+    }
+
+    private void loadResults() {
+        if (resultsLoaded) return;
+        resultsLoaded = true;
+        File[] files = directory.listFiles();
+        if (files == null) return;
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return a.lastModified() < b.lastModified() ? -1 : (a.lastModified() == b.lastModified() ? 0 : 1);
+            }
+        });
+        for (File file : files) {
+            String name = file.getName();
+            int dot = name.indexOf('.');
+            if (dot > 0 && (name.endsWith(".png") || name.endsWith(".jpg"))) {
+                results.put(name.substring(0, dot), file);
+            } else {
+                // leftover temp file of an interrupted write
+                file.delete();
+            }
+        }
+        trimResults();
+    }
+
+    private void trimResults() {
+        Iterator<Map.Entry<String, File>> iterator = results.entrySet().iterator();
+        while (results.size() > MAX_RESULTS && iterator.hasNext()) {
+            File file = iterator.next().getValue();
+            iterator.remove();
+            file.delete();
+        }
+    }
+
+    private static String md5(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes());
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(value.hashCode());
+        }
+    }
+}
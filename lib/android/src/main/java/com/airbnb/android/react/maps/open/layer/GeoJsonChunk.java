@@ -0,0 +1,153 @@
+package com.airbnb.android.react.maps.open.layer;
+
+import java.util.Arrays;
+
+// A batch of parsed GeoJSON geometry in primitive arrays, handed from the parser thread to the
+// UI thread. Vertices are normalized Mercator coordinates stored as floats relative to the
+// north-west corner of the chunk, which keeps sub-pixel precision at street level for data of
+// city or country extent at half the memory of doubles.
+//
+// Geometry is split into parts, each a run of vertices: a line, a polygon ring or a set of
+// points. The vertices of part p are coords[2 * partStarts[p]] to coords[2 * partStarts[p + 1] - 1].
+final class GeoJsonChunk {
+    static final byte POINTS = 0;
+    static final byte LINE = 1;
+    // outer ring, starts a new polygon
+    static final byte POLYGON = 2;
+    // inner ring of the polygon started last
+    static final byte HOLE = 3;
+
+    final double originX;
+    final double originY;
+    final float[] coords;
+    final int[] partStarts;
+    final byte[] partTypes;
+    // minX, minY, maxX, maxY of every part, relative to the origin like the vertices
+    final float[] partBounds;
+    final int partCount;
+    final double minX;
+    final double minY;
+    final double maxX;
+    final double maxY;
+
+    private GeoJsonChunk(double originX, double originY, float[] coords, int[] partStarts,
+                         byte[] partTypes, float[] partBounds, int partCount, double maxX, double maxY) {
+        this.originX = originX;
+        this.originY = originY;
+        this.coords = coords;
+        this.partStarts = partStarts;
+        this.partTypes = partTypes;
+        this.partBounds = partBounds;
+        this.partCount = partCount;
+        this.minX = originX;
+        this.minY = originY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    int vertexCount() {
+        return partStarts[partCount];
+    }
+
+    // Collects parts with growable arrays on the parser thread.
+    static final class Builder {
+        private double[] coords = new double[1024];
+        private int[] partStarts = new int[65];
+        private byte[] partTypes = new byte[64];
+        private int vertexCount = 0;
+        private int partCount = 0;
+        private int partStart = 0;
+
+        int vertexCount() {
+            return vertexCount;
+        }
+
+        int partCount() {
+            return partCount;
+        }
+
+        void addVertex(double x, double y) {
+            if (2 * vertexCount + 2 > coords.length) {
+                coords = Arrays.copyOf(coords, coords.length * 2);
+            }
+            coords[2 * vertexCount] = x;
+            coords[2 * vertexCount + 1] = y;
+            vertexCount++;
+        }
+
+        /**
+         * Closes the vertices added since the last part as a new part. Empty parts are dropped.
+         */
+        void endPart(byte type) {
+            if (vertexCount == partStart) return;
+            if (partCount + 1 >= partTypes.length) {
+                partTypes = Arrays.copyOf(partTypes, partTypes.length * 2);
+                partStarts = Arrays.copyOf(partStarts, partTypes.length + 1);
+            }
+            partStarts[partCount] = partStart;
+            partTypes[partCount] = type;
+            partCount++;
+            partStarts[partCount] = vertexCount;
+            partStart = vertexCount;
+        }
+
+        byte getType(int part) {
+            return partTypes[part];
+        }
+
+        void setType(int part, byte type) {
+            partTypes[part] = type;
+        }
+
+        /**
+         * The parts collected so far as a chunk, or null when there are none. The builder is
+         * empty afterwards.
+         */
+        GeoJsonChunk build() {
+            if (partCount == 0) return null;
+            double minX = Double.POSITIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < vertexCount; i++) {
+                double x = coords[2 * i];
+                double y = coords[2 * i + 1];
+                if (x < minX) minX = x;
+                if (x > maxX) maxX = x;
+                if (y < minY) minY = y;
+                if (y > maxY) maxY = y;
+            }
+            float[] relative = new float[2 * vertexCount];
+            for (int i = 0; i < vertexCount; i++) {
+                relative[2 * i] = (float) (coords[2 * i] - minX);
+                relative[2 * i + 1] = (float) (coords[2 * i + 1] - minY);
+            }
+            float[] bounds = new float[4 * partCount];
+            for (int p = 0; p < partCount; p++) {
+                float left = Float.POSITIVE_INFINITY;
+                float top = Float.POSITIVE_INFINITY;
+                float right = Float.NEGATIVE_INFINITY;
+                float bottom = Float.NEGATIVE_INFINITY;
+                for (int i = partStarts[p]; i < partStarts[p + 1]; i++) {
+                    float x = relative[2 * i];
+                    float y = relative[2 * i + 1];
+                    if (x < left) left = x;
+                    if (x > right) right = x;
+                    if (y < top) top = y;
+                    if (y > bottom) bottom = y;
+                }
+                bounds[4 * p] = left;
+                bounds[4 * p + 1] = top;
+                bounds[4 * p + 2] = right;
+                bounds[4 * p + 3] = bottom;
+            }
+            GeoJsonChunk chunk = new GeoJsonChunk(minX, minY, relative,
+                    Arrays.copyOf(partStarts, partCount + 1), Arrays.copyOf(partTypes, partCount),
+                    bounds, partCount, maxX, maxY);
+            vertexCount = 0;
+            partCount = 0;
+            partStart = 0;
+            return chunk;
+        }
+    }
+}
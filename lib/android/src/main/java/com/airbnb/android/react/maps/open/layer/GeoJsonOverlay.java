@@ -0,0 +1,208 @@
+package com.airbnb.android.react.maps.open.layer;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+
+import com.airbnb.android.react.maps.open.MercatorViewport;
+
+import org.osmdroid.views.MapView;
+import org.osmdroid.views.overlay.Overlay;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Draws the chunks of a GeoJSON layer as they arrive. Parts outside the screen are skipped on
+// their bounds; lines go through a shared segment buffer into batched drawLines calls, with
+// vertices less than a pixel apart merged, and polygon fills are drawn from one reused Path.
+public class GeoJsonOverlay extends Overlay {
+    // floats per drawLines batch, 1024 segments
+    private static final int LINE_BATCH = 4096;
+
+    private final MercatorViewport viewport = new MercatorViewport();
+    private final List<GeoJsonChunk> chunks = new ArrayList<>();
+    private final Paint linePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint fillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint pointPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Path path = new Path();
+    private final float[] lines = new float[LINE_BATCH];
+    private float[] points = new float[256];
+
+    public GeoJsonOverlay(float density) {
+        linePaint.setStyle(Paint.Style.STROKE);
+        linePaint.setStrokeCap(Paint.Cap.ROUND);
+        linePaint.setColor(Color.BLACK);
+        linePaint.setStrokeWidth(density);
+        fillPaint.setStyle(Paint.Style.FILL);
+        fillPaint.setColor(Color.TRANSPARENT);
+        path.setFillType(Path.FillType.EVEN_ODD);
+        pointPaint.setStyle(Paint.Style.STROKE);
+        pointPaint.setStrokeCap(Paint.Cap.ROUND);
+        pointPaint.setColor(Color.BLACK);
+        pointPaint.setStrokeWidth(8 * density);
+    }
+
+    void addChunk(GeoJsonChunk chunk) {
+        chunks.add(chunk);
+    }
+
+    void clear() {
+        chunks.clear();
+    }
+
+    public void setStrokeColor(int color) {
+        linePaint.setColor(color);
+    }
+
+    public void setStrokeWidth(float width) {
+        linePaint.setStrokeWidth(width);
+    }
+
+    public void setFillColor(int color) {
+        fillPaint.setColor(color);
+    }
+
+    public void setPointColor(int color) {
+        pointPaint.setColor(color);
+    }
+
+    public void setPointRadius(float radius) {
+        pointPaint.setStrokeWidth(2 * radius);
+    }
+
+    @Override
+    public void draw(Canvas canvas, MapView mapView, boolean shadow) {
+        if (shadow || chunks.isEmpty()) return;
+        viewport.update(mapView);
+
+        if (Color.alpha(fillPaint.getColor()) != 0) {
+            drawFills(canvas);
+        }
+        if (linePaint.getStrokeWidth() > 0 && Color.alpha(linePaint.getColor()) != 0) {
+            drawLines(canvas);
+        }
+        drawPoints(canvas);
+    }
+
+    private void drawFills(Canvas canvas) {
+        boolean visible = false;
+        double shift = 0;
+        for (int c = 0; c < chunks.size(); c++) {
+            GeoJsonChunk chunk = chunks.get(c);
+            for (int part = 0; part < chunk.partCount; part++) {
+                byte type = chunk.partTypes[part];
+                if (type == GeoJsonChunk.POLYGON) {
+                    if (visible) canvas.drawPath(path, fillPaint);
+                    path.rewind();
+                    // holes are drawn in the world copy of their outer ring, and only with it
+                    shift = partShift(chunk, part);
+                    visible = isVisible(chunk, part, shift, 0);
+                } else if (type != GeoJsonChunk.HOLE) {
+                    continue;
+                }
+                if (!visible) continue;
+                int from = chunk.partStarts[part];
+                int to = chunk.partStarts[part + 1];
+                for (int i = from; i < to; i++) {
+                    float x = (float) screenX(chunk, i, shift);
+                    float y = (float) screenY(chunk, i);
+                    if (i == from) {
+                        path.moveTo(x, y);
+                    } else {
+                        path.lineTo(x, y);
+                    }
+                }
+                path.close();
+            }
+        }
+        if (visible) canvas.drawPath(path, fillPaint);
+        path.rewind();
+    }
+
+    private void drawLines(Canvas canvas) {
+        float margin = linePaint.getStrokeWidth();
+        int lineLength = 0;
+        for (int c = 0; c < chunks.size(); c++) {
+            GeoJsonChunk chunk = chunks.get(c);
+            for (int part = 0; part < chunk.partCount; part++) {
+                if (chunk.partTypes[part] == GeoJsonChunk.POINTS) continue;
+                double shift = partShift(chunk, part);
+                if (!isVisible(chunk, part, shift, margin)) continue;
+                int from = chunk.partStarts[part];
+                int to = chunk.partStarts[part + 1];
+                float lastX = (float) screenX(chunk, from, shift);
+                float lastY = (float) screenY(chunk, from);
+                for (int i = from + 1; i < to; i++) {
+                    float x = (float) screenX(chunk, i, shift);
+                    float y = (float) screenY(chunk, i);
+                    // merge vertices closer than a pixel, but always end on the last one
+                    if (i < to - 1 && Math.abs(x - lastX) < 1 && Math.abs(y - lastY) < 1) continue;
+                    if (lineLength == LINE_BATCH) {
+                        canvas.drawLines(lines, 0, lineLength, linePaint);
+                        lineLength = 0;
+                    }
+                    lines[lineLength++] = lastX;
+                    lines[lineLength++] = lastY;
+                    lines[lineLength++] = x;
+                    lines[lineLength++] = y;
+                    lastX = x;
+                    lastY = y;
+                }
+            }
+        }
+        if (lineLength > 0) {
+            canvas.drawLines(lines, 0, lineLength, linePaint);
+        }
+    }
+
+    private void drawPoints(Canvas canvas) {
+        float margin = pointPaint.getStrokeWidth() / 2;
+        int length = 0;
+        for (int c = 0; c < chunks.size(); c++) {
+            GeoJsonChunk chunk = chunks.get(c);
+            for (int part = 0; part < chunk.partCount; part++) {
+                if (chunk.partTypes[part] != GeoJsonChunk.POINTS) continue;
+                double shift = partShift(chunk, part);
+                if (!isVisible(chunk, part, shift, margin)) continue;
+                for (int i = chunk.partStarts[part]; i < chunk.partStarts[part + 1]; i++) {
+                    if (length + 2 > points.length) {
+                        float[] grown = new float[points.length * 2];
+                        System.arraycopy(points, 0, grown, 0, length);
+                        points = grown;
+                    }
+                    points[length++] = (float) screenX(chunk, i, shift);
+                    points[length++] = (float) screenY(chunk, i);
+                }
+            }
+        }
+        if (length > 0) {
+            canvas.drawPoints(points, 0, length, pointPaint);
+        }
+    }
+
+    /**
+     * The world copy the part is drawn in, the one nearest to the center of the map.
+     */
+    private double partShift(GeoJsonChunk chunk, int part) {
+        return viewport.wrapShift(chunk.originX + (chunk.partBounds[4 * part] + chunk.partBounds[4 * part + 2]) / 2);
+    }
+
+    private boolean isVisible(GeoJsonChunk chunk, int part, double shift, float margin) {
+        float[] bounds = chunk.partBounds;
+        return viewport.intersects(
+                viewport.screenX(chunk.originX + bounds[4 * part] + shift),
+                viewport.screenY(chunk.originY + bounds[4 * part + 1]),
+                viewport.screenX(chunk.originX + bounds[4 * part + 2] + shift),
+                viewport.screenY(chunk.originY + bounds[4 * part + 3]),
+                margin);
+    }
+
+    private double screenX(GeoJsonChunk chunk, int vertex, double shift) {
+        return viewport.screenX(chunk.originX + shift + chunk.coords[2 * vertex]);
+    }
+
+    private double screenY(GeoJsonChunk chunk, int vertex) {
+        return viewport.screenY(chunk.originY + chunk.coords[2 * vertex + 1]);
+    }
+}
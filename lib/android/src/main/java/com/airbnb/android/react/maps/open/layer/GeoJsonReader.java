@@ -0,0 +1,177 @@
+package com.airbnb.android.react.maps.open.layer;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import com.airbnb.android.react.maps.open.MercatorProjection;
+
+import java.io.IOException;
+import java.io.Reader;
+
+// Streaming GeoJSON parser. Geometry goes straight from the token stream into a chunk builder,
+// projected to Mercator on the way, and properties are skipped without being materialized,
+// so memory stays proportional to the vertices however large the document is. Finished
+// chunks are handed to the callback every CHUNK_VERTICES vertices, at feature boundaries.
+//
+// Members may come in any order, so the nesting depth of "coordinates" is recorded while they
+// are read and the parts are typed once the "type" of their object is known.
+final class GeoJsonReader {
+
+    interface Callback {
+        /**
+         * Called on the parsing thread with every finished chunk.
+         */
+        void onChunk(GeoJsonChunk chunk);
+
+        boolean isCancelled();
+    }
+
+    static final int CHUNK_VERTICES = 16384;
+
+    private final GeoJsonChunk.Builder builder = new GeoJsonChunk.Builder();
+    private final Callback callback;
+    private int featureCount = 0;
+    private int vertexCount = 0;
+
+    GeoJsonReader(Callback callback) {
+        this.callback = callback;
+    }
+
+    int getFeatureCount() {
+        return featureCount;
+    }
+
+    int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Parses a whole document. Returns false when the callback cancelled it.
+     */
+    boolean read(Reader input) throws IOException {
+        JsonReader reader = new JsonReader(input);
+        try {
+            reader.setLenient(true);
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                throw new IOException("GeoJSON must be an object");
+            }
+            if (!readObject(reader)) return false;
+            flush();
+            return true;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private boolean readObject(JsonReader reader) throws IOException {
+        String type = null;
+        int coordinatesFrom = -1;
+        int coordinatesTo = -1;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("type".equals(name) && reader.peek() == JsonToken.STRING) {
+                type = reader.nextString();
+            } else if ("coordinates".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                coordinatesFrom = builder.partCount();
+                int depth = readCoordinates(reader);
+                if (depth == 0) {
+                    // a single position, the coordinates of a Point
+                    builder.endPart(GeoJsonChunk.POINTS);
+                }
+                coordinatesTo = builder.partCount();
+            } else if (("features".equals(name) || "geometries".equals(name))
+                    && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                        if (!readObject(reader)) return false;
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endArray();
+            } else if ("geometry".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                if (!readObject(reader)) return false;
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (coordinatesFrom >= 0) {
+            applyType(type, coordinatesFrom, coordinatesTo);
+        }
+        if ("Feature".equals(type)) {
+            featureCount++;
+            if (callback.isCancelled()) return false;
+            if (builder.vertexCount() >= CHUNK_VERTICES) {
+                flush();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads a coordinates array of any depth into the builder and returns its depth: 0 for a
+     * position, 1 for a list of positions, which becomes a part, and so on. The first ring of
+     * every polygon of a MultiPolygon is marked POLYGON.
+     */
+    private int readCoordinates(JsonReader reader) throws IOException {
+        reader.beginArray();
+        if (reader.hasNext() && reader.peek() == JsonToken.NUMBER) {
+            double longitude = reader.nextDouble();
+            double latitude = reader.hasNext() ? reader.nextDouble() : 0;
+            while (reader.hasNext()) {
+                reader.skipValue();
+            }
+            reader.endArray();
+            builder.addVertex(MercatorProjection.x(longitude), MercatorProjection.y(latitude));
+            vertexCount++;
+            return 0;
+        }
+        int depth = 1;
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                reader.skipValue();
+                continue;
+            }
+            int firstPart = builder.partCount();
+            int childDepth = readCoordinates(reader);
+            depth = childDepth + 1;
+            if (childDepth == 2 && builder.partCount() > firstPart) {
+                builder.setType(firstPart, GeoJsonChunk.POLYGON);
+            }
+        }
+        reader.endArray();
+        if (depth == 1) {
+            builder.endPart(GeoJsonChunk.LINE);
+        }
+        return depth;
+    }
+
+    private void applyType(String type, int from, int to) {
+        byte partType;
+        if ("Point".equals(type) || "MultiPoint".equals(type)) {
+            partType = GeoJsonChunk.POINTS;
+        } else if ("Polygon".equals(type) || "MultiPolygon".equals(type)) {
+            for (int part = from; part < to; part++) {
+                boolean outer = part == from || builder.getType(part) == GeoJsonChunk.POLYGON;
+                builder.setType(part, outer ? GeoJsonChunk.POLYGON : GeoJsonChunk.HOLE);
+            }
+            return;
+        } else {
+            partType = GeoJsonChunk.LINE;
+        }
+        for (int part = from; part < to; part++) {
+            builder.setType(part, partType);
+        }
+    }
+
+    private void flush() {
+        GeoJsonChunk chunk = builder.build();
+        if (chunk != null) {
+            callback.onChunk(chunk);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.airbnb.android.react.maps.open.layer;
+
+import android.content.Context;
+
+import com.airbnb.android.react.maps.open.Bounds;
+import com.airbnb.android.react.maps.open.MercatorProjection;
+import com.airbnb.android.react.maps.open.OpenAirMapFeature;
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.ReactContext;
+import com.facebook.react.bridge.UiThreadUtil;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.uimanager.events.RCTEventEmitter;
+
+import org.osmdroid.views.MapView;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// A GeoJSON document as a single map child. The document is parsed off the UI thread, from a
+// file or a string, and its geometry shows chunk by chunk while the rest is still parsed, so
+// even documents of tens of megabytes neither block the JS thread nor hold a map of features.
+public class OpenAirMapGeoJsonLayer extends OpenAirMapFeature {
+    private static final String FILE_SCHEME = "file://";
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    // one document at a time, parsing is bound by memory bandwidth more than by cores
+    private static final ExecutorService loader = Executors.newSingleThreadExecutor();
+
+    private final GeoJsonOverlay overlay;
+    private MapView map;
+    private String path;
+    private String data;
+    private Load load;
+    private Bounds bounds;
+    private double minX;
+    private double minY;
+    private double maxX;
+    private double maxY;
+
+    public OpenAirMapGeoJsonLayer(Context context) {
+        super(context);
+        overlay = new GeoJsonOverlay(context.getResources().getDisplayMetrics().density);
+    }
+
+    @Override
+    public void addToMap(MapView map) {
+        this.map = map;
+        map.getOverlayManager().add(overlay);
+        map.invalidate();
+    }
+
+    @Override
+    public void removeFromMap(MapView map) {
+        map.getOverlayManager().remove(overlay);
+        this.map = null;
+        map.invalidate();
+    }
+
+    /**
+     * Path or file:// uri of a GeoJSON file.
+     */
+    public void setPath(String path) {
+        if (path == null ? this.path == null : path.equals(this.path)) return;
+        this.path = path;
+        reload();
+    }
+
+    /**
+     * A GeoJSON document, used instead of the path when set.
+     */
+    public void setData(String data) {
+        if (data == null ? this.data == null : data.equals(this.data)) return;
+        this.data = data;
+        reload();
+    }
+
+    public void setStrokeColor(int color) {
+        overlay.setStrokeColor(color);
+        invalidateMap();
+    }
+
+    public void setStrokeWidth(float width) {
+        overlay.setStrokeWidth(width);
+        invalidateMap();
+    }
+
+    public void setFillColor(int color) {
+        overlay.setFillColor(color);
+        invalidateMap();
+    }
+
+    public void setPointColor(int color) {
+        overlay.setPointColor(color);
+        invalidateMap();
+    }
+
+    public void setPointRadius(float radius) {
+        overlay.setPointRadius(radius);
+        invalidateMap();
+    }
+
+    /**
+     * Stops parsing the current document. Chunks parsed so far stay on the map.
+     */
+    public void cancelLoad() {
+        if (load != null) {
+            load.cancelled = true;
+            load = null;
+        }
+    }
+
+    private void reload() {
+        cancelLoad();
+        overlay.clear();
+        bounds = null;
+        minX = Double.POSITIVE_INFINITY;
+        minY = Double.POSITIVE_INFINITY;
+        maxX = Double.NEGATIVE_INFINITY;
+        maxY = Double.NEGATIVE_INFINITY;
+        if (map != null) {
+            notifyBoundsChanged(map);
+            map.invalidate();
+        }
+        if (data == null && path == null) return;
+        load = new Load(path, data);
+        loader.execute(load);
+    }
+
+    private void onChunk(GeoJsonChunk chunk) {
+        overlay.addChunk(chunk);
+        minX = Math.min(minX, chunk.minX);
+        minY = Math.min(minY, chunk.minY);
+        maxX = Math.max(maxX, chunk.maxX);
+        maxY = Math.max(maxY, chunk.maxY);
+        bounds = new Bounds(MercatorProjection.latitude(maxY), MercatorProjection.longitude(minX),
+                MercatorProjection.latitude(minY), MercatorProjection.longitude(maxX));
+        if (map != null) {
+            notifyBoundsChanged(map);
+            map.invalidate();
+        }
+    }
+
+    private void invalidateMap() {
+        if (map != null) {
+            map.invalidate();
+        }
+    }
+
+    private void pushEvent(String name, WritableMap event) {
+        ((ReactContext) getContext()).getJSModule(RCTEventEmitter.class)
+                .receiveEvent(getId(), name, event);
+    }
+
+    @Override
+    public Bounds getBounds() {
+        return bounds;
+    }
+
+    @Override
+    public void setCulled(boolean culled) {
+        overlay.setEnabled(!culled);
+    }
+
+    @Override
+    public Object getFeature() {
+        return overlay;
+    }
+
+    // Parses one document on the loader thread and posts its chunks to the UI thread, where
+    // they are dropped once another document has replaced it.
+    private final class Load implements Runnable, GeoJsonReader.Callback {
+        private final String path;
+        private final String data;
+        volatile boolean cancelled = false;
+
+        Load(String path, String data) {
+            this.path = path;
+            this.data = data;
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) return;
+            GeoJsonReader reader = new GeoJsonReader(this);
+            Reader input = null;
+            try {
+                if (data != null) {
+                    input = new StringReader(data);
+                } else {
+                    String file = path.startsWith(FILE_SCHEME) ? path.substring(FILE_SCHEME.length()) : path;
+                    input = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"),
+                            READ_BUFFER_SIZE);
+                }
+                if (reader.read(input)) {
+                    finish(reader.getFeatureCount(), reader.getVertexCount(), null);
+                }
+            } catch (IOException | RuntimeException e) {
+                // JsonReader reports malformed documents with IllegalStateException
+                finish(reader.getFeatureCount(), reader.getVertexCount(),
+                        e.getMessage() != null ? e.getMessage() : e.toString());
+            } finally {
+                if (input != null) {
+                    try {
+                        input.close();
+                    } catch (IOException ignored) {
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void onChunk(final GeoJsonChunk chunk) {
+            UiThreadUtil.runOnUiThread(new Runnable() {
+                @Override
+                public void run() {
+                    if (load == Load.this) {
+                        OpenAirMapGeoJsonLayer.this.onChunk(chunk);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        private void finish(final int features, final int vertices, final String error) {
+            UiThreadUtil.runOnUiThread(new Runnable() {
+                @Override
+                public void run() {
+                    if (load != Load.this) return;
+                    load = null;
+                    WritableMap event = Arguments.createMap();
+                    event.putInt("features", features);
+                    event.putInt("vertices", vertices);
+                    if (error != null) {
+                        event.putString("message", error);
+                        pushEvent("onError", event);
+                    } else {
+                        pushEvent("onLoad", event);
+                    }
+                }
+            });
+        }
+    }
+}
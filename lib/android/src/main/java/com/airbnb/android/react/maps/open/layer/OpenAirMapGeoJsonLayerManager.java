@@ -0,0 +1,83 @@
+package com.airbnb.android.react.maps.open.layer;
+
+import android.graphics.Color;
+import android.util.DisplayMetrics;
+
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.common.MapBuilder;
+import com.facebook.react.uimanager.ThemedReactContext;
+import com.facebook.react.uimanager.ViewGroupManager;
+import com.facebook.react.uimanager.annotations.ReactProp;
+
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+public class OpenAirMapGeoJsonLayerManager extends ViewGroupManager<OpenAirMapGeoJsonLayer> {
+    private final DisplayMetrics metrics;
+
+    public OpenAirMapGeoJsonLayerManager(ReactApplicationContext reactContext) {
+        super();
+        metrics = reactContext.getResources().getDisplayMetrics();
+    }
+
+    @Override
+    public String getName() {
+        return "AIRMapGeoJsonLayer";
+    }
+
+    @Override
+    public OpenAirMapGeoJsonLayer createViewInstance(ThemedReactContext context) {
+        return new OpenAirMapGeoJsonLayer(context);
+    }
+
+    @ReactProp(name = "path")
+    public void setPath(OpenAirMapGeoJsonLayer view, @Nullable String path) {
+        view.setPath(path);
+    }
+
+    @ReactProp(name = "data")
+    public void setData(OpenAirMapGeoJsonLayer view, @Nullable String data) {
+        view.setData(data);
+    }
+
+    @ReactProp(name = "strokeColor", defaultInt = Color.BLACK, customType = "Color")
+    public void setStrokeColor(OpenAirMapGeoJsonLayer view, int color) {
+        view.setStrokeColor(color);
+    }
+
+    @ReactProp(name = "strokeWidth", defaultFloat = 1f)
+    public void setStrokeWidth(OpenAirMapGeoJsonLayer view, float widthInPoints) {
+        view.setStrokeWidth(metrics.density * widthInPoints);
+    }
+
+    @ReactProp(name = "fillColor", defaultInt = Color.TRANSPARENT, customType = "Color")
+    public void setFillColor(OpenAirMapGeoJsonLayer view, int color) {
+        view.setFillColor(color);
+    }
+
+    @ReactProp(name = "pointColor", defaultInt = Color.BLACK, customType = "Color")
+    public void setPointColor(OpenAirMapGeoJsonLayer view, int color) {
+        view.setPointColor(color);
+    }
+
+    @ReactProp(name = "pointRadius", defaultFloat = 4f)
+    public void setPointRadius(OpenAirMapGeoJsonLayer view, float radiusInPoints) {
+        view.setPointRadius(metrics.density * radiusInPoints);
+    }
+
+    @Override
+    public void onDropViewInstance(OpenAirMapGeoJsonLayer view) {
+        view.cancelLoad();
+        super.onDropViewInstance(view);
+    }
+
+    @Override
+    @Nullable
+    public Map getExportedCustomDirectEventTypeConstants() {
+        return MapBuilder.of(
+                "onLoad", MapBuilder.of("registrationName", "onLoad"),
+                "onError", MapBuilder.of("registrationName", "onError")
+        );
+    }
+}
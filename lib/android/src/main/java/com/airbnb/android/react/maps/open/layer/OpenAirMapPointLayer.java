@@ -0,0 +1,117 @@
+package com.airbnb.android.react.maps.open.layer;
+
+import android.content.Context;
+
+import com.airbnb.android.react.maps.open.Bounds;
+import com.airbnb.android.react.maps.open.OpenAirMapFeature;
+import com.airbnb.android.react.maps.open.OpenAirMapView;
+
+import org.osmdroid.util.GeoPoint;
+import org.osmdroid.views.MapView;
+
+// A whole data set of points as a single map child. The points live in primitive arrays of the
+// overlay instead of a React view and an osmdroid Marker each, and presses are resolved through
+// the overlay's grid index and reported with the id of the point.
+public class OpenAirMapPointLayer extends OpenAirMapFeature {
+    private final PointLayerOverlay overlay;
+    private MapView map;
+    private double[] coordinates = new double[0];
+    private String[] ids;
+    private Bounds bounds;
+
+    public OpenAirMapPointLayer(Context context) {
+        super(context);
+        overlay = new PointLayerOverlay(context.getResources().getDisplayMetrics().density);
+        overlay.setOnPointPressListener(new PointLayerOverlay.OnPointPressListener() {
+            @Override
+            public void onPointPress(int index) {
+                pushPress(index);
+            }
+        });
+    }
+
+    @Override
+    public void addToMap(MapView map) {
+        this.map = map;
+        map.getOverlayManager().add(overlay);
+        map.invalidate();
+    }
+
+    @Override
+    public void removeFromMap(MapView map) {
+        map.getOverlayManager().remove(overlay);
+        this.map = null;
+        map.invalidate();
+    }
+
+    public void setCoordinates(double[] latLngs) {
+        this.coordinates = latLngs;
+        this.bounds = Bounds.fromLatLngs(latLngs);
+        overlay.setPoints(latLngs);
+        if (map != null) {
+            notifyBoundsChanged(map);
+            map.invalidate();
+        }
+    }
+
+    public void setColors(int[] colors) {
+        overlay.setColors(colors);
+        invalidateMap();
+    }
+
+    public void setColor(int color) {
+        overlay.setColor(color);
+        invalidateMap();
+    }
+
+    public void setRadius(float radius) {
+        overlay.setRadius(radius);
+        invalidateMap();
+    }
+
+    public void setStrokeColor(int color) {
+        overlay.setStrokeColor(color);
+        invalidateMap();
+    }
+
+    public void setStrokeWidth(float width) {
+        overlay.setStrokeWidth(width);
+        invalidateMap();
+    }
+
+    /**
+     * Ids reported with presses, by point index. Points without one report their index.
+     */
+    public void setIds(String[] ids) {
+        this.ids = ids;
+    }
+
+    private void invalidateMap() {
+        if (map != null) {
+            map.invalidate();
+        }
+    }
+
+    private void pushPress(int index) {
+        if (!(map instanceof OpenAirMapView)) return;
+        String id = ids != null && index < ids.length && ids[index] != null
+                ? ids[index] : String.valueOf(index);
+        GeoPoint point = new GeoPoint(coordinates[2 * index], coordinates[2 * index + 1]);
+        ((OpenAirMapView) map).pushPointEvent(getId(), "onPress", point, "point-press", id, false);
+    }
+
+    @Override
+    public Bounds getBounds() {
+        return bounds;
+    }
+
+    @Override
+    public void setCulled(boolean culled) {
+        overlay.setEnabled(!culled);
+    }
+
+    @Override
+    public Object getFeature() {
+        return overlay;
+    }
+}
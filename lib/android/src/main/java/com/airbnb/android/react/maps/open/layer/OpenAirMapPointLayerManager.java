@@ -0,0 +1,101 @@
+package com.airbnb.android.react.maps.open.layer;
+
+import android.graphics.Color;
+import android.util.DisplayMetrics;
+
+import com.airbnb.android.react.maps.open.PackedCoordinates;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableType;
+import com.facebook.react.common.MapBuilder;
+import com.facebook.react.uimanager.ThemedReactContext;
+import com.facebook.react.uimanager.ViewGroupManager;
+import com.facebook.react.uimanager.annotations.ReactProp;
+
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+public class OpenAirMapPointLayerManager extends ViewGroupManager<OpenAirMapPointLayer> {
+    private final DisplayMetrics metrics;
+
+    public OpenAirMapPointLayerManager(ReactApplicationContext reactContext) {
+        super();
+        metrics = reactContext.getResources().getDisplayMetrics();
+    }
+
+    @Override
+    public String getName() {
+        return "AIRMapPointLayer";
+    }
+
+    @Override
+    public OpenAirMapPointLayer createViewInstance(ThemedReactContext context) {
+        return new OpenAirMapPointLayer(context);
+    }
+
+    @ReactProp(name = "packedCoordinates")
+    public void setPackedCoordinates(OpenAirMapPointLayer view, @Nullable ReadableArray coordinates) {
+        view.setCoordinates(coordinates == null
+                ? new double[0] : PackedCoordinates.fromFlatArray(coordinates));
+    }
+
+    @ReactProp(name = "colors")
+    public void setColors(OpenAirMapPointLayer view, @Nullable ReadableArray colors) {
+        if (colors == null) {
+            view.setColors(null);
+            return;
+        }
+        int[] values = new int[colors.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = colors.isNull(i) ? Color.TRANSPARENT : colors.getInt(i);
+        }
+        view.setColors(values);
+    }
+
+    @ReactProp(name = "color", defaultInt = Color.RED, customType = "Color")
+    public void setColor(OpenAirMapPointLayer view, int color) {
+        view.setColor(color);
+    }
+
+    @ReactProp(name = "radius", defaultFloat = 4f)
+    public void setRadius(OpenAirMapPointLayer view, float radiusInPoints) {
+        view.setRadius(metrics.density * radiusInPoints);
+    }
+
+    @ReactProp(name = "strokeColor", defaultInt = Color.WHITE, customType = "Color")
+    public void setStrokeColor(OpenAirMapPointLayer view, int color) {
+        view.setStrokeColor(color);
+    }
+
+    @ReactProp(name = "strokeWidth", defaultFloat = 1f)
+    public void setStrokeWidth(OpenAirMapPointLayer view, float widthInPoints) {
+        view.setStrokeWidth(metrics.density * widthInPoints);
+    }
+
+    @ReactProp(name = "ids")
+    public void setIds(OpenAirMapPointLayer view, @Nullable ReadableArray ids) {
+        if (ids == null) {
+            view.setIds(null);
+            return;
+        }
+        String[] values = new String[ids.size()];
+        for (int i = 0; i < values.length; i++) {
+            ReadableType type = ids.getType(i);
+            if (type == ReadableType.String) {
+                values[i] = ids.getString(i);
+            } else if (type == ReadableType.Number) {
+                values[i] = String.valueOf((long) ids.getDouble(i));
+            }
+        }
+        view.setIds(values);
+    }
+
+    @Override
+    @Nullable
+    public Map getExportedCustomDirectEventTypeConstants() {
+        return MapBuilder.of(
+                "onPress", MapBuilder.of("registrationName", "onPress")
+        );
+    }
+}
@@ -0,0 +1,99 @@
+package com.airbnb.android.react.maps.open.layer;
+
+// Uniform grid over points in normalized Mercator space, kept in two int arrays instead of an
+// object per point: the points of cell c are items[cellStart[c]] to items[cellStart[c + 1] - 1].
+// Built in two counting passes, so indexing tens of thousands of points allocates four arrays.
+final class PointGrid {
+    private static final int POINTS_PER_CELL = 8;
+    private static final double MIN_CELL_SIZE = 1e-9;
+
+    private double minX;
+    private double minY;
+    private double maxX;
+    private double cellWidth;
+    private double cellHeight;
+    private int side;
+    private int[] cellStart = new int[1];
+    private int[] items = new int[0];
+
+    void build(double[] xs, double[] ys, int count) {
+        if (count == 0) {
+            side = 0;
+            cellStart = new int[1];
+            items = new int[0];
+            return;
+        }
+        minX = xs[0];
+        maxX = xs[0];
+        minY = ys[0];
+        double maxY = ys[0];
+        for (int i = 1; i < count; i++) {
+            if (xs[i] < minX) minX = xs[i];
+            if (xs[i] > maxX) maxX = xs[i];
+            if (ys[i] < minY) minY = ys[i];
+            if (ys[i] > maxY) maxY = ys[i];
+        }
+        side = Math.max(1, (int) Math.sqrt(count / (double) POINTS_PER_CELL));
+        cellWidth = Math.max((maxX - minX) / side, MIN_CELL_SIZE);
+        cellHeight = Math.max((maxY - minY) / side, MIN_CELL_SIZE);
+
+        int[] cellOf = new int[count];
+        cellStart = new int[side * side + 1];
+        for (int i = 0; i < count; i++) {
+            int cell = row(ys[i]) * side + column(xs[i]);
+            cellOf[i] = cell;
+            cellStart[cell + 1]++;
+        }
+        for (int c = 0; c < side * side; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        items = new int[count];
+        int[] next = new int[side * side];
+        System.arraycopy(cellStart, 0, next, 0, next.length);
+        for (int i = 0; i < count; i++) {
+            items[next[cellOf[i]]++] = i;
+        }
+    }
+
+    /**
+     * Index of the point nearest to (x, y) and within radius of it, or -1. Coordinates are
+     * normalized, x in [0, 1); points across the antimeridian are found too.
+     */
+    int nearest(double[] xs, double[] ys, double x, double y, double radius) {
+        if (side == 0) return -1;
+        int best = -1;
+        double bestDistance = radius * radius;
+        for (int shift = -1; shift <= 1; shift++) {
+            double queryX = x + shift;
+            if (queryX + radius < minX || queryX - radius > maxX) continue;
+            int fromColumn = column(queryX - radius);
+            int toColumn = column(queryX + radius);
+            int fromRow = row(y - radius);
+            int toRow = row(y + radius);
+            for (int row = fromRow; row <= toRow; row++) {
+                for (int column = fromColumn; column <= toColumn; column++) {
+                    int cell = row * side + column;
+                    for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                        int i = items[k];
+                        double dx = xs[i] - queryX;
+                        double dy = ys[i] - y;
+                        double distance = dx * dx + dy * dy;
+                        if (distance <= bestDistance) {
+                            bestDistance = distance;
+                            best = i;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private int column(double x) {
+        return Math.max(0, Math.min(side - 1, (int) ((x - minX) / cellWidth)));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min(side - 1, (int) ((y - minY) / cellHeight)));
+    }
+}
@@ -0,0 +1,196 @@
+package com.airbnb.android.react.maps.open.layer;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.view.MotionEvent;
+
+import com.airbnb.android.react.maps.open.MercatorProjection;
+import com.airbnb.android.react.maps.open.MercatorViewport;
+
+import org.osmdroid.views.MapView;
+import org.osmdroid.views.overlay.Overlay;
+
+import java.util.Arrays;
+
+// Draws every point of a layer as a dot in one overlay pass. Points are projected to Mercator
+// once when they are set and sorted by color, so a frame is one drawPoints call per color (and
+// one for the outlines) over a reused buffer, whatever the number of points.
+public class PointLayerOverlay extends Overlay {
+
+    public interface OnPointPressListener {
+        void onPointPress(int index);
+    }
+
+    // smallest touch target around a point, in dp
+    private static final float MIN_HIT_RADIUS = 12f;
+
+    private final MercatorViewport viewport = new MercatorViewport();
+    private final PointGrid grid = new PointGrid();
+    private final Rect screenRect = new Rect();
+    private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final float density;
+    private OnPointPressListener listener;
+
+    private int count = 0;
+    private double[] xs = new double[0];
+    private double[] ys = new double[0];
+    private float[] buffer = new float[0];
+    private int[] colors;
+    private int color = Color.RED;
+    private float radius;
+    private float strokeWidth;
+    private int strokeColor = Color.WHITE;
+
+    // point indices in drawing order, and the start of each run of one color within it
+    private int[] order = new int[0];
+    private int[] runStarts = new int[]{0};
+    private int[] runColors = new int[0];
+
+    public PointLayerOverlay(float density) {
+        this.density = density;
+        this.radius = 4 * density;
+        this.strokeWidth = density;
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setStrokeCap(Paint.Cap.ROUND);
+    }
+
+    public void setOnPointPressListener(OnPointPressListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the points from a flat [lat, lng, lat, lng, ...] array.
+     */
+    public void setPoints(double[] latLngs) {
+        count = latLngs.length / 2;
+        xs = new double[count];
+        ys = new double[count];
+        for (int i = 0; i < count; i++) {
+            ys[i] = MercatorProjection.y(latLngs[2 * i]);
+            xs[i] = MercatorProjection.x(latLngs[2 * i + 1]);
+        }
+        buffer = new float[count * 2];
+        grid.build(xs, ys, count);
+        updateRuns();
+    }
+
+    /**
+     * Per point colors, or null to draw every point in the layer color. Ignored unless there is
+     * one color per point.
+     */
+    public void setColors(int[] colors) {
+        this.colors = colors;
+        updateRuns();
+    }
+
+    public void setColor(int color) {
+        this.color = color;
+        updateRuns();
+    }
+
+    public void setRadius(float radius) {
+        this.radius = radius;
+    }
+
+    public void setStrokeColor(int strokeColor) {
+        this.strokeColor = strokeColor;
+    }
+
+    public void setStrokeWidth(float strokeWidth) {
+        this.strokeWidth = strokeWidth;
+    }
+
+    private void updateRuns() {
+        if (colors == null || colors.length != count) {
+            order = new int[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            runStarts = count == 0 ? new int[]{0} : new int[]{0, count};
+            runColors = count == 0 ? new int[0] : new int[]{color};
+            return;
+        }
+        // color in the high bits and index in the low bits, so one primitive sort groups the
+        // points by color and keeps their order within a color
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = ((long) colors[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+        order = new int[count];
+        int runs = 0;
+        for (int k = 0; k < count; k++) {
+            order[k] = (int) keys[k];
+            if (k == 0 || (int) (keys[k] >> 32) != (int) (keys[k - 1] >> 32)) runs++;
+        }
+        runStarts = new int[runs + 1];
+        runColors = new int[runs];
+        int run = -1;
+        for (int k = 0; k < count; k++) {
+            int pointColor = (int) (keys[k] >> 32);
+            if (run < 0 || pointColor != runColors[run]) {
+                run++;
+                runStarts[run] = k;
+                runColors[run] = pointColor;
+            }
+        }
+        runStarts[runs] = count;
+    }
+
+    @Override
+    public void draw(Canvas canvas, MapView mapView, boolean shadow) {
+        if (shadow || count == 0) return;
+        viewport.update(mapView);
+
+        float outer = radius + strokeWidth;
+        if (strokeWidth > 0) {
+            int length = project(0, count, outer);
+            if (length > 0) {
+                paint.setColor(strokeColor);
+                paint.setStrokeWidth(2 * outer);
+                canvas.drawPoints(buffer, 0, length, paint);
+            }
+        }
+        paint.setStrokeWidth(2 * radius);
+        for (int run = 0; run < runColors.length; run++) {
+            int length = project(runStarts[run], runStarts[run + 1], outer);
+            if (length == 0) continue;
+            paint.setColor(runColors[run]);
+            canvas.drawPoints(buffer, 0, length, paint);
+        }
+    }
+
+    /**
+     * Writes the screen positions of the visible points order[from] to order[to - 1] into the
+     * buffer and returns the number of floats written.
+     */
+    private int project(int from, int to, float margin) {
+        int length = 0;
+        for (int k = from; k < to; k++) {
+            int i = order[k];
+            double screenX = viewport.wrappedScreenX(xs[i]);
+            double screenY = viewport.screenY(ys[i]);
+            if (!viewport.isVisible(screenX, screenY, margin)) continue;
+            buffer[length++] = (float) screenX;
+            buffer[length++] = (float) screenY;
+        }
+        return length;
+    }
+
+    @Override
+    public boolean onSingleTapConfirmed(MotionEvent event, MapView mapView) {
+        if (listener == null || count == 0 || !isEnabled()) return false;
+        viewport.update(mapView);
+        // the viewport works in the scrolled pixel space of the projection, events in the view's
+        mapView.getIntrinsicScreenRect(screenRect);
+        double x = viewport.mercatorX(event.getX() + screenRect.left);
+        double y = viewport.mercatorY(event.getY() + screenRect.top);
+        double hitRadius = Math.max(radius + strokeWidth, MIN_HIT_RADIUS * density);
+        int index = grid.nearest(xs, ys, x - Math.floor(x), y, hitRadius / viewport.getScale());
+        if (index < 0) return false;
+        listener.onPointPress(index);
+        return true;
+    }
+}
@@ -0,0 +1,111 @@
+package com.airbnb.android.react.maps.open.marker;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.view.MotionEvent;
+
+import com.airbnb.android.react.maps.open.MercatorProjection;
+import com.airbnb.android.react.maps.open.MercatorViewport;
+
+import org.osmdroid.views.MapView;
+import org.osmdroid.views.overlay.Overlay;
+
+import java.util.List;
+
+// Draws the clusters of a MarkerClusterer as counted circles. Single markers are left to their
+// own overlays; the clusterer hides the ones that are drawn here. Clusters are placed from their
+// normalized Mercator coordinates through a MercatorViewport, so a frame needs no per-cluster
+// projection.
+public class ClusterOverlay extends Overlay {
+
+    public interface OnClusterPressListener {
+        void onClusterPress(double latitude, double longitude, List<OpenAirMapMarker> markers);
+    }
+
+    private final MarkerClusterer clusterer;
+    private final Paint fillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final MercatorViewport viewport = new MercatorViewport();
+    private final Rect textBounds = new Rect();
+    private final Rect screenRect = new Rect();
+    private final float density;
+    private OnClusterPressListener listener;
+
+    public ClusterOverlay(MarkerClusterer clusterer, float density) {
+        this.clusterer = clusterer;
+        this.density = density;
+        fillPaint.setColor(Color.parseColor("#1976D2"));
+        textPaint.setColor(Color.WHITE);
+        textPaint.setTextAlign(Paint.Align.CENTER);
+        textPaint.setTextSize(12 * density);
+        textPaint.setFakeBoldText(true);
+    }
+
+    public void setOnClusterPressListener(OnClusterPressListener listener) {
+        this.listener = listener;
+    }
+
+    public void setColor(int color) {
+        fillPaint.setColor(color);
+    }
+
+    public void setTextColor(int color) {
+        textPaint.setColor(color);
+    }
+
+    @Override
+    public void draw(Canvas canvas, MapView mapView, boolean shadow) {
+        if (shadow) return;
+        int zoom = clusterer.getAppliedZoom();
+        if (zoom < 0 || zoom > MarkerClusterer.MAX_ZOOM) return;
+
+        MarkerClusterer.Level level = clusterer.getLevel(zoom);
+        viewport.update(mapView);
+        for (int i = 0; i < level.size; i++) {
+            int count = level.count[i];
+            if (count < 2) continue;
+            float x = (float) viewport.wrappedScreenX(level.x[i]);
+            float y = (float) viewport.screenY(level.y[i]);
+            float radius = radiusFor(count);
+            if (!viewport.isVisible(x, y, radius)) continue;
+            canvas.drawCircle(x, y, radius, fillPaint);
+            String label = count < 1000 ? String.valueOf(count) : (count / 1000) + "k";
+            textPaint.getTextBounds(label, 0, label.length(), textBounds);
+            canvas.drawText(label, x, y + textBounds.height() / 2f, textPaint);
+        }
+    }
+
+    @Override
+    public boolean onSingleTapConfirmed(MotionEvent event, MapView mapView) {
+        int zoom = clusterer.getAppliedZoom();
+        if (listener == null || zoom < 0 || zoom > MarkerClusterer.MAX_ZOOM) return false;
+
+        MarkerClusterer.Level level = clusterer.getLevel(zoom);
+        viewport.update(mapView);
+        // the viewport works in the scrolled pixel space the canvas is drawn in, events in the view's
+        mapView.getIntrinsicScreenRect(screenRect);
+        float x = event.getX() + screenRect.left;
+        float y = event.getY() + screenRect.top;
+        for (int i = 0; i < level.size; i++) {
+            int count = level.count[i];
+            if (count < 2) continue;
+            float radius = radiusFor(count);
+            double dx = x - viewport.wrappedScreenX(level.x[i]);
+            double dy = y - viewport.screenY(level.y[i]);
+            if (dx * dx + dy * dy <= radius * radius) {
+                listener.onClusterPress(
+                        MercatorProjection.latitude(level.y[i]),
+                        MercatorProjection.longitude(level.x[i]),
+                        clusterer.getMarkersInCluster(i));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private float radiusFor(int count) {
+        return (float) (14 + 8 * Math.log10(count)) * density;
+    }
+}
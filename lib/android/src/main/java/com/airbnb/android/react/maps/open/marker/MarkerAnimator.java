@@ -0,0 +1,149 @@
+package com.airbnb.android.react.maps.open.marker;
+
+import android.view.Choreographer;
+
+import org.osmdroid.views.MapView;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Moves markers to new coordinates on the UI thread, one Choreographer frame callback driving
+// every running animation. Each frame updates the positions of all animating markers and then
+// invalidates every map involved once, however many of its markers moved.
+final class MarkerAnimator implements Choreographer.FrameCallback {
+    private static MarkerAnimator instance;
+
+    static class Animation {
+        final OpenAirMapMarker marker;
+        final double fromLatitude;
+        final double fromLongitude;
+        final double toLatitude;
+        // may lie beyond +-180 when the way crosses the antimeridian
+        final double toLongitude;
+        final long durationNanos;
+        long startNanos = -1;
+
+        Animation(OpenAirMapMarker marker, double fromLatitude, double fromLongitude,
+                  double toLatitude, double toLongitude, long durationNanos) {
+            this.marker = marker;
+            this.fromLatitude = fromLatitude;
+            this.fromLongitude = fromLongitude;
+            this.toLatitude = toLatitude;
+            // take the short way around the antimeridian
+            double delta = toLongitude - fromLongitude;
+            if (delta > 180) {
+                delta -= 360;
+            } else if (delta < -180) {
+                delta += 360;
+            }
+            this.toLongitude = fromLongitude + delta;
+            this.durationNanos = durationNanos;
+        }
+
+        /**
+         * Fraction of the animation done at a frame, 1 once it is over. The first frame asked
+         * about starts the animation.
+         */
+        double progress(long frameTimeNanos) {
+            if (startNanos < 0) {
+                startNanos = frameTimeNanos;
+            }
+            return Math.min(1.0, (frameTimeNanos - startNanos) / (double) durationNanos);
+        }
+
+        double latitudeAt(double t) {
+            return fromLatitude + (toLatitude - fromLatitude) * t;
+        }
+
+        double longitudeAt(double t) {
+            return fromLongitude + (toLongitude - fromLongitude) * t;
+        }
+    }
+
+    private final Map<OpenAirMapMarker, Animation> animations = new HashMap<>();
+    private final List<Animation> finished = new ArrayList<>();
+    private final List<MapView> dirtyMaps = new ArrayList<>();
+    private boolean scheduled = false;
+
+    private MarkerAnimator() {
+    }
+
+    static MarkerAnimator getInstance() {
+        if (instance == null) {
+            instance = new MarkerAnimator();
+        }
+        return instance;
+    }
+
+    /**
+     * Starts moving a marker from where it is drawn now. Replaces a running animation of the
+     * same marker, so a stream of updates continues smoothly from the current position.
+     */
+    void animate(OpenAirMapMarker marker, double latitude, double longitude, int durationMs) {
+        if (durationMs <= 0) {
+            cancel(marker);
+            marker.finishAnimation(latitude, longitude);
+            return;
+        }
+        Animation animation = new Animation(marker, marker.getAnimatedLatitude(), marker.getAnimatedLongitude(),
+                latitude, longitude, durationMs * 1000000L);
+        animations.put(marker, animation);
+        marker.startAnimation(animation.fromLatitude, animation.fromLongitude,
+                animation.toLatitude, animation.toLongitude);
+        if (!scheduled) {
+            scheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    void cancel(OpenAirMapMarker marker) {
+        animations.remove(marker);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        scheduled = false;
+        for (Animation animation : animations.values()) {
+            double t = animation.progress(frameTimeNanos);
+            if (t >= 1.0) {
+                finished.add(animation);
+                continue;
+            }
+            markDirty(animation.marker.setAnimatedPosition(animation.latitudeAt(t), animation.longitudeAt(t)));
+        }
+
+        for (int i = 0; i < finished.size(); i++) {
+            Animation animation = finished.get(i);
+            animations.remove(animation.marker);
+            animation.marker.finishAnimation(animation.toLatitude, wrapLongitude(animation.toLongitude));
+        }
+        finished.clear();
+
+        for (int i = 0; i < dirtyMaps.size(); i++) {
+            dirtyMaps.get(i).invalidate();
+        }
+        dirtyMaps.clear();
+
+        if (!animations.isEmpty()) {
+            scheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    static double wrapLongitude(double longitude) {
+        if (longitude > 180) {
+            return longitude - 360;
+        } else if (longitude < -180) {
+            return longitude + 360;
+        }
+        return longitude;
+    }
+
+    private void markDirty(MapView map) {
+        if (map != null && !dirtyMaps.contains(map)) {
+            dirtyMaps.add(map);
+        }
+    }
+}
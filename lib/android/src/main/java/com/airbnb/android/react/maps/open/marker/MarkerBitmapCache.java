@@ -0,0 +1,48 @@
+package com.airbnb.android.react.maps.open.marker;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.support.v4.util.LruCache;
+
+// Process wide LRU of rasterised custom marker views, keyed by the marker's reuseIdentifier and
+// size. Markers with the same content share one bitmap instead of each drawing their own.
+// The support LruCache is used because the framework one only exposes trimToSize from API 17.
+public final class MarkerBitmapCache {
+    // an eighth of the heap, the usual budget for an in-memory bitmap cache
+    private static final int MAX_SIZE_KB = (int) (Runtime.getRuntime().maxMemory() / 1024 / 8);
+
+    private static final LruCache<String, Bitmap> cache = new LruCache<String, Bitmap>(MAX_SIZE_KB) {
+        @Override
+        protected int sizeOf(String key, Bitmap bitmap) {
+            return bitmap.getRowBytes() * bitmap.getHeight() / 1024;
+        }
+    };
+
+    private MarkerBitmapCache() {
+    }
+
+    static String keyFor(String reuseIdentifier, int width, int height) {
+        return reuseIdentifier + "@" + width + "x" + height;
+    }
+
+    static Bitmap get(String key) {
+        return cache.get(key);
+    }
+
+    static void put(String key, Bitmap bitmap) {
+        cache.put(key, bitmap);
+    }
+
+    /**
+     * Empties the cache in the background or when memory is critical and halves it when memory
+     * runs low. Markers keep the bitmaps they show.
+     */
+    public static void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            cache.evictAll();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            cache.trimToSize(cache.maxSize() / 2);
+        }
+    }
+}
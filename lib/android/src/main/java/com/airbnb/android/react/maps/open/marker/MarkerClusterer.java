@@ -0,0 +1,278 @@
+package com.airbnb.android.react.maps.open.marker;
+
+import com.airbnb.android.react.maps.open.MercatorProjection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Hierarchical greedy clustering in the style of supercluster.
+//
+// Markers are projected once, then each zoom level from maxZoom down is built by merging the
+// clusters of the level above that fall within the cluster radius, using a grid with the radius
+// as cell size for the neighbour search. Levels are built lazily, down to the lowest zoom applied
+// so far, and dropped only when the marker set changes; a zoom change just walks the parent
+// links down to the new level.
+public class MarkerClusterer {
+    public static final int MAX_ZOOM = 18;
+
+    private final List<OpenAirMapMarker> markers = new ArrayList<>();
+    private double radiusPx = 60;
+    private boolean dirty = true;
+
+    // levels[z] holds the clusters at zoom z, levels[MAX_ZOOM + 1] the markers themselves
+    private Level[] levels = new Level[MAX_ZOOM + 2];
+    // levels below this one are not built yet
+    private int lowestLevel = MAX_ZOOM + 1;
+    private int[] clusterOfMarker = new int[0];
+    private int appliedZoom = -1;
+
+    static class Level {
+        int size;
+        double[] x;
+        double[] y;
+        int[] count;
+        // index of the cluster one level down (zoom - 1) that absorbed each cluster of this level
+        int[] parent;
+
+        Level(int capacity) {
+            x = new double[capacity];
+            y = new double[capacity];
+            count = new int[capacity];
+            parent = new int[capacity];
+        }
+    }
+
+    public void setRadius(double radiusPx) {
+        if (this.radiusPx != radiusPx) {
+            this.radiusPx = radiusPx;
+            invalidate();
+        }
+    }
+
+    public void addMarker(OpenAirMapMarker marker) {
+        markers.add(marker);
+        invalidate();
+    }
+
+    public void removeMarker(OpenAirMapMarker marker) {
+        if (markers.remove(marker)) {
+            marker.setClustered(false);
+            invalidate();
+        }
+    }
+
+    public void clear() {
+        for (OpenAirMapMarker marker : markers) {
+            marker.setClustered(false);
+        }
+        markers.clear();
+        invalidate();
+    }
+
+    public void invalidate() {
+        dirty = true;
+        appliedZoom = -1;
+    }
+
+    /**
+     * Hides every marker that is part of a cluster at the given zoom. Returns false when nothing
+     * changed since the last call.
+     */
+    public boolean apply(int zoom) {
+        if (dirty) {
+            build();
+        }
+        int level = Math.max(0, Math.min(MAX_ZOOM + 1, zoom));
+        if (level == appliedZoom) {
+            return false;
+        }
+        appliedZoom = level;
+        while (lowestLevel > level) {
+            levels[lowestLevel - 1] = cluster(levels[lowestLevel], radiusPx / MercatorProjection.worldSize(lowestLevel - 1));
+            lowestLevel--;
+        }
+
+        int n = markers.size();
+        if (clusterOfMarker.length != n) {
+            clusterOfMarker = new int[n];
+        }
+        for (int i = 0; i < n; i++) {
+            clusterOfMarker[i] = i;
+        }
+        for (int z = MAX_ZOOM + 1; z > level; z--) {
+            int[] parent = levels[z].parent;
+            for (int i = 0; i < n; i++) {
+                clusterOfMarker[i] = parent[clusterOfMarker[i]];
+            }
+        }
+
+        int[] counts = levels[level].count;
+        for (int i = 0; i < n; i++) {
+            markers.get(i).setClustered(counts[clusterOfMarker[i]] > 1);
+        }
+        return true;
+    }
+
+    public int getAppliedZoom() {
+        return appliedZoom;
+    }
+
+    Level getLevel(int zoom) {
+        return levels[zoom];
+    }
+
+    /**
+     * Markers belonging to a cluster of the currently applied zoom level.
+     */
+    public List<OpenAirMapMarker> getMarkersInCluster(int cluster) {
+        List<OpenAirMapMarker> result = new ArrayList<>();
+        for (int i = 0; i < clusterOfMarker.length; i++) {
+            if (clusterOfMarker[i] == cluster) {
+                result.add(markers.get(i));
+            }
+        }
+        return result;
+    }
+
+    private void build() {
+        int n = markers.size();
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            OpenAirMapMarker marker = markers.get(i);
+            xs[i] = MercatorProjection.x(marker.getLongitude());
+            ys[i] = MercatorProjection.y(marker.getLatitude());
+        }
+        Arrays.fill(levels, null);
+        levels[MAX_ZOOM + 1] = leaves(xs, ys);
+        lowestLevel = MAX_ZOOM + 1;
+        dirty = false;
+    }
+
+    /**
+     * Cluster hierarchy of points in normalized Mercator coordinates, indexed like levels, with
+     * every level built.
+     */
+    static Level[] buildLevels(double[] xs, double[] ys, double radiusPx) {
+        Level[] levels = new Level[MAX_ZOOM + 2];
+        levels[MAX_ZOOM + 1] = leaves(xs, ys);
+        for (int z = MAX_ZOOM; z >= 0; z--) {
+            levels[z] = cluster(levels[z + 1], radiusPx / MercatorProjection.worldSize(z));
+        }
+        return levels;
+    }
+
+    private static Level leaves(double[] xs, double[] ys) {
+        int n = xs.length;
+        Level leaves = new Level(n);
+        leaves.size = n;
+        System.arraycopy(xs, 0, leaves.x, 0, n);
+        System.arraycopy(ys, 0, leaves.y, 0, n);
+        Arrays.fill(leaves.count, 1);
+        return leaves;
+    }
+
+    private static Level cluster(Level source, double radius) {
+        int n = source.size;
+        Level result = new Level(n);
+        boolean[] assigned = new boolean[n];
+        double radiusSquared = radius * radius;
+
+        // bucket the source clusters into a grid of radius-sized cells, chained through next[]
+        CellTable heads = new CellTable(n);
+        int[] next = new int[n];
+        for (int i = 0; i < n; i++) {
+            long cell = cellKey((long) Math.floor(source.x[i] / radius), (long) Math.floor(source.y[i] / radius));
+            next[i] = heads.put(cell, i);
+        }
+
+        for (int i = 0; i < n; i++) {
+            if (assigned[i]) continue;
+            assigned[i] = true;
+
+            int c = result.size++;
+            int count = source.count[i];
+            double sumX = source.x[i] * count;
+            double sumY = source.y[i] * count;
+            source.parent[i] = c;
+
+            long cellX = (long) Math.floor(source.x[i] / radius);
+            long cellY = (long) Math.floor(source.y[i] / radius);
+            for (long dx = -1; dx <= 1; dx++) {
+                for (long dy = -1; dy <= 1; dy++) {
+                    for (int j = heads.get(cellKey(cellX + dx, cellY + dy)); j != -1; j = next[j]) {
+                        if (assigned[j]) continue;
+                        double ddx = source.x[j] - source.x[i];
+                        double ddy = source.y[j] - source.y[i];
+                        if (ddx * ddx + ddy * ddy <= radiusSquared) {
+                            assigned[j] = true;
+                            source.parent[j] = c;
+                            int weight = source.count[j];
+                            count += weight;
+                            sumX += source.x[j] * weight;
+                            sumY += source.y[j] * weight;
+                        }
+                    }
+                }
+            }
+
+            result.x[c] = sumX / count;
+            result.y[c] = sumY / count;
+            result.count[c] = count;
+        }
+        return result;
+    }
+
+    private static long cellKey(long x, long y) {
+        return (x << 32) ^ (y & 0xffffffffL);
+    }
+
+    // Open addressing map from cell keys to the first cluster in the cell, without boxing.
+    static class CellTable {
+        private final long[] keys;
+        private final int[] values;
+        private final int mask;
+
+        CellTable(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(2, expected) * 2 - 1) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            Arrays.fill(values, -1);
+            mask = capacity - 1;
+        }
+
+        /**
+         * Value of a key, or -1 when it is absent.
+         */
+        int get(long key) {
+            for (int slot = slot(key); values[slot] != -1; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) return values[slot];
+            }
+            return -1;
+        }
+
+        /**
+         * Sets the value of a key, which must not be -1, and returns the previous one or -1.
+         */
+        int put(long key, int value) {
+            int slot = slot(key);
+            while (values[slot] != -1) {
+                if (keys[slot] == key) {
+                    int previous = values[slot];
+                    values[slot] = value;
+                    return previous;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            return -1;
+        }
+
+        private int slot(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
@@ -1,12 +1,54 @@
 package com.airbnb.android.react.maps.open.marker;
 
 import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
 
+import com.airbnb.android.react.maps.open.Bounds;
 import com.airbnb.android.react.maps.open.OpenAirMapFeature;
+import com.airbnb.android.react.maps.open.OpenAirMapView;
+import com.facebook.react.bridge.ReadableMap;
 
+import org.osmdroid.util.GeoPoint;
 import org.osmdroid.views.MapView;
+import org.osmdroid.views.overlay.Marker;
 
-class OpenAirMapMarker extends OpenAirMapFeature {
+public class OpenAirMapMarker extends OpenAirMapFeature {
+    // markers are never attached to a window, so their own post() would not run on API 24+
+    private static final Handler uiHandler = new Handler(Looper.getMainLooper());
+
+    private Marker marker;
+    private MapView map;
+    private double latitude;
+    private double longitude;
+    private Bounds bounds;
+    private String identifier;
+    private String title;
+    private String snippet;
+    private float anchorX = 0.5f;
+    private float anchorY = 1.0f;
+    private float calloutAnchorX = 0.5f;
+    private float calloutAnchorY = 0.0f;
+    private float rotation = 0.0f;
+    private float opacity = 1.0f;
+    private boolean flat = false;
+    private boolean draggable = false;
+    private boolean outOfView = false;
+    private boolean clustered = false;
+    private String reuseIdentifier;
+    private boolean tracksViewChanges = true;
+    private boolean hasRenderedIcon = false;
+    private boolean renderPending = false;
+    private int iconWidth;
+    private int iconHeight;
+    private Drawable icon;
+    // bitmap of a marker tracking view changes, redrawn in place while the size stays the same
+    private Bitmap trackedBitmap;
 
     public OpenAirMapMarker(Context context) {
         super(context);
@@ -14,16 +56,336 @@ class OpenAirMapMarker extends OpenAirMapFeature {
 
     @Override
     public void addToMap(MapView map) {
-
+        this.map = map;
+        this.marker = createMarker(map);
+        map.getOverlayManager().add(marker);
+        map.invalidate();
     }
 
     @Override
     public void removeFromMap(MapView map) {
+        MarkerAnimator.getInstance().cancel(this);
+        if (marker != null) {
+            marker.closeInfoWindow();
+            map.getOverlayManager().remove(marker);
+            marker = null;
+        }
+        this.map = null;
+        map.invalidate();
+    }
+
+    private Marker createMarker(MapView map) {
+        Marker marker = new Marker(map);
+        marker.setPosition(new GeoPoint(latitude, longitude));
+        marker.setTitle(title);
+        marker.setSnippet(snippet);
+        marker.setAnchor(anchorX, anchorY);
+        marker.setInfoWindowAnchor(calloutAnchorX, calloutAnchorY);
+        marker.setRotation(rotation);
+        marker.setAlpha(opacity);
+        marker.setFlat(flat);
+        marker.setDraggable(draggable);
+        marker.setEnabled(!outOfView && !clustered);
+        marker.setRelatedObject(this);
+        if (icon != null) {
+            marker.setIcon(icon);
+        }
+        if (map instanceof Marker.OnMarkerDragListener) {
+            marker.setOnMarkerDragListener((Marker.OnMarkerDragListener) map);
+        }
+        marker.setOnMarkerClickListener(new Marker.OnMarkerClickListener() {
+            @Override
+            public boolean onMarkerClick(Marker marker, MapView mapView) {
+                onMarkerPress(marker, mapView);
+                return true;
+            }
+        });
+        return marker;
+    }
+
+    private void onMarkerPress(Marker marker, MapView mapView) {
+        if (!(mapView instanceof OpenAirMapView)) return;
+        OpenAirMapView view = (OpenAirMapView) mapView;
+        view.pushPointEvent(getId(), "onPress", marker.getPosition(), "marker-press", identifier, false);
+        view.pushPointEvent(view.getId(), "onMarkerPress", marker.getPosition(), "marker-press", identifier, false);
+
+        if (marker.getTitle() != null || marker.getSnippet() != null) {
+            marker.showInfoWindow();
+        }
+    }
+
+    public void setCoordinate(ReadableMap coordinate) {
+        MarkerAnimator.getInstance().cancel(this);
+        setPosition(coordinate.getDouble("latitude"), coordinate.getDouble("longitude"));
+    }
+
+    private void setPosition(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.bounds = new Bounds(latitude, longitude, latitude, longitude);
+        if (marker != null) {
+            marker.setPosition(new GeoPoint(latitude, longitude));
+            notifyBoundsChanged(map);
+            map.invalidate();
+        }
+    }
+
+    /**
+     * Moves the marker to a coordinate over the given duration, animated natively.
+     */
+    public void animateToCoordinate(ReadableMap coordinate, int durationMs) {
+        MarkerAnimator.getInstance().animate(this,
+                coordinate.getDouble("latitude"), coordinate.getDouble("longitude"), durationMs);
+    }
+
+    double getAnimatedLatitude() {
+        return marker != null ? marker.getPosition().getLatitude() : latitude;
+    }
+
+    double getAnimatedLongitude() {
+        return marker != null ? marker.getPosition().getLongitude() : longitude;
+    }
+
+    /**
+     * Indexes the marker over the whole way of an animation, so culling keeps it drawn while any
+     * part of the way is in view. finishAnimation indexes the final position again.
+     */
+    void startAnimation(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        double west = Math.min(fromLongitude, toLongitude);
+        double east = Math.max(fromLongitude, toLongitude);
+        if (west < -180 || east > 180) {
+            // the way crosses the antimeridian
+            west = -180;
+            east = 180;
+        }
+        this.bounds = new Bounds(Math.min(fromLatitude, toLatitude), west, Math.max(fromLatitude, toLatitude), east);
+        if (map != null) {
+            notifyBoundsChanged(map);
+        }
+    }
 
+    /**
+     * Moves the drawn marker without re-indexing it, returns the map to redraw.
+     */
+    MapView setAnimatedPosition(double latitude, double longitude) {
+        if (marker == null) return null;
+        marker.getPosition().setCoords(latitude, longitude);
+        return map;
+    }
+
+    void finishAnimation(double latitude, double longitude) {
+        setPosition(latitude, longitude);
+    }
+
+    /**
+     * Takes over the position the user dragged the marker to.
+     */
+    public void onDragEnd(GeoPoint position) {
+        MarkerAnimator.getInstance().cancel(this);
+        this.latitude = position.getLatitude();
+        this.longitude = position.getLongitude();
+        this.bounds = new Bounds(latitude, longitude, latitude, longitude);
+        if (map != null) {
+            notifyBoundsChanged(map);
+        }
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    public void setIdentifier(String identifier) {
+        this.identifier = identifier;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+        if (marker != null) {
+            marker.setTitle(title);
+        }
+    }
+
+    public void setSnippet(String snippet) {
+        this.snippet = snippet;
+        if (marker != null) {
+            marker.setSnippet(snippet);
+        }
+    }
+
+    public void setAnchor(double x, double y) {
+        this.anchorX = (float) x;
+        this.anchorY = (float) y;
+        if (marker != null) {
+            marker.setAnchor(anchorX, anchorY);
+        }
+    }
+
+    public void setCalloutAnchor(double x, double y) {
+        this.calloutAnchorX = (float) x;
+        this.calloutAnchorY = (float) y;
+        if (marker != null) {
+            marker.setInfoWindowAnchor(calloutAnchorX, calloutAnchorY);
+        }
+    }
+
+    public void setMarkerRotation(float rotation) {
+        this.rotation = rotation;
+        if (marker != null) {
+            marker.setRotation(rotation);
+        }
+    }
+
+    public void setOpacity(float opacity) {
+        this.opacity = opacity;
+        if (marker != null) {
+            marker.setAlpha(opacity);
+        }
+    }
+
+    public void setFlat(boolean flat) {
+        this.flat = flat;
+        if (marker != null) {
+            marker.setFlat(flat);
+        }
+    }
+
+    public void setDraggable(boolean draggable) {
+        this.draggable = draggable;
+        if (marker != null) {
+            marker.setDraggable(draggable);
+        }
+    }
+
+    public void setReuseIdentifier(String reuseIdentifier) {
+        this.reuseIdentifier = reuseIdentifier;
+        hasRenderedIcon = false;
+    }
+
+    public void setTracksViewChanges(boolean tracksViewChanges) {
+        this.tracksViewChanges = tracksViewChanges;
+        if (tracksViewChanges) {
+            scheduleIconRender();
+        }
+    }
+
+    /**
+     * Called with the laid out size of the marker once its React children are measured.
+     */
+    public void update(int width, int height) {
+        if (width != iconWidth || height != iconHeight) {
+            iconWidth = width;
+            iconHeight = height;
+            hasRenderedIcon = false;
+        }
+        scheduleIconRender();
+    }
+
+    void onChildrenChanged() {
+        if (tracksViewChanges) {
+            hasRenderedIcon = false;
+        }
+        scheduleIconRender();
+    }
+
+    // children get their layout in the same UI batch as the size update, so draw on the next pass
+    private void scheduleIconRender() {
+        if (renderPending) return;
+        renderPending = true;
+        uiHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                renderPending = false;
+                renderIcon();
+            }
+        });
+    }
+
+    private void renderIcon() {
+        if (getChildCount() == 0 || iconWidth <= 0 || iconHeight <= 0) return;
+        if (hasRenderedIcon && !tracksViewChanges) return;
+
+        String key = reuseIdentifier != null
+                ? MarkerBitmapCache.keyFor(reuseIdentifier, iconWidth, iconHeight) : null;
+        if (tracksViewChanges && icon != null && trackedBitmap != null
+                && trackedBitmap.getWidth() == iconWidth && trackedBitmap.getHeight() == iconHeight) {
+            trackedBitmap.eraseColor(Color.TRANSPARENT);
+            draw(new Canvas(trackedBitmap));
+            hasRenderedIcon = true;
+            if (marker != null) {
+                map.invalidate();
+            }
+            return;
+        }
+
+        Bitmap bitmap = null;
+        if (key != null && !tracksViewChanges) {
+            bitmap = MarkerBitmapCache.get(key);
+        }
+        if (bitmap == null) {
+            bitmap = Bitmap.createBitmap(iconWidth, iconHeight, Bitmap.Config.ARGB_8888);
+            draw(new Canvas(bitmap));
+            if (key != null && !tracksViewChanges) {
+                MarkerBitmapCache.put(key, bitmap);
+            }
+        }
+        // a shared bitmap must never be drawn over
+        trackedBitmap = tracksViewChanges ? bitmap : null;
+
+        hasRenderedIcon = true;
+        icon = new BitmapDrawable(getResources(), bitmap);
+        if (marker != null) {
+            marker.setIcon(icon);
+            map.invalidate();
+        }
+    }
+
+    public void showCallout() {
+        if (marker != null) {
+            marker.showInfoWindow();
+        }
+    }
+
+    public void hideCallout() {
+        if (marker != null) {
+            marker.closeInfoWindow();
+        }
+    }
+
+    /**
+     * Hides the marker while it is drawn as part of a cluster.
+     */
+    public void setClustered(boolean clustered) {
+        this.clustered = clustered;
+        updateEnabled();
+    }
+
+    @Override
+    public void setCulled(boolean culled) {
+        this.outOfView = culled;
+        updateEnabled();
+    }
+
+    private void updateEnabled() {
+        if (marker != null) {
+            marker.setEnabled(!outOfView && !clustered);
+        }
+    }
+
+    @Override
+    public Bounds getBounds() {
+        return bounds;
     }
 
     @Override
     public Object getFeature() {
-        return null;
+        return marker;
     }
 }
@@ -1,5 +1,7 @@
 package com.airbnb.android.react.maps.open.marker;
 
+import android.view.View;
+
 import com.airbnb.android.react.maps.open.SizeReportingShadowNode;
 import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
@@ -8,7 +10,6 @@ import com.facebook.react.uimanager.LayoutShadowNode;
 import com.facebook.react.uimanager.ThemedReactContext;
 import com.facebook.react.uimanager.ViewGroupManager;
 import com.facebook.react.uimanager.annotations.ReactProp;
-import com.google.android.gms.maps.model.Marker;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -19,6 +20,7 @@ public class OpenAirMapMarkerManager  extends ViewGroupManager<OpenAirMapMarker>
 
     private static final int SHOW_INFO_WINDOW = 1;
     private static final int HIDE_INFO_WINDOW = 2;
+    private static final int ANIMATE_MARKER_TO_COORDINATE = 3;
 
     public OpenAirMapMarkerManager() {
     }
@@ -33,16 +35,32 @@ public class OpenAirMapMarkerManager  extends ViewGroupManager<OpenAirMapMarker>
         return new OpenAirMapMarker(context);
     }
 
+    @ReactProp(name = "coordinate")
+    public void setCoordinate(OpenAirMapMarker view, ReadableMap map) {
+        view.setCoordinate(map);
+    }
+
+    @ReactProp(name = "title")
+    public void setTitle(OpenAirMapMarker view, String title) {
+        view.setTitle(title);
+    }
+
+    @ReactProp(name = "identifier")
+    public void setIdentifier(OpenAirMapMarker view, String identifier) {
+        view.setIdentifier(identifier);
+    }
+
+    @ReactProp(name = "description")
+    public void setDescription(OpenAirMapMarker view, String description) {
+        view.setSnippet(description);
+    }
+
     @ReactProp(name = "anchor")
     public void setAnchor(OpenAirMapMarker view, ReadableMap map) {
         // should default to (0.5, 1) (bottom middle)
         double x = map != null && map.hasKey("x") ? map.getDouble("x") : 0.5;
         double y = map != null && map.hasKey("y") ? map.getDouble("y") : 1.0;
-        float xFloat = (float)x;
-        float yFloat = (float)y;
-
-        view.setY(yFloat);
-        view.setX(xFloat);
+        view.setAnchor(x, y);
     }
 
     @ReactProp(name = "calloutAnchor")
@@ -50,21 +68,39 @@ public class OpenAirMapMarkerManager  extends ViewGroupManager<OpenAirMapMarker>
         // should default to (0.5, 0) (top middle)
         double x = map != null && map.hasKey("x") ? map.getDouble("x") : 0.5;
         double y = map != null && map.hasKey("y") ? map.getDouble("y") : 0.0;
-        float xFloat = (float)x;
-        float yFloat = (float)y;
-
-        view.setY(yFloat);
-        view.setX(xFloat);
+        view.setCalloutAnchor(x, y);
     }
 
     @ReactProp(name = "rotation", defaultFloat = 0.0f)
     public void setMarkerRotation(OpenAirMapMarker view, float rotation) {
-        view.setRotation(rotation);
+        view.setMarkerRotation(rotation);
+    }
+
+    @Override
+    @ReactProp(name = "opacity", defaultFloat = 1.0f)
+    public void setOpacity(OpenAirMapMarker view, float opacity) {
+        super.setOpacity(view, opacity);
+        view.setOpacity(opacity);
+    }
+
+    @ReactProp(name = "flat", defaultBoolean = false)
+    public void setFlat(OpenAirMapMarker view, boolean flat) {
+        view.setFlat(flat);
+    }
+
+    @ReactProp(name = "reuseIdentifier")
+    public void setReuseIdentifier(OpenAirMapMarker view, String reuseIdentifier) {
+        view.setReuseIdentifier(reuseIdentifier);
+    }
+
+    @ReactProp(name = "tracksViewChanges", defaultBoolean = true)
+    public void setTracksViewChanges(OpenAirMapMarker view, boolean tracksViewChanges) {
+        view.setTracksViewChanges(tracksViewChanges);
     }
 
     @ReactProp(name = "draggable", defaultBoolean = false)
     public void setDraggable(OpenAirMapMarker view, boolean draggable) {
-        view.setEnabled(draggable);
+        view.setDraggable(draggable);
     }
 
     @Override
@@ -72,7 +108,8 @@ public class OpenAirMapMarkerManager  extends ViewGroupManager<OpenAirMapMarker>
     public Map<String, Integer> getCommandsMap() {
         return MapBuilder.of(
                 "showCallout", SHOW_INFO_WINDOW,
-                "hideCallout", HIDE_INFO_WINDOW
+                "hideCallout", HIDE_INFO_WINDOW,
+                "animateMarkerToCoordinate", ANIMATE_MARKER_TO_COORDINATE
         );
     }
 
@@ -80,11 +117,15 @@ public class OpenAirMapMarkerManager  extends ViewGroupManager<OpenAirMapMarker>
     public void receiveCommand(OpenAirMapMarker view, int commandId, @Nullable ReadableArray args) {
         switch (commandId) {
             case SHOW_INFO_WINDOW:
-                ((Marker) view.getFeature()).showInfoWindow();
+                view.showCallout();
                 break;
 
             case HIDE_INFO_WINDOW:
-                ((Marker) view.getFeature()).hideInfoWindow();
+                view.hideCallout();
+                break;
+
+            case ANIMATE_MARKER_TO_COORDINATE:
+                view.animateToCoordinate(args.getMap(0), args.getInt(1));
                 break;
         }
     }
@@ -125,6 +166,18 @@ public class OpenAirMapMarkerManager  extends ViewGroupManager<OpenAirMapMarker>
         float width = data.get("width");
         float height = data.get("height");
 
-//        view.update((int) width, (int) height);
+        view.update((int) width, (int) height);
+    }
+
+    @Override
+    public void addView(OpenAirMapMarker parent, View child, int index) {
+        super.addView(parent, child, index);
+        parent.onChildrenChanged();
+    }
+
+    @Override
+    public void removeViewAt(OpenAirMapMarker parent, int index) {
+        super.removeViewAt(parent, index);
+        parent.onChildrenChanged();
     }
 }
@@ -2,23 +2,23 @@ package com.airbnb.android.react.maps.open.polyline;
 
 import android.content.Context;
 
+import com.airbnb.android.react.maps.open.Bounds;
 import com.airbnb.android.react.maps.open.OpenAirMapFeature;
+import com.airbnb.android.react.maps.open.PackedCoordinates;
 import com.facebook.react.bridge.ReadableArray;
-import com.facebook.react.bridge.ReadableMap;
 
-import org.osmdroid.util.GeoPoint;
 import org.osmdroid.views.MapView;
-import org.osmdroid.views.overlay.Polyline;
-
-import java.util.ArrayList;
-import java.util.List;
 
 public class OpenAirMapPolyline extends OpenAirMapFeature {
-    private Polyline polyline;
+    private SimplifiedPolyline polyline;
     private MapView map;
-    private List<GeoPoint> coordinates = new ArrayList<>();
+    private double[] coordinates = new double[0];
+    private Bounds bounds;
     private int color;
+    private int[] colors;
     private float width;
+    private float[] dashPattern;
+    private float dashPhase;
     private boolean geodesic;
     private float zIndex;
 
@@ -29,22 +29,43 @@ public class OpenAirMapPolyline extends OpenAirMapFeature {
     @Override
     public void addToMap(MapView map) {
         this.map = map;
+        this.polyline = createPolyline();
+        map.getOverlayManager().add(polyline);
+        map.invalidate();
     }
 
     @Override
     public void removeFromMap(MapView map) {
+        if (polyline != null) {
+            map.getOverlayManager().remove(polyline);
+            polyline = null;
+        }
+        this.map = null;
+        map.invalidate();
+    }
 
+    private SimplifiedPolyline createPolyline() {
+        SimplifiedPolyline line = new SimplifiedPolyline();
+        line.setColor(color);
+        line.setColors(colors);
+        line.setWidth(width);
+        line.setDashPattern(dashPattern, dashPhase);
+        line.setGeodesic(geodesic);
+        line.setCoordinates(coordinates);
+        return line;
     }
 
     public void setCoordinates(ReadableArray coordinates) {
-        this.coordinates = new ArrayList<>(coordinates.size());
-        for (int i = 0; i < coordinates.size(); i++) {
-            ReadableMap coordinate = coordinates.getMap(i);
-            this.coordinates.add(i,
-                    new GeoPoint(coordinate.getDouble("latitude"), coordinate.getDouble("longitude")));
-        }
+        setCoordinates(PackedCoordinates.fromCoordinateArray(coordinates));
+    }
+
+    public void setCoordinates(double[] latLngs) {
+        this.coordinates = latLngs;
+        this.bounds = Bounds.fromLatLngs(latLngs);
         if (polyline != null) {
-            polyline.setPoints(this.coordinates);
+            polyline.setCoordinates(latLngs);
+            notifyBoundsChanged(map);
+            map.invalidate();
         }
     }
 
@@ -55,6 +76,34 @@ public class OpenAirMapPolyline extends OpenAirMapFeature {
         }
     }
 
+    /**
+     * Per vertex colors, each segment is drawn in the color of its first vertex.
+     */
+    public void setColors(int[] colors) {
+        this.colors = colors;
+        if (polyline != null) {
+            polyline.setColors(colors);
+            map.invalidate();
+        }
+    }
+
+    public void setDashPattern(float[] dashPattern, float dashPhase) {
+        this.dashPattern = dashPattern;
+        this.dashPhase = dashPhase;
+        if (polyline != null) {
+            polyline.setDashPattern(dashPattern, dashPhase);
+            map.invalidate();
+        }
+    }
+
+    public float[] getDashPattern() {
+        return dashPattern;
+    }
+
+    public float getDashPhase() {
+        return dashPhase;
+    }
+
     public void setWidth(float width) {
         this.width = width;
         if (polyline != null) {
@@ -69,6 +118,18 @@ public class OpenAirMapPolyline extends OpenAirMapFeature {
         }
     }
 
+    @Override
+    public Bounds getBounds() {
+        return bounds;
+    }
+
+    @Override
+    public void setCulled(boolean culled) {
+        if (polyline != null) {
+            polyline.setEnabled(!culled);
+        }
+    }
+
     @Override
     public Object getFeature() {
         return polyline;
@@ -6,6 +6,7 @@ import android.os.Build;
 import android.util.DisplayMetrics;
 import android.view.WindowManager;
 
+import com.airbnb.android.react.maps.open.PackedCoordinates;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.common.MapBuilder;
@@ -47,6 +48,20 @@ public class    OpenAirMapPolylineManager extends ViewGroupManager<OpenAirMapPol
         view.setCoordinates(coordinates);
     }
 
+    @ReactProp(name = "packedCoordinates")
+    public void setPackedCoordinates(OpenAirMapPolyline view, @Nullable ReadableArray coordinates) {
+        if (coordinates != null) {
+            view.setCoordinates(PackedCoordinates.fromFlatArray(coordinates));
+        }
+    }
+
+    @ReactProp(name = "encodedCoordinates")
+    public void setEncodedCoordinates(OpenAirMapPolyline view, @Nullable String coordinates) {
+        if (coordinates != null) {
+            view.setCoordinates(PackedCoordinates.fromEncodedPolyline(coordinates));
+        }
+    }
+
     @ReactProp(name = "strokeWidth", defaultFloat = 1f)
     public void setStrokeWidth(OpenAirMapPolyline view, float widthInPoints) {
         float widthInScreenPx = metrics.density * widthInPoints; // done for parity with iOS
@@ -58,6 +73,36 @@ public class    OpenAirMapPolylineManager extends ViewGroupManager<OpenAirMapPol
         view.setColor(color);
     }
 
+    @ReactProp(name = "strokeColors")
+    public void setStrokeColors(OpenAirMapPolyline view, @Nullable ReadableArray colors) {
+        if (colors == null) {
+            view.setColors(null);
+            return;
+        }
+        int[] values = new int[colors.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = colors.isNull(i) ? Color.TRANSPARENT : colors.getInt(i);
+        }
+        view.setColors(values);
+    }
+
+    @ReactProp(name = "lineDashPattern")
+    public void setLineDashPattern(OpenAirMapPolyline view, @Nullable ReadableArray pattern) {
+        float[] intervals = null;
+        if (pattern != null) {
+            intervals = new float[pattern.size()];
+            for (int i = 0; i < intervals.length; i++) {
+                intervals[i] = metrics.density * (float) pattern.getDouble(i);
+            }
+        }
+        view.setDashPattern(intervals, view.getDashPhase());
+    }
+
+    @ReactProp(name = "lineDashPhase", defaultFloat = 0f)
+    public void setLineDashPhase(OpenAirMapPolyline view, float phaseInPoints) {
+        view.setDashPattern(view.getDashPattern(), metrics.density * phaseInPoints);
+    }
+
     @ReactProp(name = "geodesic", defaultBoolean = false)
     public void setGeodesic(OpenAirMapPolyline view, boolean geodesic) {
         view.setGeodesic(geodesic);
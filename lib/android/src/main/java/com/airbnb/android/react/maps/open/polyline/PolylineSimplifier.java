@@ -0,0 +1,150 @@
+package com.airbnb.android.react.maps.open.polyline;
+
+import com.airbnb.android.react.maps.open.MercatorProjection;
+
+// Douglas-Peucker simplification computed once for every zoom level.
+//
+// Instead of running the algorithm per zoom, each vertex is assigned the tolerance at which
+// Douglas-Peucker would drop it (its "importance", in normalized mercator units). Importance
+// is clamped to its parent's so the kept set at any tolerance is exactly the Douglas-Peucker
+// result. The vertex level for a zoom is then a single filter pass, cached per zoom.
+public class PolylineSimplifier {
+    public static final int MAX_ZOOM = 22;
+    // vertices that move the line by less than this many pixels are not drawn
+    private static final double TOLERANCE_PX = 0.75;
+
+    private final int count;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] importance;
+    private final int[][] levels = new int[MAX_ZOOM + 1][];
+
+    public PolylineSimplifier(double[] latLngs) {
+        this.count = latLngs.length / 2;
+        this.xs = new double[count];
+        this.ys = new double[count];
+        this.importance = new double[count];
+        for (int i = 0; i < count; i++) {
+            ys[i] = MercatorProjection.y(latLngs[2 * i]);
+            xs[i] = MercatorProjection.x(latLngs[2 * i + 1]);
+        }
+        computeImportance();
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Normalized Mercator x of a vertex.
+     */
+    public double getX(int i) {
+        return xs[i];
+    }
+
+    /**
+     * Normalized Mercator y of a vertex.
+     */
+    public double getY(int i) {
+        return ys[i];
+    }
+
+    /**
+     * Indices of the vertices worth drawing at the given zoom level, in order.
+     */
+    public int[] indicesForZoom(int zoom) {
+        int level = Math.max(0, Math.min(MAX_ZOOM, zoom));
+        int[] indices = levels[level];
+        if (indices != null) {
+            return indices;
+        }
+
+        double tolerance = TOLERANCE_PX / MercatorProjection.worldSize(level);
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (importance[i] > tolerance) kept++;
+        }
+        indices = new int[kept];
+        int j = 0;
+        for (int i = 0; i < count; i++) {
+            if (importance[i] > tolerance) indices[j++] = i;
+        }
+        levels[level] = indices;
+        return indices;
+    }
+
+    private void computeImportance() {
+        if (count == 0) return;
+        importance[0] = Double.POSITIVE_INFINITY;
+        importance[count - 1] = Double.POSITIVE_INFINITY;
+        if (count < 3) return;
+
+        // explicit stack, long routes would overflow the call stack when recursing
+        int[] ranges = new int[64];
+        double[] parents = new double[32];
+        ranges[0] = 0;
+        ranges[1] = count - 1;
+        parents[0] = Double.POSITIVE_INFINITY;
+        int top = 1;
+
+        while (top > 0) {
+            top--;
+            int first = ranges[2 * top];
+            int last = ranges[2 * top + 1];
+            double parent = parents[top];
+            if (last - first < 2) continue;
+
+            int split = -1;
+            double maxDistance = -1;
+            for (int i = first + 1; i < last; i++) {
+                double d = segmentDistanceSquared(i, first, last);
+                if (d > maxDistance) {
+                    maxDistance = d;
+                    split = i;
+                }
+            }
+
+            double value = Math.min(Math.sqrt(maxDistance), parent);
+            importance[split] = value;
+
+            if (2 * (top + 2) > ranges.length) {
+                int[] grownRanges = new int[ranges.length * 2];
+                System.arraycopy(ranges, 0, grownRanges, 0, ranges.length);
+                ranges = grownRanges;
+                double[] grownParents = new double[parents.length * 2];
+                System.arraycopy(parents, 0, grownParents, 0, parents.length);
+                parents = grownParents;
+            }
+            ranges[2 * top] = first;
+            ranges[2 * top + 1] = split;
+            parents[top] = value;
+            top++;
+            ranges[2 * top] = split;
+            ranges[2 * top + 1] = last;
+            parents[top] = value;
+            top++;
+        }
+    }
+
+    private double segmentDistanceSquared(int p, int a, int b) {
+        double x = xs[a];
+        double y = ys[a];
+        double dx = xs[b] - x;
+        double dy = ys[b] - y;
+
+        if (dx != 0 || dy != 0) {
+            double t = ((xs[p] - x) * dx + (ys[p] - y) * dy) / (dx * dx + dy * dy);
+            if (t > 1) {
+                x = xs[b];
+                y = ys[b];
+            } else if (t > 0) {
+                x += dx * t;
+                y += dy * t;
+            }
+        }
+
+        dx = xs[p] - x;
+        dy = ys[p] - y;
+        return dx * dx + dy * dy;
+    }
+}
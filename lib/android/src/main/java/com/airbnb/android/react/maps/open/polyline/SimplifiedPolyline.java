@@ -0,0 +1,427 @@
+package com.airbnb.android.react.maps.open.polyline;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.DashPathEffect;
+import android.graphics.Paint;
+import android.graphics.Path;
+
+import com.airbnb.android.react.maps.open.MercatorViewport;
+
+import org.osmdroid.views.MapView;
+import org.osmdroid.views.overlay.Overlay;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Polyline overlay over vertices projected to normalized Mercator once, when they are set, so
+// drawing a frame only scales and translates the vertices that matter at the zoom level being
+// drawn instead of projecting every GeoPoint through osmdroid's Projection. Geodesic lines are
+// interpolated along great circles before they are projected.
+//
+// The pixels of the line are cached per zoom level relative to its north-west corner, as a
+// segment buffer for drawLines, or as Paths for dashed lines and for translucent lines whose
+// overlapping segment ends would show. Panning then only translates the canvas; the cache is
+// rebuilt when the zoom level changes.
+//
+// With per vertex colors every segment takes the color of its first vertex. Segments are
+// grouped by color once per zoom level, so a frame changes the paint once per distinct color
+// rather than once per segment.
+public class SimplifiedPolyline extends Overlay {
+    // osmdroid's spacing of interpolated geodesic points
+    private static final double GEODESIC_STEP_METERS = 100000;
+    private static final double EARTH_RADIUS_METERS = 6378137;
+    // extent in pixels up to which cached floats stay well below a pixel of error, larger lines
+    // are projected every frame
+    private static final double MAX_CACHED_EXTENT = 1 << 22;
+
+    private final MercatorViewport viewport = new MercatorViewport();
+    private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private double[] latLngs = new double[0];
+    private int[] colors;
+    private boolean geodesic = false;
+    private boolean dashed = false;
+    private PolylineSimplifier simplifier;
+    // colors of the simplifier's vertices, or null for a single color line
+    private int[] vertexColors;
+    private double minX;
+    private double minY;
+    private double maxX;
+    private double maxY;
+
+    // segments of the current zoom level in drawing order, by index of their first vertex in
+    // the level, and the start of each run of one color within that order; order is null for
+    // a single color line, drawn in its natural order
+    private int[] levelIndices = new int[0];
+    private int[] order;
+    private int[] runStarts = new int[]{0};
+    private int[] runColors;
+    private boolean runsTranslucent = false;
+    private int runsZoom = -1;
+
+    private float[] segments = new float[0];
+    // world size the cached pixels were built at, it changes with the zoom and the tile size
+    private double segmentsScale = -1;
+    private final List<Path> paths = new ArrayList<>();
+    private double pathsScale = -1;
+
+    public SimplifiedPolyline() {
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setStrokeJoin(Paint.Join.ROUND);
+        paint.setStrokeCap(Paint.Cap.ROUND);
+        paint.setColor(Color.BLACK);
+        paint.setStrokeWidth(10.0f);
+    }
+
+    public void setCoordinates(double[] latLngs) {
+        this.latLngs = latLngs;
+        project();
+    }
+
+    public void setGeodesic(boolean geodesic) {
+        if (this.geodesic == geodesic) return;
+        this.geodesic = geodesic;
+        project();
+    }
+
+    public void setColor(int color) {
+        paint.setColor(color);
+    }
+
+    /**
+     * Per vertex colors, or null to draw the whole line in its color. Ignored unless there is
+     * one color per vertex.
+     */
+    public void setColors(int[] colors) {
+        this.colors = colors;
+        updateVertexColors();
+    }
+
+    public void setWidth(float width) {
+        paint.setStrokeWidth(width);
+    }
+
+    /**
+     * Dash and gap lengths in pixels, alternating, or null for a solid line. An odd number of
+     * lengths is repeated to make an even one.
+     */
+    public void setDashPattern(float[] intervals, float phase) {
+        boolean solid = intervals == null || intervals.length == 0;
+        if (!solid) {
+            float total = 0;
+            for (float interval : intervals) {
+                total += interval;
+            }
+            solid = total <= 0;
+        }
+        if (solid) {
+            paint.setPathEffect(null);
+            dashed = false;
+            return;
+        }
+        if (intervals.length % 2 == 1) {
+            float[] doubled = Arrays.copyOf(intervals, intervals.length * 2);
+            System.arraycopy(intervals, 0, doubled, intervals.length, intervals.length);
+            intervals = doubled;
+        }
+        paint.setPathEffect(new DashPathEffect(intervals, phase));
+        dashed = true;
+    }
+
+    private void project() {
+        simplifier = new PolylineSimplifier(geodesic ? greatCircle(latLngs) : latLngs);
+        int count = simplifier.getCount();
+        minX = Double.POSITIVE_INFINITY;
+        minY = Double.POSITIVE_INFINITY;
+        maxX = Double.NEGATIVE_INFINITY;
+        maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            double x = simplifier.getX(i);
+            double y = simplifier.getY(i);
+            if (x < minX) minX = x;
+            if (x > maxX) maxX = x;
+            if (y < minY) minY = y;
+            if (y > maxY) maxY = y;
+        }
+        updateVertexColors();
+    }
+
+    private void updateVertexColors() {
+        if (colors == null || colors.length != latLngs.length / 2) {
+            vertexColors = null;
+        } else {
+            vertexColors = geodesic ? greatCircleColors(latLngs, colors) : colors;
+        }
+        runsZoom = -1;
+        segmentsScale = -1;
+        pathsScale = -1;
+    }
+
+    @Override
+    public void draw(Canvas canvas, MapView mapView, boolean shadow) {
+        if (shadow || simplifier == null || simplifier.getCount() < 2) return;
+        viewport.update(mapView);
+
+        double shift = viewport.wrapShift((minX + maxX) / 2);
+        float margin = paint.getStrokeWidth();
+        if (!viewport.intersects(viewport.screenX(minX + shift), viewport.screenY(minY),
+                viewport.screenX(maxX + shift), viewport.screenY(maxY), margin)) {
+            return;
+        }
+
+        int zoom = viewport.getZoom();
+        double scale = viewport.getScale();
+        if (runsZoom != zoom) {
+            buildRuns(zoom);
+        }
+        if (Math.max(maxX - minX, maxY - minY) * scale > MAX_CACHED_EXTENT) {
+            pathsScale = -1;
+            buildPaths(viewport.screenX(shift), viewport.getOffsetY(), scale);
+            drawPaths(canvas);
+            return;
+        }
+
+        canvas.save();
+        canvas.translate((float) viewport.screenX(minX + shift), (float) viewport.screenY(minY));
+        if (dashed || isTranslucent()) {
+            if (pathsScale != scale) {
+                buildPaths(-minX * scale, -minY * scale, scale);
+                pathsScale = scale;
+            }
+            drawPaths(canvas);
+        } else {
+            if (segmentsScale != scale) {
+                buildSegments(scale);
+                segmentsScale = scale;
+            }
+            drawSegments(canvas);
+        }
+        canvas.restore();
+    }
+
+    private boolean isTranslucent() {
+        return runColors == null ? Color.alpha(paint.getColor()) != 255 : runsTranslucent;
+    }
+
+    private void buildRuns(int zoom) {
+        levelIndices = simplifier.indicesForZoom(zoom);
+        int count = Math.max(0, levelIndices.length - 1);
+        runsZoom = zoom;
+        if (vertexColors == null) {
+            order = null;
+            runStarts = new int[]{0, count};
+            runColors = null;
+            return;
+        }
+        ColorRuns runs = ColorRuns.group(vertexColors, levelIndices);
+        order = runs.order;
+        runStarts = runs.starts;
+        runColors = runs.colors;
+        runsTranslucent = false;
+        for (int color : runColors) {
+            runsTranslucent |= Color.alpha(color) != 255;
+        }
+    }
+
+    // Segments of a zoom level grouped by the color of their first vertex.
+    static final class ColorRuns {
+        // segments in drawing order, by index of their first vertex in the level
+        final int[] order;
+        // start of each run of one color within order, and the end of the last one
+        final int[] starts;
+        final int[] colors;
+
+        private ColorRuns(int[] order, int[] starts, int[] colors) {
+            this.order = order;
+            this.starts = starts;
+            this.colors = colors;
+        }
+
+        /**
+         * Groups the segments between the level's vertices. Color in the high bits and segment
+         * in the low bits, so one primitive sort groups them and keeps their order within a
+         * color.
+         */
+        static ColorRuns group(int[] vertexColors, int[] levelIndices) {
+            int count = Math.max(0, levelIndices.length - 1);
+            long[] keys = new long[count];
+            for (int k = 0; k < count; k++) {
+                keys[k] = ((long) vertexColors[levelIndices[k]] << 32) | k;
+            }
+            Arrays.sort(keys);
+            int[] order = new int[count];
+            int runs = 0;
+            for (int k = 0; k < count; k++) {
+                order[k] = (int) keys[k];
+                if (k == 0 || (int) (keys[k] >> 32) != (int) (keys[k - 1] >> 32)) runs++;
+            }
+            int[] starts = new int[runs + 1];
+            int[] colors = new int[runs];
+            int run = -1;
+            for (int k = 0; k < count; k++) {
+                int color = (int) (keys[k] >> 32);
+                if (run < 0 || color != colors[run]) {
+                    run++;
+                    starts[run] = k;
+                    colors[run] = color;
+                }
+            }
+            starts[runs] = count;
+            return new ColorRuns(order, starts, colors);
+        }
+    }
+
+    private int segmentAt(int k) {
+        return order == null ? k : order[k];
+    }
+
+    /**
+     * Fills the segment buffer with the current level, relative to the north-west corner.
+     */
+    private void buildSegments(double scale) {
+        int count = runStarts[runStarts.length - 1];
+        if (segments.length < 4 * count || segments.length > 8 * count) {
+            segments = new float[4 * count];
+        }
+        for (int k = 0; k < count; k++) {
+            int segment = segmentAt(k);
+            int from = levelIndices[segment];
+            int to = levelIndices[segment + 1];
+            segments[4 * k] = (float) ((simplifier.getX(from) - minX) * scale);
+            segments[4 * k + 1] = (float) ((simplifier.getY(from) - minY) * scale);
+            segments[4 * k + 2] = (float) ((simplifier.getX(to) - minX) * scale);
+            segments[4 * k + 3] = (float) ((simplifier.getY(to) - minY) * scale);
+        }
+    }
+
+    /**
+     * Sets one path per color run to the current level, at x * scale + offsetX and
+     * y * scale + offsetY. Consecutive segments of a run are joined into one sub-path.
+     */
+    private void buildPaths(double offsetX, double offsetY, double scale) {
+        int runs = runStarts.length - 1;
+        while (paths.size() < runs) {
+            paths.add(new Path());
+        }
+        for (int run = 0; run < runs; run++) {
+            Path path = paths.get(run);
+            path.rewind();
+            int previous = -2;
+            for (int k = runStarts[run]; k < runStarts[run + 1]; k++) {
+                int segment = segmentAt(k);
+                if (segment != previous + 1) {
+                    int from = levelIndices[segment];
+                    path.moveTo((float) (simplifier.getX(from) * scale + offsetX),
+                            (float) (simplifier.getY(from) * scale + offsetY));
+                }
+                int to = levelIndices[segment + 1];
+                path.lineTo((float) (simplifier.getX(to) * scale + offsetX),
+                        (float) (simplifier.getY(to) * scale + offsetY));
+                previous = segment;
+            }
+        }
+    }
+
+    private void drawSegments(Canvas canvas) {
+        int color = paint.getColor();
+        for (int run = 0; run < runStarts.length - 1; run++) {
+            int count = runStarts[run + 1] - runStarts[run];
+            if (count == 0) continue;
+            if (runColors != null) paint.setColor(runColors[run]);
+            canvas.drawLines(segments, 4 * runStarts[run], 4 * count, paint);
+        }
+        paint.setColor(color);
+    }
+
+    private void drawPaths(Canvas canvas) {
+        int color = paint.getColor();
+        for (int run = 0; run < runStarts.length - 1; run++) {
+            if (runColors != null) paint.setColor(runColors[run]);
+            canvas.drawPath(paths.get(run), paint);
+        }
+        paint.setColor(color);
+    }
+
+    /**
+     * The line with points inserted along the great circle between its vertices, every
+     * GEODESIC_STEP_METERS.
+     */
+    static double[] greatCircle(double[] latLngs) {
+        int count = latLngs.length / 2;
+        if (count < 2) return latLngs;
+
+        int total = count;
+        for (int i = 0; i + 1 < count; i++) {
+            total += stepsBetween(latLngs, i) - 1;
+        }
+        double[] result = new double[2 * total];
+        int j = 0;
+        for (int i = 0; i + 1 < count; i++) {
+            double lat1 = Math.toRadians(latLngs[2 * i]);
+            double lng1 = Math.toRadians(latLngs[2 * i + 1]);
+            double lat2 = Math.toRadians(latLngs[2 * i + 2]);
+            double lng2 = Math.toRadians(latLngs[2 * i + 3]);
+            double angle = centralAngle(lat1, lng1, lat2, lng2);
+            int steps = stepsBetween(latLngs, i);
+            result[j++] = latLngs[2 * i];
+            result[j++] = latLngs[2 * i + 1];
+            for (int s = 1; s < steps; s++) {
+                // spherical linear interpolation between the two end points
+                double f = s / (double) steps;
+                double a = Math.sin((1 - f) * angle) / Math.sin(angle);
+                double b = Math.sin(f * angle) / Math.sin(angle);
+                double x = a * Math.cos(lat1) * Math.cos(lng1) + b * Math.cos(lat2) * Math.cos(lng2);
+                double y = a * Math.cos(lat1) * Math.sin(lng1) + b * Math.cos(lat2) * Math.sin(lng2);
+                double z = a * Math.sin(lat1) + b * Math.sin(lat2);
+                double longitude = Math.toDegrees(Math.atan2(y, x));
+                // keep the line continuous across the antimeridian, like the input does
+                double previous = result[j - 1];
+                longitude += 360 * Math.rint((previous - longitude) / 360);
+                result[j++] = Math.toDegrees(Math.atan2(z, Math.sqrt(x * x + y * y)));
+                result[j++] = longitude;
+            }
+        }
+        result[j++] = latLngs[2 * count - 2];
+        result[j] = latLngs[2 * count - 1];
+        return result;
+    }
+
+    /**
+     * Per vertex colors of the line returned by greatCircle, interpolated points taking the
+     * color of the vertex they follow.
+     */
+    static int[] greatCircleColors(double[] latLngs, int[] colors) {
+        int count = colors.length;
+        if (count < 2) return colors;
+
+        int total = count;
+        for (int i = 0; i + 1 < count; i++) {
+            total += stepsBetween(latLngs, i) - 1;
+        }
+        int[] result = new int[total];
+        int j = 0;
+        for (int i = 0; i + 1 < count; i++) {
+            int steps = stepsBetween(latLngs, i);
+            for (int s = 0; s < steps; s++) {
+                result[j++] = colors[i];
+            }
+        }
+        result[j] = colors[count - 1];
+        return result;
+    }
+
+    private static int stepsBetween(double[] latLngs, int i) {
+        double angle = centralAngle(
+                Math.toRadians(latLngs[2 * i]), Math.toRadians(latLngs[2 * i + 1]),
+                Math.toRadians(latLngs[2 * i + 2]), Math.toRadians(latLngs[2 * i + 3]));
+        return Math.max(1, (int) (angle * EARTH_RADIUS_METERS / GEODESIC_STEP_METERS));
+    }
+
+    private static double centralAngle(double lat1, double lng1, double lat2, double lng2) {
+        double sinLat = Math.sin((lat2 - lat1) / 2);
+        double sinLng = Math.sin((lng2 - lng1) / 2);
+        return 2 * Math.asin(Math.min(1, Math.sqrt(sinLat * sinLat
+                + Math.cos(lat1) * Math.cos(lat2) * sinLng * sinLng)));
+    }
+}
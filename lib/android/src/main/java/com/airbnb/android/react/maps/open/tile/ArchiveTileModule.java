@@ -0,0 +1,108 @@
+package com.airbnb.android.react.maps.open.tile;
+
+import android.graphics.drawable.Drawable;
+import android.util.Log;
+import android.util.LruCache;
+
+import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.tileprovider.MapTileRequestState;
+import org.osmdroid.tileprovider.modules.MapTileModuleProviderBase;
+import org.osmdroid.tileprovider.tilesource.BitmapTileSourceBase;
+import org.osmdroid.tileprovider.tilesource.ITileSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+// Tile provider module serving tiles from a local TileArchive. Encoded tiles that were read
+// recently are kept in a byte-bounded LRU in front of the archive, so panning back over an area
+// decodes from memory without touching the disk.
+public class ArchiveTileModule extends MapTileModuleProviderBase {
+    private static final String TAG = "ArchiveTileModule";
+    private static final int THREADS = 4;
+    private static final int PENDING_QUEUE_SIZE = 40;
+
+    private final TileArchive archive;
+    private final BitmapTileSourceBase tileSource;
+    private final LruCache<Long, byte[]> hotTiles;
+
+    public ArchiveTileModule(TileArchive archive, BitmapTileSourceBase tileSource, int hotCacheBytes) {
+        super(THREADS, PENDING_QUEUE_SIZE);
+        this.archive = archive;
+        this.tileSource = tileSource;
+        this.hotTiles = new LruCache<Long, byte[]>(Math.max(1, hotCacheBytes)) {
+            @Override
+            protected int sizeOf(Long key, byte[] value) {
+                return value.length;
+            }
+        };
+    }
+
+    private static long keyFor(MapTile tile) {
+        return ((long) tile.getZoomLevel() << 58) | ((long) tile.getX() << 29) | tile.getY();
+    }
+
+    @Override
+    protected String getName() {
+        return "Tile archive";
+    }
+
+    @Override
+    protected String getThreadGroupName() {
+        return "tilearchive";
+    }
+
+    @Override
+    protected Runnable getTileLoader() {
+        return new TileLoader();
+    }
+
+    @Override
+    public boolean getUsesDataConnection() {
+        return false;
+    }
+
+    @Override
+    public int getMinimumZoomLevel() {
+        return archive.getMinZoom();
+    }
+
+    @Override
+    public int getMaximumZoomLevel() {
+        return archive.getMaxZoom();
+    }
+
+    @Override
+    public void setTileSource(ITileSource tileSource) {
+        // the archive defines its own tile source
+    }
+
+    @Override
+    public void detach() {
+        super.detach();
+        hotTiles.evictAll();
+    }
+
+    protected class TileLoader extends MapTileModuleProviderBase.TileLoader {
+        @Override
+        public Drawable loadTile(MapTileRequestState state) throws CantContinueException {
+            MapTile tile = state.getMapTile();
+            long key = keyFor(tile);
+            byte[] data = hotTiles.get(key);
+            if (data == null) {
+                try {
+                    data = archive.readTile(tile.getZoomLevel(), tile.getX(), tile.getY());
+                } catch (IOException e) {
+                    Log.w(TAG, "Failed to read " + tile + " from " + archive.getName(), e);
+                    return null;
+                }
+                if (data == null) return null;
+                hotTiles.put(key, data);
+            }
+            try {
+                return tileSource.getDrawable(new ByteArrayInputStream(data));
+            } catch (BitmapTileSourceBase.LowMemoryException e) {
+                throw new CantContinueException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.airbnb.android.react.maps.open.tile;
+
+import android.content.Context;
+
+import com.airbnb.android.react.maps.open.MercatorProjection;
+
+import org.osmdroid.tileprovider.MapTileProviderArray;
+import org.osmdroid.tileprovider.modules.MapTileModuleProviderBase;
+import org.osmdroid.tileprovider.tilesource.XYTileSource;
+import org.osmdroid.tileprovider.util.SimpleRegisterReceiver;
+
+// Tile provider for offline maps, reading every tile from a local archive and never from the
+// network. The archive is closed when the provider is detached from its map.
+public class ArchiveTileProvider extends MapTileProviderArray {
+    private final TileArchive archive;
+
+    public ArchiveTileProvider(Context context, TileArchive archive, int hotCacheBytes) {
+        super(new XYTileSource(archive.getName(), archive.getMinZoom(), archive.getMaxZoom(),
+                MercatorProjection.TILE_SIZE, "", new String[0]),
+                new SimpleRegisterReceiver(context), new MapTileModuleProviderBase[0]);
+        this.archive = archive;
+
+        mTileProviderList.add(new ArchiveTileModule(archive, (XYTileSource) getTileSource(), hotCacheBytes));
+    }
+
+    @Override
+    public void detach() {
+        super.detach();
+        archive.close();
+    }
+}
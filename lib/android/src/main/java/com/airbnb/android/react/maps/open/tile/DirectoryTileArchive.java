@@ -0,0 +1,73 @@
+package com.airbnb.android.react.maps.open.tile;
+
+import com.airbnb.android.react.maps.open.OpenAirMapModule;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Tiles stored as <path>/<z>/<x>/<y><extension>, as written by most tile download tools.
+class DirectoryTileArchive implements TileArchive {
+    private final File root;
+    private final String extension;
+    private final int minZoom;
+    private final int maxZoom;
+    private final boolean tms;
+
+    DirectoryTileArchive(TileArchiveConfig config) throws FileNotFoundException {
+        this.root = new File(config.path);
+        if (!root.isDirectory()) {
+            throw new FileNotFoundException(config.path + " is not a directory");
+        }
+        this.extension = config.extension;
+        this.minZoom = config.minZoom;
+        this.maxZoom = config.maxZoom;
+        this.tms = config.tms;
+    }
+
+    @Override
+    public String getName() {
+        return "directory:" + root.getPath();
+    }
+
+    @Override
+    public int getMinZoom() {
+        return minZoom;
+    }
+
+    @Override
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    @Override
+    public byte[] readTile(int zoom, int x, int y) throws IOException {
+        int row = tms ? (1 << zoom) - 1 - y : y;
+        File file = new File(root, zoom + File.separator + x + File.separator + row + extension);
+        long length = file.length();
+        if (length == 0 || length > Integer.MAX_VALUE) return null;
+
+        byte[] data = new byte[(int) length];
+        InputStream in = null;
+        try {
+            in = new FileInputStream(file);
+            int offset = 0;
+            while (offset < data.length) {
+                int read = in.read(data, offset, data.length - offset);
+                if (read == -1) break;
+                offset += read;
+            }
+            return offset == data.length ? data : null;
+        } catch (FileNotFoundException e) {
+            return null;
+        } finally {
+            OpenAirMapModule.closeQuietly(in);
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
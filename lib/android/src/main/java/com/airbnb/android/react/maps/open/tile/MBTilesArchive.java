@@ -0,0 +1,168 @@
+package com.airbnb.android.react.maps.open.tile;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Tiles read from an MBTiles file (https://github.com/mapbox/mbtiles-spec).
+//
+// Every loader thread gets its own read-only connection from a small pool, so reads never
+// serialise on one handle, and each connection keeps the tile query compiled in its statement
+// cache instead of preparing it per tile.
+class MBTilesArchive implements TileArchive {
+    private static final int POOL_SIZE = 4;
+    private static final String TILE_QUERY =
+            "SELECT tile_data FROM tiles WHERE zoom_level = ? AND tile_column = ? AND tile_row = ?";
+
+    private final String path;
+    private final boolean tms;
+    private final List<SQLiteDatabase> idle = new ArrayList<>();
+    private int open = 0;
+    private boolean closed = false;
+    private String name;
+    private int minZoom;
+    private int maxZoom;
+
+    MBTilesArchive(TileArchiveConfig config) throws IOException {
+        this.path = config.path;
+        this.tms = config.tms;
+        this.minZoom = config.minZoom;
+        this.maxZoom = config.maxZoom;
+        this.name = new File(path).getName();
+        if (!new File(path).isFile()) {
+            throw new FileNotFoundException(path);
+        }
+
+        SQLiteDatabase db = acquire();
+        try {
+            readMetadata(db);
+        } finally {
+            release(db);
+        }
+    }
+
+    private void readMetadata(SQLiteDatabase db) {
+        Cursor cursor = null;
+        try {
+            cursor = db.rawQuery("SELECT name, value FROM metadata", null);
+            while (cursor.moveToNext()) {
+                String key = cursor.getString(0);
+                String value = cursor.getString(1);
+                if (value == null) continue;
+                if ("name".equals(key)) {
+                    name = value;
+                } else if ("minzoom".equals(key)) {
+                    minZoom = parseZoom(value, minZoom);
+                } else if ("maxzoom".equals(key)) {
+                    maxZoom = parseZoom(value, maxZoom);
+                }
+            }
+        } catch (SQLiteException e) {
+            // the metadata table is optional in practice, keep the configured zoom range
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+    }
+
+    private static int parseZoom(String value, int fallback) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "mbtiles:" + name;
+    }
+
+    @Override
+    public int getMinZoom() {
+        return minZoom;
+    }
+
+    @Override
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    @Override
+    public byte[] readTile(int zoom, int x, int y) throws IOException {
+        int row = tms ? (1 << zoom) - 1 - y : y;
+        String[] args = new String[] {
+                String.valueOf(zoom), String.valueOf(x), String.valueOf(row)
+        };
+
+        SQLiteDatabase db = acquire();
+        Cursor cursor = null;
+        try {
+            cursor = db.rawQuery(TILE_QUERY, args);
+            return cursor.moveToFirst() ? cursor.getBlob(0) : null;
+        } catch (SQLiteException e) {
+            throw new IOException(e.getMessage());
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+            release(db);
+        }
+    }
+
+    private synchronized SQLiteDatabase acquire() throws IOException {
+        while (true) {
+            if (closed) {
+                throw new IOException("Tile archive is closed");
+            }
+            if (!idle.isEmpty()) {
+                return idle.remove(idle.size() - 1);
+            }
+            if (open < POOL_SIZE) {
+                try {
+                    SQLiteDatabase db = SQLiteDatabase.openDatabase(path, null,
+                            SQLiteDatabase.OPEN_READONLY | SQLiteDatabase.NO_LOCALIZED_COLLATORS);
+                    db.setMaxSqlCacheSize(4);
+                    open++;
+                    return db;
+                } catch (SQLiteException e) {
+                    throw new IOException(e.getMessage());
+                }
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for a connection");
+            }
+        }
+    }
+
+    private synchronized void release(SQLiteDatabase db) {
+        if (closed) {
+            db.close();
+            open--;
+            return;
+        }
+        idle.add(db);
+        notify();
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (SQLiteDatabase db : idle) {
+            db.close();
+        }
+        open -= idle.size();
+        idle.clear();
+        notifyAll();
+    }
+}
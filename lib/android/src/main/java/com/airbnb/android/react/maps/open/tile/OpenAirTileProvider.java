@@ -0,0 +1,62 @@
+package com.airbnb.android.react.maps.open.tile;
+
+import android.content.Context;
+
+import org.osmdroid.tileprovider.MapTileProviderArray;
+import org.osmdroid.tileprovider.modules.MapTileDownloader;
+import org.osmdroid.tileprovider.modules.MapTileModuleProviderBase;
+import org.osmdroid.tileprovider.modules.NetworkAvailabliltyCheck;
+import org.osmdroid.tileprovider.tilesource.ITileSource;
+import org.osmdroid.tileprovider.tilesource.OnlineTileSourceBase;
+import org.osmdroid.tileprovider.util.SimpleRegisterReceiver;
+
+// Tile provider reading from a dedicated TileDiskCache before going to the network. Downloaded
+// tiles are written back into the same cache. Downloads go through a TileDownloadModule, which
+// serves the tiles nearest to the viewport center first; the map keeps the scheduler's
+// viewport up to date.
+public class OpenAirTileProvider extends MapTileProviderArray {
+    private final TileDiskCache cache;
+    private final TileScheduler scheduler = new TileScheduler();
+    private final int downloadThreads;
+    private final int queueSize;
+    private TileDownloadModule downloadModule;
+
+    public OpenAirTileProvider(Context context, ITileSource tileSource, TileDiskCache cache,
+                               int downloadThreads, int queueSize) {
+        super(tileSource, new SimpleRegisterReceiver(context), new MapTileModuleProviderBase[0]);
+        this.cache = cache;
+        this.downloadThreads = downloadThreads;
+        this.queueSize = queueSize;
+
+        mTileProviderList.add(new TileCacheModule(cache, tileSource));
+        NetworkAvailabliltyCheck networkCheck = new NetworkAvailabliltyCheck(context);
+        if (tileSource instanceof OnlineTileSourceBase) {
+            downloadModule = new TileDownloadModule((OnlineTileSourceBase) tileSource, cache,
+                    networkCheck, scheduler, downloadThreads, queueSize);
+            mTileProviderList.add(downloadModule);
+        } else {
+            mTileProviderList.add(new MapTileDownloader(tileSource, cache, networkCheck));
+        }
+    }
+
+    public TileDiskCache getCache() {
+        return cache;
+    }
+
+    public TileScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Stops or resumes downloads; cached tiles keep loading while paused.
+     */
+    public void setPaused(boolean paused) {
+        if (downloadModule != null) {
+            downloadModule.setPaused(paused);
+        }
+    }
+
+    public boolean hasDownloadLimits(int downloadThreads, int queueSize) {
+        return this.downloadThreads == downloadThreads && this.queueSize == queueSize;
+    }
+}
@@ -0,0 +1,20 @@
+package com.airbnb.android.react.maps.open.tile;
+
+import java.io.IOException;
+
+// Read-only store of encoded raster tiles, addressed in the XYZ scheme used by osmdroid.
+public interface TileArchive {
+    String getName();
+
+    int getMinZoom();
+
+    int getMaxZoom();
+
+    /**
+     * Encoded image of a tile, or null when the archive does not contain it. Called from the
+     * tile loader threads.
+     */
+    byte[] readTile(int zoom, int x, int y) throws IOException;
+
+    void close();
+}
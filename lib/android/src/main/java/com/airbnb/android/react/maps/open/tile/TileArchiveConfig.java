@@ -0,0 +1,66 @@
+package com.airbnb.android.react.maps.open.tile;
+
+import com.facebook.react.bridge.ReadableMap;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+public class TileArchiveConfig {
+    public enum Type {
+        MBTILES, DIRECTORY
+    }
+
+    private static final int MB = 1024 * 1024;
+
+    Type type = Type.MBTILES;
+    String path;
+    String extension = ".png";
+    int minZoom = 0;
+    int maxZoom = 19;
+    boolean tms = false;
+    int hotCacheBytes = 8 * MB;
+
+    public static TileArchiveConfig fromReadableMap(ReadableMap map) {
+        TileArchiveConfig config = new TileArchiveConfig();
+        if (map.hasKey("type") && "directory".equalsIgnoreCase(map.getString("type"))) {
+            config.type = Type.DIRECTORY;
+        }
+        // MBTiles store rows bottom-up, plain directories usually top-down
+        config.tms = config.type == Type.MBTILES;
+
+        if (map.hasKey("path")) {
+            config.path = map.getString("path");
+            if (config.path.startsWith("file://")) {
+                config.path = config.path.substring("file://".length());
+            }
+        }
+        if (map.hasKey("extension")) {
+            String extension = map.getString("extension");
+            config.extension = extension.startsWith(".") ? extension : "." + extension;
+        }
+        if (map.hasKey("minZoom")) {
+            config.minZoom = map.getInt("minZoom");
+        }
+        if (map.hasKey("maxZoom")) {
+            config.maxZoom = map.getInt("maxZoom");
+        }
+        if (map.hasKey("tms")) {
+            config.tms = map.getBoolean("tms");
+        }
+        if (map.hasKey("hotCacheSize")) {
+            config.hotCacheBytes = map.getInt("hotCacheSize");
+        }
+        return config;
+    }
+
+    public TileArchive open() throws IOException {
+        if (path == null) {
+            throw new FileNotFoundException("No path given for the tile archive");
+        }
+        return type == Type.MBTILES ? new MBTilesArchive(this) : new DirectoryTileArchive(this);
+    }
+
+    public int getHotCacheBytes() {
+        return hotCacheBytes;
+    }
+}
@@ -0,0 +1,46 @@
+package com.airbnb.android.react.maps.open.tile;
+
+import com.facebook.react.bridge.ReadableMap;
+
+public class TileCacheConfig {
+    public enum Eviction {
+        LRU, LFU
+    }
+
+    private static final long MB = 1024L * 1024L;
+
+    String namespace = "default";
+    long maxSizeBytes = 600 * MB;
+    long trimSizeBytes = 500 * MB;
+    long maxAgeMs = 0;
+    Eviction eviction = Eviction.LRU;
+
+    public static TileCacheConfig fromReadableMap(ReadableMap map) {
+        TileCacheConfig config = new TileCacheConfig();
+        if (map == null) return config;
+
+        if (map.hasKey("namespace")) {
+            config.namespace = map.getString("namespace");
+        }
+        if (map.hasKey("maxSize")) {
+            config.maxSizeBytes = (long) map.getDouble("maxSize");
+        }
+        if (map.hasKey("trimSize")) {
+            config.trimSizeBytes = (long) map.getDouble("trimSize");
+        } else {
+            config.trimSizeBytes = config.maxSizeBytes * 5 / 6;
+        }
+        if (map.hasKey("maxAge")) {
+            config.maxAgeMs = (long) map.getDouble("maxAge");
+        }
+        if (map.hasKey("eviction") && "lfu".equalsIgnoreCase(map.getString("eviction"))) {
+            config.eviction = Eviction.LFU;
+        }
+        config.trimSizeBytes = Math.min(config.trimSizeBytes, config.maxSizeBytes);
+        return config;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+}
@@ -0,0 +1,79 @@
+package com.airbnb.android.react.maps.open.tile;
+
+import android.graphics.drawable.Drawable;
+
+import org.osmdroid.tileprovider.ExpirableBitmapDrawable;
+import org.osmdroid.tileprovider.MapTileRequestState;
+import org.osmdroid.tileprovider.modules.MapTileModuleProviderBase;
+import org.osmdroid.tileprovider.tilesource.BitmapTileSourceBase;
+import org.osmdroid.tileprovider.tilesource.ITileSource;
+
+// Tile provider module serving tiles from a TileDiskCache. Misses and expired tiles fall
+// through to the next module of the provider array, usually the downloader.
+public class TileCacheModule extends MapTileModuleProviderBase {
+    private static final int THREADS = 4;
+    private static final int PENDING_QUEUE_SIZE = 40;
+    // deepest zoom the map view draws, for modules without a tile source to ask
+    static final int DEFAULT_MAX_ZOOM = 22;
+
+    private final TileDiskCache cache;
+    private volatile ITileSource tileSource;
+
+    public TileCacheModule(TileDiskCache cache, ITileSource tileSource) {
+        super(THREADS, PENDING_QUEUE_SIZE);
+        this.cache = cache;
+        this.tileSource = tileSource;
+    }
+
+    @Override
+    protected String getName() {
+        return "Tile disk cache";
+    }
+
+    @Override
+    protected String getThreadGroupName() {
+        return "tilecache";
+    }
+
+    @Override
+    protected Runnable getTileLoader() {
+        return new TileLoader();
+    }
+
+    @Override
+    public boolean getUsesDataConnection() {
+        return false;
+    }
+
+    @Override
+    public int getMinimumZoomLevel() {
+        return tileSource != null ? tileSource.getMinimumZoomLevel() : 0;
+    }
+
+    @Override
+    public int getMaximumZoomLevel() {
+        return tileSource != null ? tileSource.getMaximumZoomLevel() : DEFAULT_MAX_ZOOM;
+    }
+
+    @Override
+    public void setTileSource(ITileSource tileSource) {
+        this.tileSource = tileSource;
+    }
+
+    protected class TileLoader extends MapTileModuleProviderBase.TileLoader {
+        @Override
+        public Drawable loadTile(MapTileRequestState state) throws CantContinueException {
+            ITileSource source = tileSource;
+            if (source == null) return null;
+            try {
+                Drawable drawable = cache.loadTile(source, state.getMapTile());
+                if (drawable != null && cache.isExpired(source, state.getMapTile())) {
+                    ExpirableBitmapDrawable.setDrawableExpired(drawable);
+                }
+                return drawable;
+            } catch (BitmapTileSourceBase.LowMemoryException e) {
+                throw new CantContinueException(e);
+            }
+        }
+    }
+}
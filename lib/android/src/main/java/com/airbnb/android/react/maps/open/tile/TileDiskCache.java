@@ -0,0 +1,418 @@
+package com.airbnb.android.react.maps.open.tile;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.util.Log;
+
+import com.airbnb.android.react.maps.open.OpenAirMapModule;
+
+import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.tileprovider.modules.IFilesystemCache;
+import org.osmdroid.tileprovider.tilesource.BitmapTileSourceBase;
+import org.osmdroid.tileprovider.tilesource.ITileSource;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// On-disk tile store with a size cap and LRU or LFU eviction. Tiles are plain files under
+// <cache dir>/osm-tiles/<namespace>/<tile source>/<z>/<x>/<y>.tile and an in-memory index keeps
+// their size and access statistics, so trimming never has to walk the file system. The access
+// statistics are written to a file next to the tiles now and then, so eviction still knows which
+// tiles are used after the process restarts.
+//
+// The index is built by the first call that needs it, without holding the cache lock, and
+// swapped in when complete. Never call loadIndex while holding the cache lock.
+//
+// One instance exists per namespace; see forConfig.
+public class TileDiskCache implements IFilesystemCache {
+    private static final String TAG = "TileDiskCache";
+    private static final String ROOT_DIRECTORY = "osm-tiles";
+    private static final String EXTENSION = ".tile";
+    private static final String STATS_FILE = "access.stats";
+    private static final int STATS_VERSION = 1;
+    private static final long STATS_SAVE_INTERVAL_MS = 60 * 1000;
+    // temp files younger than this may still be written by saveFile
+    private static final long STALE_TEMP_MS = 60 * 60 * 1000;
+
+    private static final Map<String, TileDiskCache> instances = new HashMap<>();
+
+    private final File root;
+    private TileCacheConfig config;
+    private final Map<String, Entry> index = new HashMap<>();
+    // held while the index is built, so only one thread scans
+    private final Object scanLock = new Object();
+    private volatile boolean indexLoaded = false;
+    private long totalBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private boolean statsDirty = false;
+    private long statsSavedAt = 0;
+
+    private static class Entry {
+        final File file;
+        long bytes;
+        long created;
+        long lastAccess;
+        int accessCount;
+
+        Entry(File file, long bytes, long created) {
+            this.file = file;
+            this.bytes = bytes;
+            this.created = created;
+            this.lastAccess = created;
+        }
+    }
+
+    TileDiskCache(File root, TileCacheConfig config) {
+        this.root = root;
+        this.config = config;
+    }
+
+    public static synchronized TileDiskCache forConfig(Context context, TileCacheConfig config) {
+        TileDiskCache cache = instances.get(config.namespace);
+        if (cache == null) {
+            File root = new File(new File(context.getCacheDir(), ROOT_DIRECTORY), config.namespace);
+            cache = new TileDiskCache(root, config);
+            instances.put(config.namespace, cache);
+        } else {
+            cache.setConfig(config);
+        }
+        return cache;
+    }
+
+    /**
+     * Cache of a namespace, keeping its current configuration if a map already set one.
+     */
+    public static synchronized TileDiskCache forNamespace(Context context, String namespace) {
+        TileDiskCache cache = instances.get(namespace);
+        if (cache != null) return cache;
+        TileCacheConfig config = new TileCacheConfig();
+        config.namespace = namespace;
+        return forConfig(context, config);
+    }
+
+    public static synchronized List<TileDiskCache> all() {
+        return new ArrayList<>(instances.values());
+    }
+
+    public String getNamespace() {
+        return config.namespace;
+    }
+
+    public synchronized void setConfig(TileCacheConfig config) {
+        this.config = config;
+        trimIfNeeded();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public long getSizeBytes() {
+        loadIndex();
+        synchronized (this) {
+            return totalBytes;
+        }
+    }
+
+    public int getTileCount() {
+        loadIndex();
+        synchronized (this) {
+            return index.size();
+        }
+    }
+
+    /**
+     * Loads a cached tile, or returns null on a miss. Expired tiles are still returned so they
+     * can be shown while a fresh copy downloads; check isExpired.
+     */
+    public Drawable loadTile(ITileSource tileSource, MapTile tile)
+            throws BitmapTileSourceBase.LowMemoryException {
+        if (!markAccessed(tileSource, tile)) return null;
+        Drawable drawable = tileSource.getDrawable(fileFor(tileSource, tile).getPath());
+        if (drawable == null) {
+            // deleted behind the cache's back, or unreadable
+            forget(tileSource, tile);
+        }
+        return drawable;
+    }
+
+    /**
+     * Counts a hit or a miss of a tile and updates its access statistics. Only the index is
+     * consulted; a file deleted by someone else is found out by the read that follows.
+     */
+    boolean markAccessed(ITileSource tileSource, MapTile tile) {
+        loadIndex();
+        synchronized (this) {
+            Entry entry = index.get(fileFor(tileSource, tile).getPath());
+            if (entry == null) {
+                misses++;
+                return false;
+            }
+            hits++;
+            entry.lastAccess = System.currentTimeMillis();
+            entry.accessCount++;
+            statsDirty = true;
+            if (entry.lastAccess - statsSavedAt > STATS_SAVE_INTERVAL_MS) {
+                saveStats();
+            }
+            return true;
+        }
+    }
+
+    // Drops a tile whose file could not be read, turning the hit markAccessed counted into a miss.
+    private synchronized void forget(ITileSource tileSource, MapTile tile) {
+        Entry entry = index.remove(fileFor(tileSource, tile).getPath());
+        if (entry == null) return;
+        totalBytes -= entry.bytes;
+        hits--;
+        misses++;
+        statsDirty = true;
+    }
+
+    public synchronized boolean isExpired(ITileSource tileSource, MapTile tile) {
+        if (config.maxAgeMs <= 0) return false;
+        Entry entry = index.get(fileFor(tileSource, tile).getPath());
+        return entry != null && System.currentTimeMillis() - entry.created > config.maxAgeMs;
+    }
+
+    @Override
+    public boolean saveFile(ITileSource tileSource, MapTile tile, InputStream stream) {
+        loadIndex();
+        File file = fileFor(tileSource, tile);
+        File parent = file.getParentFile();
+        if (!parent.exists() && !parent.mkdirs() && !parent.exists()) {
+            return false;
+        }
+
+        File temp = new File(parent, file.getName() + "." + Thread.currentThread().getId());
+        OutputStream out = null;
+        long bytes = 0;
+        try {
+            out = new FileOutputStream(temp);
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                bytes += read;
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to cache tile " + tile, e);
+            OpenAirMapModule.closeQuietly(out);
+            temp.delete();
+            return false;
+        }
+        OpenAirMapModule.closeQuietly(out);
+
+        synchronized (this) {
+            if (!temp.renameTo(file)) {
+                temp.delete();
+                return false;
+            }
+            Entry previous = index.remove(file.getPath());
+            if (previous != null) {
+                totalBytes -= previous.bytes;
+            }
+            Entry entry = new Entry(file, bytes, System.currentTimeMillis());
+            if (previous != null) {
+                entry.accessCount = previous.accessCount;
+            }
+            index.put(file.getPath(), entry);
+            totalBytes += bytes;
+            trimIfNeeded();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean exists(ITileSource tileSource, MapTile tile) {
+        loadIndex();
+        synchronized (this) {
+            return index.containsKey(fileFor(tileSource, tile).getPath()) && !isExpired(tileSource, tile);
+        }
+    }
+
+    @Override
+    public boolean remove(ITileSource tileSource, MapTile tile) {
+        loadIndex();
+        Entry entry;
+        synchronized (this) {
+            entry = index.remove(fileFor(tileSource, tile).getPath());
+            if (entry == null) return false;
+            totalBytes -= entry.bytes;
+        }
+        return entry.file.delete();
+    }
+
+    @Override
+    public synchronized void onDetach() {
+        // shared between map views, the index lives as long as the process
+        saveStats();
+    }
+
+    public void clear() {
+        loadIndex();
+        synchronized (this) {
+            for (Entry entry : index.values()) {
+                entry.file.delete();
+            }
+            index.clear();
+            totalBytes = 0;
+            hits = 0;
+            misses = 0;
+            new File(root, STATS_FILE).delete();
+            statsDirty = false;
+        }
+    }
+
+    private File fileFor(ITileSource tileSource, MapTile tile) {
+        return new File(root, tileSource.name() + File.separator + tile.getZoomLevel()
+                + File.separator + tile.getX() + File.separator + tile.getY() + EXTENSION);
+    }
+
+    private void loadIndex() {
+        if (indexLoaded) return;
+        synchronized (scanLock) {
+            if (indexLoaded) return;
+            // nothing touches the index before it is loaded, it is still empty
+            Map<String, Entry> scanned = new HashMap<>();
+            long bytes = scan(root, scanned);
+            loadStats(scanned);
+            synchronized (this) {
+                index.putAll(scanned);
+                totalBytes = bytes;
+                indexLoaded = true;
+                trimIfNeeded();
+            }
+        }
+    }
+
+    // Adds the tiles under the directory to the entries and returns their size in bytes.
+    private long scan(File directory, Map<String, Entry> entries) {
+        File[] files = directory.listFiles();
+        if (files == null) return 0;
+        long bytes = 0;
+        for (File file : files) {
+            if (file.isDirectory()) {
+                bytes += scan(file, entries);
+            } else if (file.getName().endsWith(EXTENSION)) {
+                Entry entry = new Entry(file, file.length(), file.lastModified());
+                entries.put(file.getPath(), entry);
+                bytes += entry.bytes;
+            } else if (!file.getName().equals(STATS_FILE)
+                    && System.currentTimeMillis() - file.lastModified() > STALE_TEMP_MS) {
+                // leftover temp file of an interrupted write
+                file.delete();
+            }
+        }
+        return bytes;
+    }
+
+    // Access statistics of the indexed tiles, as paths relative to the root. Tiles missing from
+    // the file keep the defaults scan gave them.
+    private void loadStats(Map<String, Entry> entries) {
+        File file = new File(root, STATS_FILE);
+        if (!file.exists()) return;
+        String prefix = root.getPath() + File.separator;
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != STATS_VERSION) return;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String path = in.readUTF();
+                long lastAccess = in.readLong();
+                int accessCount = in.readInt();
+                Entry entry = entries.get(prefix + path);
+                if (entry != null) {
+                    entry.lastAccess = Math.max(entry.lastAccess, lastAccess);
+                    entry.accessCount = accessCount;
+                }
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to read tile access statistics", e);
+        } finally {
+            OpenAirMapModule.closeQuietly(in);
+        }
+    }
+
+    private void saveStats() {
+        statsSavedAt = System.currentTimeMillis();
+        if (!statsDirty || !indexLoaded) return;
+        if (!root.exists() && !root.mkdirs() && !root.exists()) return;
+
+        int prefixLength = root.getPath().length() + 1;
+        File file = new File(root, STATS_FILE);
+        File temp = new File(root, STATS_FILE + ".tmp");
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            out.writeInt(STATS_VERSION);
+            out.writeInt(index.size());
+            for (Entry entry : index.values()) {
+                out.writeUTF(entry.file.getPath().substring(prefixLength));
+                out.writeLong(entry.lastAccess);
+                out.writeInt(entry.accessCount);
+            }
+            out.close();
+            out = null;
+            if (!temp.renameTo(file)) {
+                temp.delete();
+                return;
+            }
+            statsDirty = false;
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to save tile access statistics", e);
+            OpenAirMapModule.closeQuietly(out);
+            temp.delete();
+        }
+    }
+
+    private void trimIfNeeded() {
+        if (!indexLoaded || totalBytes <= config.maxSizeBytes) return;
+
+        List<Entry> entries = new ArrayList<>(index.values());
+        Collections.sort(entries, config.eviction == TileCacheConfig.Eviction.LFU ? LFU : LRU);
+        for (Entry entry : entries) {
+            if (totalBytes <= config.trimSizeBytes) break;
+            index.remove(entry.file.getPath());
+            totalBytes -= entry.bytes;
+            entry.file.delete();
+        }
+    }
+
+    private static final Comparator<Entry> LRU = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry a, Entry b) {
+            return a.lastAccess < b.lastAccess ? -1 : (a.lastAccess == b.lastAccess ? 0 : 1);
+        }
+    };
+
+    private static final Comparator<Entry> LFU = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry a, Entry b) {
+            if (a.accessCount != b.accessCount) {
+                return a.accessCount < b.accessCount ? -1 : 1;
+            }
+            return LRU.compare(a, b);
+        }
+    };
+}
@@ -0,0 +1,260 @@
+package com.airbnb.android.react.maps.open.tile;
+
+import android.graphics.drawable.Drawable;
+import android.util.Log;
+
+import com.airbnb.android.react.maps.open.OpenAirMapModule;
+
+import org.osmdroid.config.Configuration;
+import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.tileprovider.MapTileRequestState;
+import org.osmdroid.tileprovider.modules.IFilesystemCache;
+import org.osmdroid.tileprovider.modules.INetworkAvailablityCheck;
+import org.osmdroid.tileprovider.modules.MapTileModuleProviderBase;
+import org.osmdroid.tileprovider.tilesource.BitmapTileSourceBase;
+import org.osmdroid.tileprovider.tilesource.ITileSource;
+import org.osmdroid.tileprovider.tilesource.OnlineTileSourceBase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+// Downloader for online tile sources. Unlike osmdroid's MapTileDownloader it takes pending
+// tiles in the order of a TileScheduler, nearest to the viewport center first, and drops the
+// ones that scrolled out of view before they were started.
+//
+// For a UrlTemplateTileSource it also sends the source's custom headers and runs enough threads
+// to use every subdomain host, while a per-host semaphore keeps each host within its limit.
+public class TileDownloadModule extends MapTileModuleProviderBase {
+    private static final String TAG = "TileDownloadModule";
+    public static final int MAX_THREADS = 8;
+    public static final int DEFAULT_QUEUE_SIZE = 40;
+    private static final int CONNECT_TIMEOUT_MS = 15000;
+    private static final int READ_TIMEOUT_MS = 30000;
+
+    private final IFilesystemCache cache;
+    private final INetworkAvailablityCheck networkCheck;
+    private final TileScheduler scheduler;
+    private volatile OnlineTileSourceBase tileSource;
+    private volatile boolean paused = false;
+
+    public TileDownloadModule(OnlineTileSourceBase tileSource, IFilesystemCache cache,
+                              INetworkAvailablityCheck networkCheck, TileScheduler scheduler,
+                              int threads, int queueSize) {
+        super(threads > 0 ? Math.min(MAX_THREADS, threads) : defaultThreads(tileSource),
+                queueSize > 0 ? queueSize : DEFAULT_QUEUE_SIZE);
+        this.tileSource = tileSource;
+        this.cache = cache;
+        this.networkCheck = networkCheck;
+        this.scheduler = scheduler;
+    }
+
+    private static int defaultThreads(OnlineTileSourceBase tileSource) {
+        if (tileSource instanceof UrlTemplateTileSource) {
+            UrlTemplateTileSource source = (UrlTemplateTileSource) tileSource;
+            return Math.min(MAX_THREADS, source.getHostCount() * source.getMaxConnectionsPerHost());
+        }
+        return Configuration.getInstance().getTileDownloadThreads();
+    }
+
+    @Override
+    protected String getName() {
+        return "Tile download";
+    }
+
+    @Override
+    protected String getThreadGroupName() {
+        return "tiledownload";
+    }
+
+    @Override
+    protected Runnable getTileLoader() {
+        return new TileLoader();
+    }
+
+    @Override
+    public boolean getUsesDataConnection() {
+        return true;
+    }
+
+    @Override
+    public int getMinimumZoomLevel() {
+        OnlineTileSourceBase source = tileSource;
+        return source != null ? source.getMinimumZoomLevel() : 0;
+    }
+
+    @Override
+    public int getMaximumZoomLevel() {
+        OnlineTileSourceBase source = tileSource;
+        return source != null ? source.getMaximumZoomLevel() : TileCacheModule.DEFAULT_MAX_ZOOM;
+    }
+
+    @Override
+    public void setTileSource(ITileSource tileSource) {
+        // offline sources are served by an ArchiveTileProvider
+        this.tileSource = tileSource instanceof OnlineTileSourceBase ? (OnlineTileSourceBase) tileSource : null;
+    }
+
+    /**
+     * Stops downloading while the map is in the background. Waiting tiles are failed back to
+     * the provider, which requests them again once the resumed map draws.
+     */
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+        if (!paused) return;
+
+        List<MapTileRequestState> dropped = new ArrayList<>();
+        synchronized (mQueueLockObject) {
+            Iterator<Map.Entry<MapTile, MapTileRequestState>> iterator = mPending.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<MapTile, MapTileRequestState> entry = iterator.next();
+                if (mWorking.containsKey(entry.getKey())) continue;
+                iterator.remove();
+                dropped.add(entry.getValue());
+            }
+        }
+        for (MapTileRequestState state : dropped) {
+            state.getCallback().mapTileRequestFailed(state);
+        }
+    }
+
+    @Override
+    public void loadMapTileAsync(MapTileRequestState state) {
+        if (paused) {
+            state.getCallback().mapTileRequestFailed(state);
+            return;
+        }
+        super.loadMapTileAsync(state);
+    }
+
+    protected class TileLoader extends MapTileModuleProviderBase.TileLoader {
+        @Override
+        protected MapTileRequestState nextTile() {
+            if (paused) return null;
+            if (!scheduler.hasViewport()) {
+                return super.nextTile();
+            }
+
+            List<MapTileRequestState> cancelled = null;
+            MapTileRequestState next = null;
+            synchronized (mQueueLockObject) {
+                long best = TileScheduler.CANCELLED;
+                Iterator<Map.Entry<MapTile, MapTileRequestState>> iterator = mPending.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<MapTile, MapTileRequestState> entry = iterator.next();
+                    if (mWorking.containsKey(entry.getKey())) continue;
+
+                    long priority = scheduler.priorityOf(entry.getKey());
+                    if (priority == TileScheduler.CANCELLED) {
+                        iterator.remove();
+                        if (cancelled == null) {
+                            cancelled = new ArrayList<>();
+                        }
+                        cancelled.add(entry.getValue());
+                    } else if (next == null || priority < best) {
+                        best = priority;
+                        next = entry.getValue();
+                    }
+                }
+                if (next != null) {
+                    mWorking.put(next.getMapTile(), next);
+                }
+            }
+
+            // notify outside the queue lock, the provider may queue new requests from the callback
+            if (cancelled != null) {
+                for (MapTileRequestState state : cancelled) {
+                    state.getCallback().mapTileRequestFailed(state);
+                }
+            }
+            return next;
+        }
+
+        @Override
+        public Drawable loadTile(MapTileRequestState state) throws CantContinueException {
+            OnlineTileSourceBase source = tileSource;
+            if (source == null) return null;
+            if (networkCheck != null && !networkCheck.getNetworkAvailable()) return null;
+
+            MapTile tile = state.getMapTile();
+            byte[] data = download(source, tile);
+            if (data == null) return null;
+
+            if (cache != null) {
+                cache.saveFile(source, tile, new ByteArrayInputStream(data));
+            }
+            try {
+                return source.getDrawable(new ByteArrayInputStream(data));
+            } catch (BitmapTileSourceBase.LowMemoryException e) {
+                throw new CantContinueException(e);
+            }
+        }
+    }
+
+    private static byte[] download(OnlineTileSourceBase source, MapTile tile) {
+        URL url;
+        try {
+            url = new URL(source.getTileURLString(tile));
+        } catch (IOException e) {
+            Log.w(TAG, "Invalid tile url for " + tile, e);
+            return null;
+        }
+
+        Semaphore permits = null;
+        if (source instanceof UrlTemplateTileSource) {
+            permits = ((UrlTemplateTileSource) source).permitsFor(url.getHost());
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+
+        HttpURLConnection connection = null;
+        InputStream in = null;
+        try {
+            connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            connection.setReadTimeout(READ_TIMEOUT_MS);
+            connection.setRequestProperty("User-Agent", Configuration.getInstance().getUserAgentValue());
+            if (source instanceof UrlTemplateTileSource) {
+                for (Map.Entry<String, String> header : ((UrlTemplateTileSource) source).getHeaders().entrySet()) {
+                    connection.setRequestProperty(header.getKey(), header.getValue());
+                }
+            }
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                Log.w(TAG, "Tile " + tile + " failed with HTTP " + connection.getResponseCode());
+                return null;
+            }
+
+            in = connection.getInputStream();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to download " + tile, e);
+            return null;
+        } finally {
+            OpenAirMapModule.closeQuietly(in);
+            if (connection != null) {
+                connection.disconnect();
+            }
+            if (permits != null) {
+                permits.release();
+            }
+        }
+    }
+}
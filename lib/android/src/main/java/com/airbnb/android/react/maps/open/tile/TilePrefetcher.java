@@ -0,0 +1,264 @@
+package com.airbnb.android.react.maps.open.tile;
+
+import android.util.Log;
+
+import com.airbnb.android.react.maps.open.MercatorProjection;
+import com.airbnb.android.react.maps.open.OpenAirMapModule;
+
+import org.osmdroid.config.Configuration;
+import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.tileprovider.tilesource.OnlineTileSourceBase;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Downloads every tile of a bounding box over a zoom range into a TileDiskCache.
+//
+// Tiles are enumerated lazily from a single cursor shared by a fixed number of workers, so
+// memory does not grow with the area and concurrency stays bounded. Tiles already in the cache
+// are skipped. Tiles whose download was interrupted by a cancel are queued, so a resumed run
+// fetches those first and then continues from the cursor, counting every tile once.
+//
+// A box whose west edge is east of its east edge crosses the antimeridian; its columns wrap
+// around from the last tile of a level to the first.
+public class TilePrefetcher {
+    private static final String TAG = "TilePrefetcher";
+    private static final int CONNECT_TIMEOUT_MS = 15000;
+    private static final int READ_TIMEOUT_MS = 30000;
+    private static final long PROGRESS_INTERVAL_MS = 250;
+
+    public interface Listener {
+        void onProgress(TilePrefetcher prefetcher, boolean finished);
+    }
+
+    private final String id;
+    private final OnlineTileSourceBase tileSource;
+    private final TileDiskCache cache;
+    private final int minZoom;
+    private final int maxZoom;
+    private final int concurrency;
+    private final Listener listener;
+
+    // first column and number of columns per zoom level, offset by minZoom; columns wrap
+    private final int[] minX;
+    private final int[] columns;
+    // inclusive row ranges per zoom level
+    private final int[] minY;
+    private final int[] maxY;
+    private final long total;
+
+    private final AtomicLong cursor = new AtomicLong();
+    // indices of tiles interrupted by a cancel, fetched again before the cursor moves on
+    private final Queue<Long> interrupted = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger downloaded = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger runningWorkers = new AtomicInteger();
+    private volatile boolean cancelled = false;
+    private volatile long lastProgress = 0;
+    private ExecutorService executor;
+
+    public TilePrefetcher(String id, OnlineTileSourceBase tileSource, TileDiskCache cache,
+                          double north, double east, double south, double west,
+                          int minZoom, int maxZoom, int concurrency, Listener listener) {
+        this.id = id;
+        this.tileSource = tileSource;
+        this.cache = cache;
+        this.minZoom = minZoom;
+        this.maxZoom = maxZoom;
+        this.concurrency = concurrency;
+        this.listener = listener;
+
+        // the west edge and the width of the box as fractions of the world
+        double lngSpan = east - west;
+        if (lngSpan < 0) {
+            lngSpan += 360;
+        }
+        double westX = lngSpan >= 360 ? 0 : MercatorProjection.x(west);
+        westX -= Math.floor(westX);
+        double spanX = Math.min(1, lngSpan / 360);
+
+        int levels = maxZoom - minZoom + 1;
+        minX = new int[levels];
+        columns = new int[levels];
+        minY = new int[levels];
+        maxY = new int[levels];
+        long count = 0;
+        for (int i = 0; i < levels; i++) {
+            int tiles = 1 << (minZoom + i);
+            minX[i] = Math.min(tiles - 1, (int) Math.floor(westX * tiles));
+            // the last column is the one the east edge lies in, or ends at
+            int lastX = Math.max(minX[i], (int) Math.ceil((westX + spanX) * tiles) - 1);
+            columns[i] = Math.min(tiles, lastX - minX[i] + 1);
+            minY[i] = tileIndex(MercatorProjection.y(north), tiles);
+            maxY[i] = tileIndex(MercatorProjection.y(south), tiles);
+            count += (long) columns[i] * (maxY[i] - minY[i] + 1);
+        }
+        this.total = count;
+    }
+
+    private static int tileIndex(double normalized, int tiles) {
+        return Math.max(0, Math.min(tiles - 1, (int) Math.floor(normalized * tiles)));
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public int getDownloaded() {
+        return downloaded.get();
+    }
+
+    public int getSkipped() {
+        return skipped.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public synchronized boolean isRunning() {
+        return runningWorkers.get() > 0;
+    }
+
+    public synchronized void start() {
+        if (isRunning()) return;
+        cancelled = false;
+        executor = Executors.newFixedThreadPool(concurrency);
+        runningWorkers.set(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    work();
+                }
+            });
+        }
+        executor.shutdown();
+    }
+
+    public synchronized void cancel() {
+        cancelled = true;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public synchronized void resume() {
+        start();
+    }
+
+    private void work() {
+        try {
+            while (!cancelled) {
+                Long retry = interrupted.poll();
+                long index = retry != null ? retry : cursor.getAndIncrement();
+                if (index >= total) break;
+                if (!fetch(tileAt(index))) {
+                    interrupted.add(index);
+                }
+                reportProgress(false);
+            }
+        } finally {
+            if (runningWorkers.decrementAndGet() == 0) {
+                if (cursor.get() > total) cursor.set(total);
+                reportProgress(true);
+            }
+        }
+    }
+
+    MapTile tileAt(long index) {
+        for (int i = 0; i < minX.length; i++) {
+            int width = columns[i];
+            long levelCount = (long) width * (maxY[i] - minY[i] + 1);
+            if (index < levelCount) {
+                int tiles = 1 << (minZoom + i);
+                int x = (minX[i] + (int) (index % width)) % tiles;
+                return new MapTile(minZoom + i, x, minY[i] + (int) (index / width));
+            }
+            index -= levelCount;
+        }
+        throw new IndexOutOfBoundsException();
+    }
+
+    /**
+     * Fetches a tile and counts it. Returns false, without counting, when a cancel interrupted
+     * the download.
+     */
+    private boolean fetch(MapTile tile) {
+        if (cache.exists(tileSource, tile)) {
+            skipped.incrementAndGet();
+            return true;
+        }
+
+        try {
+            if (downloadTile(tileSource, cache, tile)) {
+                downloaded.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+            }
+        } catch (IOException e) {
+            if (cancelled) {
+                return false;
+            }
+            Log.w(TAG, "Failed to prefetch " + tile, e);
+            failed.incrementAndGet();
+        }
+        return true;
+    }
+
+    /**
+     * Downloads a tile into the cache on the calling thread. Returns false when the server did
+     * not answer with a tile or the cache could not store it.
+     */
+    public static boolean downloadTile(OnlineTileSourceBase tileSource, TileDiskCache cache, MapTile tile)
+            throws IOException {
+        HttpURLConnection connection = null;
+        InputStream in = null;
+        try {
+            connection = (HttpURLConnection) new URL(tileSource.getTileURLString(tile)).openConnection();
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            connection.setReadTimeout(READ_TIMEOUT_MS);
+            connection.setRequestProperty("User-Agent", Configuration.getInstance().getUserAgentValue());
+            if (tileSource instanceof UrlTemplateTileSource) {
+                for (Map.Entry<String, String> header : ((UrlTemplateTileSource) tileSource).getHeaders().entrySet()) {
+                    connection.setRequestProperty(header.getKey(), header.getValue());
+                }
+            }
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                return false;
+            }
+            in = connection.getInputStream();
+            return cache.saveFile(tileSource, tile, in);
+        } finally {
+            OpenAirMapModule.closeQuietly(in);
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    private void reportProgress(boolean finished) {
+        long now = System.currentTimeMillis();
+        if (!finished && now - lastProgress < PROGRESS_INTERVAL_MS) return;
+        lastProgress = now;
+        listener.onProgress(this, finished);
+    }
+}
@@ -0,0 +1,78 @@
+package com.airbnb.android.react.maps.open.tile;
+
+import com.airbnb.android.react.maps.open.MercatorProjection;
+
+import org.osmdroid.tileprovider.MapTile;
+
+// Decides which pending tile download goes next. The map publishes its viewport on every scroll
+// and zoom; pending tiles of the current zoom are served nearest to the viewport center first,
+// and tiles of another zoom or more than a tile outside the viewport are dropped so they no
+// longer hold download slots after a fling.
+public class TileScheduler {
+    public static final long CANCELLED = Long.MAX_VALUE;
+
+    // extra tiles around the viewport that are still downloaded, so slow pans do not drop tiles
+    // that are about to come into view
+    private static final int MARGIN_TILES = 1;
+
+    private static class Viewport {
+        final int zoom;
+        final double centerX;
+        final double centerY;
+        final int minX;
+        final int maxX;
+        final int minY;
+        final int maxY;
+
+        Viewport(int zoom, double north, double east, double south, double west) {
+            int tiles = 1 << zoom;
+            this.zoom = zoom;
+            double left = MercatorProjection.x(west) * tiles;
+            double right = MercatorProjection.x(east) * tiles;
+            double top = MercatorProjection.y(north) * tiles;
+            double bottom = MercatorProjection.y(south) * tiles;
+            if (right < left) {
+                // the viewport crosses the antimeridian
+                right += tiles;
+            }
+            this.centerX = (left + right) / 2;
+            this.centerY = (top + bottom) / 2;
+            this.minX = (int) Math.floor(left) - MARGIN_TILES;
+            this.maxX = (int) Math.floor(right) + MARGIN_TILES;
+            this.minY = (int) Math.floor(top) - MARGIN_TILES;
+            this.maxY = (int) Math.floor(bottom) + MARGIN_TILES;
+        }
+    }
+
+    private volatile Viewport viewport;
+
+    public void setViewport(int zoom, double north, double east, double south, double west) {
+        viewport = new Viewport(zoom, north, east, south, west);
+    }
+
+    public boolean hasViewport() {
+        return viewport != null;
+    }
+
+    /**
+     * Priority of a pending tile, lower is sooner, or CANCELLED when it is no longer visible.
+     */
+    public long priorityOf(MapTile tile) {
+        Viewport current = viewport;
+        if (current == null) return 0;
+        if (tile.getZoomLevel() != current.zoom) return CANCELLED;
+
+        int x = tile.getX();
+        if (x < current.minX) {
+            // unwrap tiles right of the antimeridian
+            x += 1 << current.zoom;
+        }
+        int y = tile.getY();
+        if (x < current.minX || x > current.maxX || y < current.minY || y > current.maxY) {
+            return CANCELLED;
+        }
+        double dx = x + 0.5 - current.centerX;
+        double dy = y + 0.5 - current.centerY;
+        return (long) ((dx * dx + dy * dy) * 1024);
+    }
+}
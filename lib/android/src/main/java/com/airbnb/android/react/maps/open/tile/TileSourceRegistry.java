@@ -0,0 +1,20 @@
+package com.airbnb.android.react.maps.open.tile;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Tile sources registered from JS, looked up by name when a map sets its mapType.
+public final class TileSourceRegistry {
+    private static final Map<String, UrlTemplateTileSource> sources = new HashMap<>();
+
+    private TileSourceRegistry() {
+    }
+
+    public static synchronized void register(UrlTemplateTileSource source) {
+        sources.put(source.name(), source);
+    }
+
+    public static synchronized UrlTemplateTileSource get(String name) {
+        return name != null ? sources.get(name) : null;
+    }
+}
@@ -0,0 +1,112 @@
+package com.airbnb.android.react.maps.open.tile;
+
+import com.airbnb.android.react.maps.open.MercatorProjection;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableMapKeySetIterator;
+
+import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.tileprovider.tilesource.OnlineTileSourceBase;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+// Online tile source built from an XYZ or TMS URL template such as
+// https://{s}.tiles.example.com/{z}/{x}/{y}.png
+//
+// Tiles are spread over the {s} subdomains by (x + y), so neighbouring tiles load from different
+// hosts in parallel while a given tile always comes from the same host and stays cacheable
+// there. Each host gets its own connection limit, shared by every map using the source.
+public class UrlTemplateTileSource extends OnlineTileSourceBase {
+    private final String urlTemplate;
+    private final String[] subdomains;
+    private final boolean tms;
+    private final Map<String, String> headers;
+    private final int maxConnectionsPerHost;
+    private final Map<String, Semaphore> hostPermits = new HashMap<>();
+
+    public UrlTemplateTileSource(String name, String urlTemplate, String[] subdomains,
+                                 int minZoom, int maxZoom, int tileSize, boolean tms,
+                                 Map<String, String> headers, int maxConnectionsPerHost) {
+        super(name, minZoom, maxZoom, tileSize, "", new String[] {urlTemplate});
+        this.urlTemplate = urlTemplate;
+        this.subdomains = subdomains;
+        this.tms = tms;
+        this.headers = Collections.unmodifiableMap(headers);
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
+    public static UrlTemplateTileSource fromReadableMap(String name, ReadableMap map) {
+        String[] subdomains = new String[0];
+        if (map.hasKey("subdomains")) {
+            ReadableArray array = map.getArray("subdomains");
+            subdomains = new String[array.size()];
+            for (int i = 0; i < subdomains.length; i++) {
+                subdomains[i] = array.getString(i);
+            }
+        }
+
+        Map<String, String> headers = new HashMap<>();
+        if (map.hasKey("headers")) {
+            ReadableMap headerMap = map.getMap("headers");
+            ReadableMapKeySetIterator iterator = headerMap.keySetIterator();
+            while (iterator.hasNextKey()) {
+                String key = iterator.nextKey();
+                headers.put(key, headerMap.getString(key));
+            }
+        }
+
+        return new UrlTemplateTileSource(
+                name,
+                map.getString("urlTemplate"),
+                subdomains,
+                map.hasKey("minZoom") ? map.getInt("minZoom") : 0,
+                map.hasKey("maxZoom") ? map.getInt("maxZoom") : 19,
+                map.hasKey("tileSize") ? map.getInt("tileSize") : MercatorProjection.TILE_SIZE,
+                map.hasKey("tms") && map.getBoolean("tms"),
+                headers,
+                map.hasKey("maxConnectionsPerHost") ? Math.max(1, map.getInt("maxConnectionsPerHost")) : 2);
+    }
+
+    @Override
+    public String getTileURLString(MapTile tile) {
+        int y = tms ? (1 << tile.getZoomLevel()) - 1 - tile.getY() : tile.getY();
+        String url = urlTemplate
+                .replace("{z}", String.valueOf(tile.getZoomLevel()))
+                .replace("{x}", String.valueOf(tile.getX()))
+                .replace("{y}", String.valueOf(y));
+        if (subdomains.length > 0) {
+            url = url.replace("{s}", subdomains[(tile.getX() + tile.getY()) % subdomains.length]);
+        }
+        return url;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Number of hosts requests are spread over.
+     */
+    public int getHostCount() {
+        return Math.max(1, subdomains.length);
+    }
+
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    /**
+     * Connection permits of a host, created on first use.
+     */
+    public synchronized Semaphore permitsFor(String host) {
+        Semaphore permits = hostPermits.get(host);
+        if (permits == null) {
+            permits = new Semaphore(maxConnectionsPerHost, true);
+            hostPermits.put(host, permits);
+        }
+        return permits;
+    }
+}
@@ -0,0 +1,92 @@
+package com.airbnb.android.react.maps.open;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class BitmapPoolTest {
+
+    @Before
+    public void setUp() {
+        BitmapPool.clear();
+    }
+
+    @After
+    public void tearDown() {
+        BitmapPool.clear();
+    }
+
+    @Test
+    public void reusesReleasedBitmapsOfTheSameSizeAndConfig() {
+        Bitmap bitmap = BitmapPool.acquire(20, 10, Bitmap.Config.ARGB_8888);
+        BitmapPool.release(bitmap);
+        assertEquals(bytes(bitmap), BitmapPool.getSizeBytes());
+
+        assertSame(bitmap, BitmapPool.acquire(20, 10, Bitmap.Config.ARGB_8888));
+        assertEquals(0, BitmapPool.getSizeBytes());
+        // handed out once only
+        assertNotSame(bitmap, BitmapPool.acquire(20, 10, Bitmap.Config.ARGB_8888));
+    }
+
+    @Test
+    public void allocatesForOtherSizesAndConfigs() {
+        Bitmap bitmap = BitmapPool.acquire(20, 10, Bitmap.Config.ARGB_8888);
+        BitmapPool.release(bitmap);
+        assertNotSame(bitmap, BitmapPool.acquire(10, 20, Bitmap.Config.ARGB_8888));
+        assertNotSame(bitmap, BitmapPool.acquire(20, 10, Bitmap.Config.RGB_565));
+        assertEquals(bytes(bitmap), BitmapPool.getSizeBytes());
+    }
+
+    @Test
+    public void ignoresRecycledBitmaps() {
+        Bitmap bitmap = BitmapPool.acquire(20, 10, Bitmap.Config.ARGB_8888);
+        bitmap.recycle();
+        BitmapPool.release(bitmap);
+        BitmapPool.release(null);
+        assertEquals(0, BitmapPool.getSizeBytes());
+    }
+
+    @Test
+    public void trimsTheLeastRecentlyReleasedFirst() {
+        Bitmap older = BitmapPool.acquire(20, 10, Bitmap.Config.ARGB_8888);
+        Bitmap newer = BitmapPool.acquire(20, 10, Bitmap.Config.ARGB_8888);
+        BitmapPool.release(older);
+        BitmapPool.release(newer);
+
+        BitmapPool.trimToSize(bytes(newer));
+        assertTrue(older.isRecycled());
+        assertFalse(newer.isRecycled());
+        assertEquals(bytes(newer), BitmapPool.getSizeBytes());
+        assertSame(newer, BitmapPool.acquire(20, 10, Bitmap.Config.ARGB_8888));
+    }
+
+    @Test
+    public void emptiesOnceMemoryRunsLow() {
+        Bitmap bitmap = BitmapPool.acquire(20, 10, Bitmap.Config.ARGB_8888);
+        BitmapPool.release(bitmap);
+
+        BitmapPool.trimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE);
+        assertFalse(bitmap.isRecycled());
+        BitmapPool.trimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+        assertTrue(bitmap.isRecycled());
+        assertEquals(0, BitmapPool.getSizeBytes());
+    }
+
+    private static long bytes(Bitmap bitmap) {
+        return (long) bitmap.getRowBytes() * bitmap.getHeight();
+    }
+}
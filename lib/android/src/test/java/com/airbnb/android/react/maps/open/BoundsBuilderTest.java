@@ -0,0 +1,86 @@
+package com.airbnb.android.react.maps.open;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BoundsBuilderTest {
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void buildsNothingWhenEmpty() {
+        BoundsBuilder builder = new BoundsBuilder();
+        assertTrue(builder.isEmpty());
+        assertNull(builder.build());
+        builder.include(new double[0]);
+        assertTrue(builder.isEmpty());
+    }
+
+    @Test
+    public void boundsPointsOnOneSide() {
+        BoundsBuilder builder = new BoundsBuilder();
+        builder.include(48.8, 2.3);
+        builder.include(51.5, -0.1);
+        builder.include(40.4, -3.7);
+        assertFalse(builder.isEmpty());
+        assertBounds(40.4, -3.7, 51.5, 2.3, builder.build());
+    }
+
+    @Test
+    public void keepsBoxesAroundTheMeridianAsGiven() {
+        BoundsBuilder builder = new BoundsBuilder();
+        builder.include(0, -10);
+        builder.include(0, 10);
+        assertBounds(0, -10, 0, 10, builder.build());
+    }
+
+    @Test
+    public void crossesTheAntimeridianWhenNarrower() {
+        BoundsBuilder builder = new BoundsBuilder();
+        // Fiji and Samoa
+        builder.include(-18.1, 178.4);
+        builder.include(-13.8, -171.8);
+        assertBounds(-18.1, 178.4, -13.8, 188.2, builder.build());
+    }
+
+    @Test
+    public void picksTheNarrowerOfTwoWideBoxes() {
+        BoundsBuilder builder = new BoundsBuilder();
+        builder.include(0, -100);
+        builder.include(0, 100);
+        // 160 degrees across the antimeridian against 200 across the meridian
+        assertBounds(0, 100, 0, 260, builder.build());
+
+        builder.include(0, -20);
+        // 200 against 240 now
+        assertBounds(0, -100, 0, 100, builder.build());
+    }
+
+    @Test
+    public void extendsBoundsThatCrossTheAntimeridian() {
+        BoundsBuilder builder = new BoundsBuilder();
+        builder.include(new Bounds(-20, 170, -10, 190));
+        builder.include(-15, -175);
+        assertBounds(-20, 170, -10, 190, builder.build());
+        builder.include(-5, -160);
+        assertBounds(-20, 170, -5, 200, builder.build());
+    }
+
+    @Test
+    public void includesFlatArrays() {
+        BoundsBuilder builder = new BoundsBuilder();
+        // the trailing latitude has no longitude and is ignored
+        builder.include(new double[] {10, 20, 30, 40, 50});
+        assertBounds(10, 20, 30, 40, builder.build());
+    }
+
+    private static void assertBounds(double south, double west, double north, double east, Bounds bounds) {
+        assertEquals(south, bounds.getSouth(), DELTA);
+        assertEquals(west, bounds.getWest(), DELTA);
+        assertEquals(north, bounds.getNorth(), DELTA);
+        assertEquals(east, bounds.getEast(), DELTA);
+    }
+}
@@ -0,0 +1,53 @@
+package com.airbnb.android.react.maps.open;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CameraAnimatorTest {
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void easesInAndOut() {
+        assertEquals(0, CameraAnimator.Path.ease(0), DELTA);
+        assertEquals(0.5, CameraAnimator.Path.ease(0.5), DELTA);
+        assertEquals(1, CameraAnimator.Path.ease(1), DELTA);
+        // slower than linear near both ends
+        assertTrue(CameraAnimator.Path.ease(0.1) < 0.1);
+        assertTrue(CameraAnimator.Path.ease(0.9) > 0.9);
+        for (int i = 1; i <= 100; i++) {
+            assertTrue(CameraAnimator.Path.ease(i / 100.0) > CameraAnimator.Path.ease((i - 1) / 100.0));
+        }
+    }
+
+    @Test
+    public void startsAndFinishesAtTheCenters() {
+        CameraAnimator.Path path = new CameraAnimator.Path(48.85, 2.35, 40.71, -74.0);
+        assertEquals(48.85, path.latitudeAt(0), DELTA);
+        assertEquals(2.35, path.longitudeAt(0), DELTA);
+        assertEquals(40.71, path.latitudeAt(1), DELTA);
+        assertEquals(-74.0, path.longitudeAt(1), DELTA);
+    }
+
+    @Test
+    public void movesAlongAStraightLineInMercatorSpace() {
+        CameraAnimator.Path path = new CameraAnimator.Path(0, -10, 60, 30);
+        assertEquals(10, path.longitudeAt(0.5), DELTA);
+        double midY = (MercatorProjection.y(0) + MercatorProjection.y(60)) / 2;
+        assertEquals(MercatorProjection.latitude(midY), path.latitudeAt(0.5), DELTA);
+    }
+
+    @Test
+    public void takesTheShortWayAcrossTheAntimeridian() {
+        CameraAnimator.Path east = new CameraAnimator.Path(0, 170, 0, -170);
+        assertEquals(175, east.longitudeAt(0.25), DELTA);
+        assertEquals(-175, east.longitudeAt(0.75), DELTA);
+        assertEquals(-170, east.longitudeAt(1), DELTA);
+
+        CameraAnimator.Path west = new CameraAnimator.Path(0, -170, 0, 170);
+        assertEquals(-175, west.longitudeAt(0.25), DELTA);
+        assertEquals(175, west.longitudeAt(0.75), DELTA);
+        assertEquals(170, west.longitudeAt(1), DELTA);
+    }
+}
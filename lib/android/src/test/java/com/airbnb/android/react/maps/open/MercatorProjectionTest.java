@@ -0,0 +1,49 @@
+package com.airbnb.android.react.maps.open;
+
+import org.junit.After;
+import org.junit.Test;
+import org.osmdroid.util.TileSystem;
+
+import static org.junit.Assert.assertEquals;
+
+public class MercatorProjectionTest {
+    private final int tileSize = TileSystem.getTileSize();
+
+    @After
+    public void tearDown() {
+        TileSystem.setTileSize(tileSize);
+    }
+
+    @Test
+    public void worldSizeFollowsTheTileSystem() {
+        TileSystem.setTileSize(256);
+        assertEquals(256 * 1024, MercatorProjection.worldSize(10), 0);
+        TileSystem.setTileSize(512);
+        assertEquals(512 * 1024, MercatorProjection.worldSize(10), 0);
+    }
+
+    @Test
+    public void zoomToFitFollowsTheTileSize() {
+        // a tenth of the world into 1000 pixels: 10000 pixels of world at most
+        TileSystem.setTileSize(256);
+        assertEquals(5, MercatorProjection.zoomToFit(0.1, 0, 1000, 1000));
+        TileSystem.setTileSize(512);
+        assertEquals(4, MercatorProjection.zoomToFit(0.1, 0, 1000, 1000));
+        assertEquals(5, MercatorProjection.zoomToFit(0.1, 0, 1000, 1000, 256));
+    }
+
+    @Test
+    public void zoomToFitTakesTheTighterAxis() {
+        assertEquals(2, MercatorProjection.zoomToFit(0.1, 0.5, 1000, 1000, 256));
+        assertEquals(Integer.MAX_VALUE, MercatorProjection.zoomToFit(0, 0, 1000, 1000, 256));
+    }
+
+    @Test
+    public void projectsAndUnprojects() {
+        assertEquals(0.5, MercatorProjection.x(0), 1e-12);
+        assertEquals(0.5, MercatorProjection.y(0), 1e-12);
+        assertEquals(48.85, MercatorProjection.latitude(MercatorProjection.y(48.85)), 1e-9);
+        assertEquals(-120.2, MercatorProjection.longitude(MercatorProjection.x(-120.2)), 1e-9);
+        assertEquals(0, MercatorProjection.y(90), 1e-9);
+    }
+}
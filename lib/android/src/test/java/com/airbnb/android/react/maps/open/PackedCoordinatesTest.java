@@ -0,0 +1,82 @@
+package com.airbnb.android.react.maps.open;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class PackedCoordinatesTest {
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void decodesReferenceExample() {
+        // the example of the Encoded Polyline Algorithm Format documentation
+        double[] latLngs = PackedCoordinates.fromEncodedPolyline("_p~iF~ps|U_ulLnnqC_mqNvxq`@");
+        assertArrayEquals(new double[] {38.5, -120.2, 40.7, -120.95, 43.252, -126.453}, latLngs, DELTA);
+    }
+
+    @Test
+    public void decodesEmptyString() {
+        assertEquals(0, PackedCoordinates.fromEncodedPolyline("").length);
+    }
+
+    @Test
+    public void dropsTrailingLatitudeWithoutLongitude() {
+        double[] latLngs = PackedCoordinates.fromEncodedPolyline("_p~iF~ps|U_ulL");
+        assertArrayEquals(new double[] {38.5, -120.2}, latLngs, DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInputEndingInsideALatitude() {
+        // "_p~iF" with its last character missing still has the continuation bit set
+        PackedCoordinates.fromEncodedPolyline("_p~i");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInputEndingInsideALongitude() {
+        PackedCoordinates.fromEncodedPolyline("_p~iF~ps|");
+    }
+
+    @Test
+    public void roundTripsWithPrecision() {
+        Random random = new Random(7);
+        for (int precision = 5; precision <= 6; precision++) {
+            double factor = Math.pow(10, precision);
+            double[] expected = new double[400];
+            for (int i = 0; i < expected.length; i += 2) {
+                expected[i] = Math.round((random.nextDouble() * 170 - 85) * factor) / factor;
+                expected[i + 1] = Math.round((random.nextDouble() * 360 - 180) * factor) / factor;
+            }
+            double[] latLngs = precision == 5
+                    ? PackedCoordinates.fromEncodedPolyline(encode(expected, factor))
+                    : PackedCoordinates.fromEncodedPolyline(encode(expected, factor), precision);
+            assertArrayEquals(expected, latLngs, DELTA);
+        }
+    }
+
+    private static String encode(double[] latLngs, double factor) {
+        StringBuilder encoded = new StringBuilder();
+        long lastLat = 0;
+        long lastLng = 0;
+        for (int i = 0; i < latLngs.length; i += 2) {
+            long lat = Math.round(latLngs[i] * factor);
+            long lng = Math.round(latLngs[i + 1] * factor);
+            encodeValue(lat - lastLat, encoded);
+            encodeValue(lng - lastLng, encoded);
+            lastLat = lat;
+            lastLng = lng;
+        }
+        return encoded.toString();
+    }
+
+    private static void encodeValue(long value, StringBuilder encoded) {
+        value = value < 0 ? ~(value << 1) : value << 1;
+        while (value >= 0x20) {
+            encoded.append((char) ((0x20 | (value & 0x1f)) + 63));
+            value >>= 5;
+        }
+        encoded.append((char) (value + 63));
+    }
+}
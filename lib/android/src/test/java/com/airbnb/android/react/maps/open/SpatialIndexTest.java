@@ -0,0 +1,142 @@
+package com.airbnb.android.react.maps.open;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SpatialIndexTest {
+
+    @Test
+    public void queriesMatchBruteForce() {
+        Random random = new Random(11);
+        SpatialIndex<Integer> index = new SpatialIndex<>();
+        Map<Integer, Bounds> all = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            Bounds bounds = randomBounds(random, i % 10 == 0 ? 40 : 0.5);
+            index.insert(i, bounds);
+            all.put(i, bounds);
+        }
+        assertEquals(2000, index.size());
+        for (int q = 0; q < 200; q++) {
+            assertQuery(index, all, randomBounds(random, q % 2 == 0 ? 5 : 60));
+        }
+    }
+
+    @Test
+    public void removedItemsAreNotFound() {
+        Random random = new Random(12);
+        SpatialIndex<Integer> index = new SpatialIndex<>();
+        Map<Integer, Bounds> all = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            Bounds bounds = randomBounds(random, 2);
+            index.insert(i, bounds);
+            all.put(i, bounds);
+        }
+        for (int i = 0; i < 500; i += 3) {
+            index.remove(i);
+            all.remove(i);
+            assertFalse(index.contains(i));
+            assertNull(index.boundsOf(i));
+        }
+        // removing twice is harmless
+        index.remove(0);
+        assertEquals(all.size(), index.size());
+        assertQuery(index, all, new Bounds(-90, -180, 90, 180));
+        assertQuery(index, all, new Bounds(0, 0, 30, 30));
+    }
+
+    @Test
+    public void insertingAgainMovesItem() {
+        SpatialIndex<String> index = new SpatialIndex<>();
+        Bounds paris = new Bounds(48.8, 2.3, 48.9, 2.4);
+        Bounds tokyo = new Bounds(35.6, 139.6, 35.7, 139.8);
+        index.insert("a", paris);
+        index.insert("a", tokyo);
+        assertEquals(1, index.size());
+        assertSame(tokyo, index.boundsOf("a"));
+
+        List<String> out = new ArrayList<>();
+        index.query(new Bounds(48, 2, 49, 3), out);
+        assertTrue(out.isEmpty());
+        index.query(new Bounds(35, 139, 36, 140), out);
+        assertEquals(1, out.size());
+    }
+
+    @Test
+    public void findsItemsOnTheEdgesOfTheSearchedArea() {
+        SpatialIndex<String> index = new SpatialIndex<>();
+        index.insert("point", new Bounds(10, 20, 10, 20));
+        index.insert("world", new Bounds(-90, -180, 90, 180));
+        List<String> out = new ArrayList<>();
+        index.query(new Bounds(0, 0, 10, 20), out);
+        assertEquals(new HashSet<>(Arrays.asList("point", "world")), new HashSet<>(out));
+    }
+
+    @Test
+    public void queriesAcrossTheAntimeridianInTwoHalves() {
+        SpatialIndex<String> index = new SpatialIndex<>();
+        index.insert("fiji", new Bounds(-18, 178, -17, 179));
+        index.insert("samoa", new Bounds(-14, -172, -13, -171));
+        index.insert("spanning", new Bounds(-16, -180, -15, 180));
+        index.insert("paris", new Bounds(48, 2, 49, 3));
+
+        List<String> out = new ArrayList<>();
+        index.query(-20, 170, -10, -160, out);
+        assertEquals(3, out.size());
+        assertEquals(new HashSet<>(Arrays.asList("fiji", "samoa", "spanning")), new HashSet<>(out));
+
+        out.clear();
+        index.query(-20, 179.5, -10, -175, out);
+        assertEquals(Arrays.asList("spanning"), out);
+    }
+
+    @Test
+    public void clearRemovesEverything() {
+        Random random = new Random(13);
+        SpatialIndex<Integer> index = new SpatialIndex<>();
+        for (int i = 0; i < 100; i++) {
+            index.insert(i, randomBounds(random, 1));
+        }
+        index.clear();
+        assertEquals(0, index.size());
+        List<Integer> out = new ArrayList<>();
+        index.query(new Bounds(-90, -180, 90, 180), out);
+        assertTrue(out.isEmpty());
+
+        index.insert(1, new Bounds(1, 1, 2, 2));
+        index.query(new Bounds(-90, -180, 90, 180), out);
+        assertEquals(1, out.size());
+    }
+
+    private static void assertQuery(SpatialIndex<Integer> index, Map<Integer, Bounds> all, Bounds area) {
+        Set<Integer> expected = new HashSet<>();
+        for (Map.Entry<Integer, Bounds> entry : all.entrySet()) {
+            if (area.intersects(entry.getValue())) expected.add(entry.getKey());
+        }
+        List<Integer> out = new ArrayList<>();
+        index.query(area, out);
+        assertEquals("duplicates in query result", new HashSet<>(out).size(), out.size());
+        assertEquals(expected, new HashSet<>(out));
+    }
+
+    private static Bounds randomBounds(Random random, double maxSpan) {
+        double latSpan = random.nextDouble() * maxSpan;
+        double lngSpan = random.nextDouble() * maxSpan;
+        double south = -85 + random.nextDouble() * (170 - latSpan);
+        double west = -180 + random.nextDouble() * (360 - lngSpan);
+        return new Bounds(south, west, south + latSpan, west + lngSpan);
+    }
+}
@@ -0,0 +1,174 @@
+package com.airbnb.android.react.maps.open.layer;
+
+import com.airbnb.android.react.maps.open.MercatorProjection;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// android.util.JsonReader is only a stub in the unit test android.jar
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class GeoJsonReaderTest {
+    private static final double DELTA = 1e-7;
+
+    @Test
+    public void splitsLargeDocumentsIntoChunksAtFeatureBoundaries() throws IOException {
+        int features = 100;
+        int verticesPerFeature = 500;
+        StringBuilder json = new StringBuilder("{\"type\":\"FeatureCollection\",\"features\":[");
+        for (int f = 0; f < features; f++) {
+            if (f > 0) json.append(',');
+            json.append("{\"type\":\"Feature\",\"properties\":{\"name\":\"line ").append(f)
+                    .append("\",\"tags\":[1,{\"a\":null}]},\"geometry\":{\"type\":\"LineString\",\"coordinates\":[");
+            for (int i = 0; i < verticesPerFeature; i++) {
+                if (i > 0) json.append(',');
+                json.append('[').append(-10 + i * 0.01).append(',').append(f * 0.1).append(']');
+            }
+            json.append("]}}");
+        }
+        json.append("]}");
+
+        Chunks chunks = read(json.toString());
+        assertEquals(features, chunks.reader.getFeatureCount());
+        assertEquals(features * verticesPerFeature, chunks.reader.getVertexCount());
+
+        int total = 0;
+        for (int c = 0; c < chunks.list.size(); c++) {
+            GeoJsonChunk chunk = chunks.list.get(c);
+            if (c < chunks.list.size() - 1) {
+                assertTrue(chunk.vertexCount() >= GeoJsonReader.CHUNK_VERTICES);
+                assertTrue(chunk.vertexCount() < GeoJsonReader.CHUNK_VERTICES + verticesPerFeature);
+            }
+            // whole features only
+            assertEquals(0, chunk.vertexCount() % verticesPerFeature);
+            assertEquals(chunk.vertexCount() / verticesPerFeature, chunk.partCount);
+            for (int p = 0; p < chunk.partCount; p++) {
+                assertEquals(GeoJsonChunk.LINE, chunk.partTypes[p]);
+            }
+            total += chunk.vertexCount();
+        }
+        assertEquals(features * verticesPerFeature, total);
+        int featuresPerChunk = (GeoJsonReader.CHUNK_VERTICES + verticesPerFeature - 1) / verticesPerFeature;
+        assertEquals((features + featuresPerChunk - 1) / featuresPerChunk, chunks.list.size());
+    }
+
+    @Test
+    public void projectsVerticesRelativeToTheChunkOrigin() throws IOException {
+        Chunks chunks = read("{\"type\":\"LineString\",\"coordinates\":[[2.35,48.85],[13.4,52.52]]}");
+        assertEquals(1, chunks.list.size());
+        GeoJsonChunk chunk = chunks.list.get(0);
+        assertEquals(MercatorProjection.x(2.35), chunk.minX, DELTA);
+        assertEquals(MercatorProjection.x(13.4), chunk.maxX, DELTA);
+        assertEquals(MercatorProjection.y(52.52), chunk.minY, DELTA);
+        assertEquals(MercatorProjection.y(48.85), chunk.maxY, DELTA);
+        assertEquals(MercatorProjection.x(2.35), chunk.originX + chunk.coords[0], DELTA);
+        assertEquals(MercatorProjection.y(48.85), chunk.originY + chunk.coords[1], DELTA);
+        assertEquals(MercatorProjection.x(13.4), chunk.originX + chunk.coords[2], DELTA);
+        assertEquals(MercatorProjection.y(52.52), chunk.originY + chunk.coords[3], DELTA);
+    }
+
+    @Test
+    public void typesPartsOfEveryGeometry() throws IOException {
+        // members in any order: coordinates before type, and a geometry collection
+        String json = "{\"type\":\"FeatureCollection\",\"features\":["
+                + "{\"geometry\":{\"coordinates\":[1,2],\"type\":\"Point\"},\"type\":\"Feature\"},"
+                + "{\"type\":\"Feature\",\"geometry\":{\"type\":\"MultiPoint\",\"coordinates\":[[1,2],[3,4]]}},"
+                + "{\"type\":\"Feature\",\"geometry\":{\"type\":\"Polygon\",\"coordinates\":"
+                + "[[[0,0],[10,0],[10,10],[0,0]],[[1,1],[2,1],[2,2],[1,1]]]}},"
+                + "{\"type\":\"Feature\",\"geometry\":{\"type\":\"MultiPolygon\",\"coordinates\":"
+                + "[[[[0,0],[1,0],[1,1],[0,0]]],[[[5,5],[6,5],[6,6],[5,5]],[[5.1,5.1],[5.2,5.1],[5.2,5.2],[5.1,5.1]]]]}},"
+                + "{\"type\":\"Feature\",\"geometry\":{\"type\":\"GeometryCollection\",\"geometries\":["
+                + "{\"type\":\"MultiLineString\",\"coordinates\":[[[0,0],[1,1]],[[2,2],[3,3]]]}]}}"
+                + "]}";
+        Chunks chunks = read(json);
+        assertEquals(5, chunks.reader.getFeatureCount());
+        assertEquals(1, chunks.list.size());
+        GeoJsonChunk chunk = chunks.list.get(0);
+        byte[] expected = {
+                GeoJsonChunk.POINTS,
+                GeoJsonChunk.POINTS,
+                GeoJsonChunk.POLYGON, GeoJsonChunk.HOLE,
+                GeoJsonChunk.POLYGON, GeoJsonChunk.POLYGON, GeoJsonChunk.HOLE,
+                GeoJsonChunk.LINE, GeoJsonChunk.LINE
+        };
+        assertEquals(expected.length, chunk.partCount);
+        for (int p = 0; p < expected.length; p++) {
+            assertEquals("part " + p, expected[p], chunk.partTypes[p]);
+        }
+        int[] sizes = {1, 2, 4, 4, 4, 4, 4, 2, 2};
+        for (int p = 0; p < sizes.length; p++) {
+            assertEquals("part " + p, sizes[p], chunk.partStarts[p + 1] - chunk.partStarts[p]);
+        }
+    }
+
+    @Test
+    public void stopsWhenCancelled() throws IOException {
+        StringBuilder json = new StringBuilder("{\"type\":\"FeatureCollection\",\"features\":[");
+        for (int f = 0; f < 10; f++) {
+            if (f > 0) json.append(',');
+            json.append("{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[1,2]}}");
+        }
+        json.append("]}");
+
+        final int[] checks = {0};
+        final List<GeoJsonChunk> list = new ArrayList<>();
+        GeoJsonReader reader = new GeoJsonReader(new GeoJsonReader.Callback() {
+            @Override
+            public void onChunk(GeoJsonChunk chunk) {
+                list.add(chunk);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return ++checks[0] >= 3;
+            }
+        });
+        assertFalse(reader.read(new StringReader(json.toString())));
+        assertEquals(3, reader.getFeatureCount());
+        assertTrue(list.isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsDocumentsThatAreNoObject() throws IOException {
+        read("[1, 2, 3]");
+    }
+
+    @Test
+    public void readsDocumentsWithoutGeometry() throws IOException {
+        Chunks chunks = read("{\"type\":\"FeatureCollection\",\"features\":[]}");
+        assertTrue(chunks.list.isEmpty());
+        assertEquals(0, chunks.reader.getFeatureCount());
+    }
+
+    private static Chunks read(String json) throws IOException {
+        Chunks chunks = new Chunks();
+        assertTrue(chunks.reader.read(new StringReader(json)));
+        return chunks;
+    }
+
+    private static class Chunks implements GeoJsonReader.Callback {
+        final List<GeoJsonChunk> list = new ArrayList<>();
+        final GeoJsonReader reader = new GeoJsonReader(this);
+
+        @Override
+        public void onChunk(GeoJsonChunk chunk) {
+            list.add(chunk);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    }
+}
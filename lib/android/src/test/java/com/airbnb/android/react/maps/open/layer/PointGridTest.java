@@ -0,0 +1,103 @@
+package com.airbnb.android.react.maps.open.layer;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class PointGridTest {
+
+    @Test
+    public void findsNothingInAnEmptyGrid() {
+        PointGrid grid = new PointGrid();
+        grid.build(new double[0], new double[0], 0);
+        assertEquals(-1, grid.nearest(new double[0], new double[0], 0.5, 0.5, 1));
+    }
+
+    @Test
+    public void findsOnlyPointsWithinTheRadius() {
+        double[] xs = {0.5, 0.6};
+        double[] ys = {0.5, 0.5};
+        PointGrid grid = new PointGrid();
+        grid.build(xs, ys, 2);
+        assertEquals(0, grid.nearest(xs, ys, 0.52, 0.5, 0.05));
+        assertEquals(1, grid.nearest(xs, ys, 0.58, 0.5, 0.05));
+        assertEquals(-1, grid.nearest(xs, ys, 0.55, 0.5, 0.01));
+        assertEquals(-1, grid.nearest(xs, ys, 0.5, 0.7, 0.1));
+    }
+
+    @Test
+    public void findsPointsAcrossTheAntimeridian() {
+        double[] xs = {0.001, 0.5};
+        double[] ys = {0.5, 0.5};
+        PointGrid grid = new PointGrid();
+        grid.build(xs, ys, 2);
+        assertEquals(0, grid.nearest(xs, ys, 0.999, 0.5, 0.01));
+
+        double[] east = {0.999, 0.5};
+        grid.build(east, ys, 2);
+        assertEquals(0, grid.nearest(east, ys, 0.002, 0.5, 0.01));
+    }
+
+    @Test
+    public void usesOnlyTheFirstCountPoints() {
+        double[] xs = {0.2, 0.5};
+        double[] ys = {0.2, 0.5};
+        PointGrid grid = new PointGrid();
+        grid.build(xs, ys, 1);
+        assertEquals(-1, grid.nearest(xs, ys, 0.5, 0.5, 0.01));
+        assertEquals(0, grid.nearest(xs, ys, 0.2, 0.2, 0.01));
+    }
+
+    @Test
+    public void agreesWithABruteForceSearch() {
+        Random random = new Random(8);
+        int n = 5000;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            // clustered around a city with some points elsewhere
+            boolean city = random.nextInt(4) > 0;
+            xs[i] = city ? 0.3 + random.nextGaussian() * 0.01 : random.nextDouble();
+            ys[i] = city ? 0.4 + random.nextGaussian() * 0.01 : random.nextDouble();
+        }
+        PointGrid grid = new PointGrid();
+        grid.build(xs, ys, n);
+
+        for (int q = 0; q < 2000; q++) {
+            double x = q % 2 == 0 ? 0.3 + random.nextGaussian() * 0.02 : random.nextDouble();
+            double y = q % 2 == 0 ? 0.4 + random.nextGaussian() * 0.02 : random.nextDouble();
+            double radius = random.nextDouble() * 0.01;
+            int found = grid.nearest(xs, ys, x, y, radius);
+            int expected = bruteForce(xs, ys, x, y, radius);
+            if (expected == -1) {
+                assertEquals(-1, found);
+            } else {
+                // ties may resolve to either point
+                assertEquals(distance(xs, ys, expected, x, y), distance(xs, ys, found, x, y), 1e-15);
+            }
+        }
+    }
+
+    private static int bruteForce(double[] xs, double[] ys, double x, double y, double radius) {
+        int best = -1;
+        double bestDistance = radius * radius;
+        for (int i = 0; i < xs.length; i++) {
+            double distance = distance(xs, ys, i, x, y);
+            if (distance <= bestDistance) {
+                bestDistance = distance;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static double distance(double[] xs, double[] ys, int i, double x, double y) {
+        double dx = xs[i] - x;
+        // across the antimeridian when that is shorter
+        dx -= Math.rint(dx);
+        double dy = ys[i] - y;
+        return dx * dx + dy * dy;
+    }
+}
@@ -0,0 +1,61 @@
+package com.airbnb.android.react.maps.open.marker;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class MarkerAnimatorTest {
+    private static final double DELTA = 1e-9;
+    private static final long MS = 1000000L;
+
+    @Test
+    public void startsOnItsFirstFrame() {
+        MarkerAnimator.Animation animation = new MarkerAnimator.Animation(null, 0, 0, 10, 20, 1000 * MS);
+        assertEquals(0, animation.progress(5000 * MS), DELTA);
+        assertEquals(0.25, animation.progress(5250 * MS), DELTA);
+    }
+
+    @Test
+    public void interpolatesLinearly() {
+        MarkerAnimator.Animation animation = new MarkerAnimator.Animation(null, 10, -20, 30, 40, 1000 * MS);
+        animation.progress(0);
+        double t = animation.progress(500 * MS);
+        assertEquals(20, animation.latitudeAt(t), DELTA);
+        assertEquals(10, animation.longitudeAt(t), DELTA);
+        assertEquals(10, animation.latitudeAt(0), DELTA);
+        assertEquals(-20, animation.longitudeAt(0), DELTA);
+    }
+
+    @Test
+    public void finishesAtTheTarget() {
+        MarkerAnimator.Animation animation = new MarkerAnimator.Animation(null, 10, -20, 30, 40, 1000 * MS);
+        animation.progress(0);
+        assertEquals(1, animation.progress(1000 * MS), DELTA);
+        // late frames don't overshoot
+        assertEquals(1, animation.progress(3000 * MS), DELTA);
+        assertEquals(30, animation.latitudeAt(1), DELTA);
+        assertEquals(40, animation.longitudeAt(1), DELTA);
+    }
+
+    @Test
+    public void takesTheShortWayAcrossTheAntimeridian() {
+        MarkerAnimator.Animation east = new MarkerAnimator.Animation(null, 0, 170, 0, -170, 1000 * MS);
+        assertEquals(190, east.toLongitude, DELTA);
+        assertEquals(180, east.longitudeAt(0.5), DELTA);
+        assertEquals(-170, MarkerAnimator.wrapLongitude(east.longitudeAt(1)), DELTA);
+
+        MarkerAnimator.Animation west = new MarkerAnimator.Animation(null, 0, -170, 0, 170, 1000 * MS);
+        assertEquals(-190, west.toLongitude, DELTA);
+        assertEquals(-175, west.longitudeAt(0.25), DELTA);
+        assertEquals(170, MarkerAnimator.wrapLongitude(west.longitudeAt(1)), DELTA);
+    }
+
+    @Test
+    public void keepsLongitudesInRange() {
+        assertEquals(0, MarkerAnimator.wrapLongitude(0), DELTA);
+        assertEquals(180, MarkerAnimator.wrapLongitude(180), DELTA);
+        assertEquals(-180, MarkerAnimator.wrapLongitude(-180), DELTA);
+        assertEquals(-179, MarkerAnimator.wrapLongitude(181), DELTA);
+        assertEquals(179, MarkerAnimator.wrapLongitude(-181), DELTA);
+    }
+}
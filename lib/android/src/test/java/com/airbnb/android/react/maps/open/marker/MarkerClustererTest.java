@@ -0,0 +1,129 @@
+package com.airbnb.android.react.maps.open.marker;
+
+import com.airbnb.android.react.maps.open.MercatorProjection;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MarkerClustererTest {
+    private static final double RADIUS_PX = 60;
+    private static final double DELTA = 1e-12;
+
+    @Test
+    public void leavesAreTheMarkers() {
+        double[] xs = {0.1, 0.2, 0.3};
+        double[] ys = {0.4, 0.5, 0.6};
+        MarkerClusterer.Level leaves = MarkerClusterer.buildLevels(xs, ys, RADIUS_PX)[MarkerClusterer.MAX_ZOOM + 1];
+        assertEquals(3, leaves.size);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(xs[i], leaves.x[i], 0);
+            assertEquals(ys[i], leaves.y[i], 0);
+            assertEquals(1, leaves.count[i]);
+        }
+    }
+
+    @Test
+    public void mergesTwoMarkersOnceWithinRadius() {
+        // 1000 pixels apart at zoom 10
+        double distance = 1000 / MercatorProjection.worldSize(10);
+        double[] xs = {0.5, 0.5 + distance};
+        double[] ys = {0.5, 0.5};
+        MarkerClusterer.Level[] levels = MarkerClusterer.buildLevels(xs, ys, RADIUS_PX);
+        for (int z = 0; z <= MarkerClusterer.MAX_ZOOM; z++) {
+            boolean within = distance * MercatorProjection.worldSize(z) <= RADIUS_PX;
+            assertEquals("zoom " + z, within ? 1 : 2, levels[z].size);
+        }
+        MarkerClusterer.Level top = levels[0];
+        assertEquals(2, top.count[0]);
+        assertEquals(0.5 + distance / 2, top.x[0], DELTA);
+        assertEquals(0.5, top.y[0], DELTA);
+    }
+
+    @Test
+    public void levelsAreConsistent() {
+        Random random = new Random(21);
+        int n = 3000;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            // a few dense groups and some scattered markers
+            int group = random.nextInt(6);
+            double spread = group == 0 ? 0.5 : 0.001;
+            xs[i] = 0.25 + group * 0.1 + random.nextGaussian() * spread;
+            ys[i] = 0.4 + group * 0.02 + random.nextGaussian() * spread;
+            xs[i] = Math.max(0, Math.min(1, xs[i]));
+            ys[i] = Math.max(0, Math.min(1, ys[i]));
+        }
+        MarkerClusterer.Level[] levels = MarkerClusterer.buildLevels(xs, ys, RADIUS_PX);
+
+        for (int z = MarkerClusterer.MAX_ZOOM + 1; z > 0; z--) {
+            MarkerClusterer.Level level = levels[z];
+            MarkerClusterer.Level below = levels[z - 1];
+            assertTrue(below.size <= level.size);
+
+            int[] counts = new int[below.size];
+            double[] sumX = new double[below.size];
+            double[] sumY = new double[below.size];
+            for (int i = 0; i < level.size; i++) {
+                int parent = level.parent[i];
+                assertTrue(parent >= 0 && parent < below.size);
+                counts[parent] += level.count[i];
+                sumX[parent] += level.x[i] * level.count[i];
+                sumY[parent] += level.y[i] * level.count[i];
+
+                // every cluster is absorbed by one seeded within the radius of it
+                double radius = RADIUS_PX / MercatorProjection.worldSize(z - 1);
+                assertTrue(nearestSeedDistance(level, parent, i) <= radius + DELTA);
+            }
+            int total = 0;
+            for (int c = 0; c < below.size; c++) {
+                assertEquals(counts[c], below.count[c]);
+                assertEquals(sumX[c] / counts[c], below.x[c], 1e-9);
+                assertEquals(sumY[c] / counts[c], below.y[c], 1e-9);
+                total += below.count[c];
+            }
+            assertEquals(n, total);
+        }
+        assertTrue(levels[MarkerClusterer.MAX_ZOOM].size > levels[0].size);
+    }
+
+    @Test
+    public void handlesNoMarkers() {
+        MarkerClusterer.Level[] levels = MarkerClusterer.buildLevels(new double[0], new double[0], RADIUS_PX);
+        for (int z = 0; z <= MarkerClusterer.MAX_ZOOM + 1; z++) {
+            assertEquals(0, levels[z].size);
+        }
+    }
+
+    @Test
+    public void cellTableMapsEveryKey() {
+        MarkerClusterer.CellTable table = new MarkerClusterer.CellTable(1000);
+        Random random = new Random(5);
+        long[] keys = new long[1000];
+        for (int i = 0; i < keys.length; i++) {
+            // negative cells and keys that differ only in their high half included
+            keys[i] = i % 2 == 0 ? random.nextLong() : ((long) i << 32) - 1;
+            assertEquals(-1, table.put(keys[i], i));
+        }
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i, table.get(keys[i]));
+        }
+        assertEquals(-1, table.get(0));
+        assertEquals(3, table.put(keys[3], 7));
+        assertEquals(7, table.get(keys[3]));
+    }
+
+    // distance from a cluster to the first member of its parent, the cluster the parent grew from
+    private static double nearestSeedDistance(MarkerClusterer.Level level, int parent, int i) {
+        for (int j = 0; j < level.size; j++) {
+            if (level.parent[j] == parent) {
+                return Math.hypot(level.x[i] - level.x[j], level.y[i] - level.y[j]);
+            }
+        }
+        throw new AssertionError();
+    }
+}
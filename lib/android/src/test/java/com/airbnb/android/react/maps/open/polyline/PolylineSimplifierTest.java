@@ -0,0 +1,144 @@
+package com.airbnb.android.react.maps.open.polyline;
+
+import com.airbnb.android.react.maps.open.MercatorProjection;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PolylineSimplifierTest {
+
+    @Test
+    public void keepsEndpointsAtEveryZoom() {
+        PolylineSimplifier simplifier = new PolylineSimplifier(randomWalk(500, 1));
+        for (int zoom = 0; zoom <= PolylineSimplifier.MAX_ZOOM; zoom++) {
+            int[] indices = simplifier.indicesForZoom(zoom);
+            assertEquals(0, indices[0]);
+            assertEquals(499, indices[indices.length - 1]);
+        }
+    }
+
+    @Test
+    public void dropsCollinearVertices() {
+        double[] latLngs = new double[] {0, 0, 0, 1, 0, 2, 0, 3, 0, 4};
+        PolylineSimplifier simplifier = new PolylineSimplifier(latLngs);
+        assertArrayEquals(new int[] {0, 4}, simplifier.indicesForZoom(PolylineSimplifier.MAX_ZOOM));
+    }
+
+    @Test
+    public void keepsSpikesOnlyWhenZoomedIn() {
+        // a spike of about a tenth of a degree off a straight line
+        double[] latLngs = new double[] {0, 0, 0.1, 2, 0, 4};
+        PolylineSimplifier simplifier = new PolylineSimplifier(latLngs);
+        assertArrayEquals(new int[] {0, 2}, simplifier.indicesForZoom(0));
+        assertArrayEquals(new int[] {0, 1, 2}, simplifier.indicesForZoom(12));
+    }
+
+    @Test
+    public void levelsAreNestedAndGrowWithZoom() {
+        PolylineSimplifier simplifier = new PolylineSimplifier(randomWalk(2000, 2));
+        int[] previous = simplifier.indicesForZoom(0);
+        for (int zoom = 1; zoom <= PolylineSimplifier.MAX_ZOOM; zoom++) {
+            int[] indices = simplifier.indicesForZoom(zoom);
+            assertTrue(indices.length >= previous.length);
+            int j = 0;
+            for (int i = 0; i < indices.length; i++) {
+                if (i > 0) assertTrue(indices[i] > indices[i - 1]);
+                if (j < previous.length && previous[j] == indices[i]) j++;
+            }
+            assertEquals("level " + zoom + " drops vertices of level " + (zoom - 1), previous.length, j);
+            previous = indices;
+        }
+    }
+
+    @Test
+    public void matchesDouglasPeuckerAtEveryZoom() {
+        double[] latLngs = randomWalk(3000, 3);
+        PolylineSimplifier simplifier = new PolylineSimplifier(latLngs);
+        int count = simplifier.getCount();
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        for (int i = 0; i < count; i++) {
+            xs[i] = simplifier.getX(i);
+            ys[i] = simplifier.getY(i);
+        }
+        for (int zoom = 0; zoom <= PolylineSimplifier.MAX_ZOOM; zoom++) {
+            double tolerance = 0.75 / MercatorProjection.worldSize(zoom);
+            List<Integer> expected = new ArrayList<>();
+            expected.add(0);
+            douglasPeucker(xs, ys, 0, count - 1, tolerance, expected);
+            expected.add(count - 1);
+
+            int[] indices = simplifier.indicesForZoom(zoom);
+            assertEquals("zoom " + zoom, expected.size(), indices.length);
+            for (int i = 0; i < indices.length; i++) {
+                assertEquals("zoom " + zoom, (int) expected.get(i), indices[i]);
+            }
+        }
+    }
+
+    @Test
+    public void cachesAndClampsLevels() {
+        PolylineSimplifier simplifier = new PolylineSimplifier(randomWalk(100, 4));
+        assertSame(simplifier.indicesForZoom(5), simplifier.indicesForZoom(5));
+        assertSame(simplifier.indicesForZoom(PolylineSimplifier.MAX_ZOOM), simplifier.indicesForZoom(30));
+        assertSame(simplifier.indicesForZoom(0), simplifier.indicesForZoom(-1));
+    }
+
+    @Test
+    public void handlesShortLines() {
+        assertEquals(0, new PolylineSimplifier(new double[0]).indicesForZoom(10).length);
+        assertArrayEquals(new int[] {0}, new PolylineSimplifier(new double[] {1, 2}).indicesForZoom(10));
+        assertArrayEquals(new int[] {0, 1},
+                new PolylineSimplifier(new double[] {1, 2, 1, 2}).indicesForZoom(10));
+    }
+
+    // textbook recursive Douglas-Peucker, adding the kept inner vertices in order
+    private static void douglasPeucker(double[] xs, double[] ys, int first, int last, double tolerance,
+                                       List<Integer> kept) {
+        if (last - first < 2) return;
+        int split = -1;
+        double max = -1;
+        for (int i = first + 1; i < last; i++) {
+            double d = distance(xs, ys, i, first, last);
+            if (d > max) {
+                max = d;
+                split = i;
+            }
+        }
+        if (max <= tolerance) return;
+        douglasPeucker(xs, ys, first, split, tolerance, kept);
+        kept.add(split);
+        douglasPeucker(xs, ys, split, last, tolerance, kept);
+    }
+
+    private static double distance(double[] xs, double[] ys, int p, int a, int b) {
+        double dx = xs[b] - xs[a];
+        double dy = ys[b] - ys[a];
+        double t = dx == 0 && dy == 0 ? 0
+                : ((xs[p] - xs[a]) * dx + (ys[p] - ys[a]) * dy) / (dx * dx + dy * dy);
+        t = Math.max(0, Math.min(1, t));
+        return Math.hypot(xs[p] - xs[a] - t * dx, ys[p] - ys[a] - t * dy);
+    }
+
+    private static double[] randomWalk(int count, long seed) {
+        Random random = new Random(seed);
+        double[] latLngs = new double[2 * count];
+        double lat = 48.85;
+        double lng = 2.35;
+        for (int i = 0; i < count; i++) {
+            lat += (random.nextDouble() - 0.5) * 0.01;
+            lng += (random.nextDouble() - 0.3) * 0.01;
+            latLngs[2 * i] = lat;
+            latLngs[2 * i + 1] = lng;
+        }
+        return latLngs;
+    }
+}
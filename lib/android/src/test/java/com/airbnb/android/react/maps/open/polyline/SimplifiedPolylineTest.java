@@ -0,0 +1,160 @@
+package com.airbnb.android.react.maps.open.polyline;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SimplifiedPolylineTest {
+    private static final double DELTA = 1e-9;
+    private static final double EARTH_RADIUS_METERS = 6378137;
+
+    @Test
+    public void keepsLinesWithoutSegments() {
+        double[] point = {10, 20};
+        assertSame(point, SimplifiedPolyline.greatCircle(point));
+        double[] empty = new double[0];
+        assertSame(empty, SimplifiedPolyline.greatCircle(empty));
+    }
+
+    @Test
+    public void insertsPointsEveryHundredKilometers() {
+        // a quarter of the equator
+        double[] line = SimplifiedPolyline.greatCircle(new double[] {0, 0, 0, 90});
+        int steps = (int) (Math.PI / 2 * EARTH_RADIUS_METERS / 100000);
+        assertEquals(2 * (steps + 1), line.length);
+        assertEquals(0, line[0], 0);
+        assertEquals(0, line[1], 0);
+        assertEquals(0, line[line.length - 2], 0);
+        assertEquals(90, line[line.length - 1], 0);
+        for (int i = 1; i < line.length / 2; i++) {
+            assertEquals(0, line[2 * i], DELTA);
+            assertEquals(90.0 * i / steps, line[2 * i + 1], DELTA);
+        }
+    }
+
+    @Test
+    public void keepsShortSegmentsAsTheyAre() {
+        double[] latLngs = {48.85, 2.35, 48.86, 2.36, 48.87, 2.34};
+        assertArrayEquals(latLngs, SimplifiedPolyline.greatCircle(latLngs), 0);
+    }
+
+    @Test
+    public void followsTheGreatCircle() {
+        // Paris to New York bulges north of both ends
+        double[] latLngs = {48.85, 2.35, 40.71, -74.0};
+        double[] line = SimplifiedPolyline.greatCircle(latLngs);
+        double total = angle(latLngs[0], latLngs[1], latLngs[2], latLngs[3]);
+        int steps = line.length / 2 - 1;
+        double northernmost = -90;
+        for (int i = 0; i <= steps; i++) {
+            double fromStart = angle(latLngs[0], latLngs[1], line[2 * i], line[2 * i + 1]);
+            double toEnd = angle(line[2 * i], line[2 * i + 1], latLngs[2], latLngs[3]);
+            // on the shortest way between the ends, evenly spaced
+            assertEquals(total, fromStart + toEnd, 1e-9);
+            assertEquals(total * i / steps, fromStart, 1e-9);
+            northernmost = Math.max(northernmost, line[2 * i]);
+        }
+        assertTrue(northernmost > 51);
+    }
+
+    @Test
+    public void staysContinuousAcrossTheAntimeridian() {
+        // written continuously, as the rest of the library expects
+        double[] line = SimplifiedPolyline.greatCircle(new double[] {10, 170, 10, 190});
+        assertTrue(line.length > 4);
+        for (int i = 1; i < line.length / 2; i++) {
+            assertTrue(line[2 * i + 1] > line[2 * i - 1]);
+            assertTrue(line[2 * i + 1] <= 190 + DELTA);
+        }
+    }
+
+    @Test
+    public void colorsEveryInterpolatedPoint() {
+        double[][] lines = {
+                {0, 0, 0, 90},
+                {48.85, 2.35, 48.86, 2.36, 40.71, -74.0, 40.72, -74.01},
+                {10, 170, 10, 190, -30, 150},
+                {1, 1},
+        };
+        for (double[] latLngs : lines) {
+            int[] colors = new int[latLngs.length / 2];
+            for (int i = 0; i < colors.length; i++) {
+                colors[i] = 0xff000000 | (i + 1);
+            }
+            double[] line = SimplifiedPolyline.greatCircle(latLngs);
+            int[] lineColors = SimplifiedPolyline.greatCircleColors(latLngs, colors);
+            assertEquals(line.length / 2, lineColors.length);
+
+            // interpolated points take the color of the vertex they follow
+            int vertex = 0;
+            for (int j = 0; j < lineColors.length; j++) {
+                if (vertex + 1 < colors.length && line[2 * j] == latLngs[2 * vertex + 2]
+                        && line[2 * j + 1] == latLngs[2 * vertex + 3]) {
+                    vertex++;
+                }
+                assertEquals(colors[vertex], lineColors[j]);
+            }
+            assertEquals(colors.length - 1, vertex);
+        }
+    }
+
+    @Test
+    public void groupsSegmentsByColor() {
+        int red = 0xffff0000;
+        int green = 0xff00ff00;
+        int blue = 0x800000ff;
+        int[] vertexColors = {red, green, red, blue, green, green};
+        int[] levelIndices = {0, 1, 2, 3, 4, 5};
+        SimplifiedPolyline.ColorRuns runs = SimplifiedPolyline.ColorRuns.group(vertexColors, levelIndices);
+
+        assertEquals(3, runs.colors.length);
+        assertEquals(4, runs.starts.length);
+        assertEquals(0, runs.starts[0]);
+        assertEquals(5, runs.starts[3]);
+        boolean[] seen = new boolean[5];
+        for (int run = 0; run < runs.colors.length; run++) {
+            int previous = -1;
+            for (int k = runs.starts[run]; k < runs.starts[run + 1]; k++) {
+                int segment = runs.order[k];
+                assertEquals(runs.colors[run], vertexColors[levelIndices[segment]]);
+                // drawing order within a color is the order along the line
+                assertTrue(segment > previous);
+                previous = segment;
+                seen[segment] = true;
+            }
+        }
+        for (boolean segmentSeen : seen) {
+            assertTrue(segmentSeen);
+        }
+    }
+
+    @Test
+    public void groupsTheSegmentsOfALevel() {
+        // the level keeps every other vertex, its segments take the colors of those
+        int[] vertexColors = {1, 2, 1, 2, 3};
+        SimplifiedPolyline.ColorRuns runs = SimplifiedPolyline.ColorRuns.group(vertexColors, new int[] {0, 2, 4});
+        assertArrayEquals(new int[] {1}, runs.colors);
+        assertArrayEquals(new int[] {0, 2}, runs.starts);
+        assertArrayEquals(new int[] {0, 1}, runs.order);
+    }
+
+    @Test
+    public void groupsNoSegments() {
+        SimplifiedPolyline.ColorRuns runs = SimplifiedPolyline.ColorRuns.group(new int[] {1}, new int[] {0});
+        assertEquals(0, runs.colors.length);
+        assertArrayEquals(new int[] {0}, runs.starts);
+        assertEquals(0, runs.order.length);
+    }
+
+    // central angle between two points given in degrees
+    private static double angle(double lat1, double lng1, double lat2, double lng2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double sinLat = Math.sin((phi2 - phi1) / 2);
+        double sinLng = Math.sin(Math.toRadians(lng2 - lng1) / 2);
+        return 2 * Math.asin(Math.sqrt(sinLat * sinLat + Math.cos(phi1) * Math.cos(phi2) * sinLng * sinLng));
+    }
+}
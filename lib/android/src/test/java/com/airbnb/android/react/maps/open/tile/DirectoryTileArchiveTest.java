@@ -0,0 +1,92 @@
+package com.airbnb.android.react.maps.open.tile;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+
+public class DirectoryTileArchiveTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File root;
+
+    @Before
+    public void setUp() throws IOException {
+        root = folder.newFolder("tiles");
+    }
+
+    @Test
+    public void readsTilesFromZoomColumnRowFiles() throws IOException {
+        write("3/5/2.png", new byte[] {1, 2, 3});
+        write("3/2/5.png", new byte[] {4});
+        TileArchive archive = config(".png", false).open();
+        assertArrayEquals(new byte[] {1, 2, 3}, archive.readTile(3, 5, 2));
+        assertArrayEquals(new byte[] {4}, archive.readTile(3, 2, 5));
+    }
+
+    @Test
+    public void usesTheConfiguredExtension() throws IOException {
+        write("1/0/1.png", new byte[] {1});
+        write("1/0/1.jpg", new byte[] {2});
+        TileArchive archive = config(".jpg", false).open();
+        assertArrayEquals(new byte[] {2}, archive.readTile(1, 0, 1));
+    }
+
+    @Test
+    public void flipsRowsOfTmsDirectories() throws IOException {
+        // row 0 is the southernmost, so the XYZ row 1 of 8 is TMS row 6
+        write("3/4/6.png", new byte[] {7});
+        TileArchive archive = config(".png", true).open();
+        assertArrayEquals(new byte[] {7}, archive.readTile(3, 4, 1));
+        assertNull(archive.readTile(3, 4, 6));
+
+        write("0/0/0.png", new byte[] {8});
+        assertArrayEquals(new byte[] {8}, archive.readTile(0, 0, 0));
+    }
+
+    @Test
+    public void findsNoMissingOrEmptyTiles() throws IOException {
+        write("2/1/1.png", new byte[0]);
+        TileArchive archive = config(".png", false).open();
+        assertNull(archive.readTile(2, 1, 1));
+        assertNull(archive.readTile(2, 1, 2));
+        assertNull(archive.readTile(9, 0, 0));
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void refusesAPathThatIsNoDirectory() throws IOException {
+        TileArchiveConfig config = config(".png", false);
+        config.path = new File(root, "missing").getPath();
+        config.open();
+    }
+
+    private TileArchiveConfig config(String extension, boolean tms) {
+        TileArchiveConfig config = new TileArchiveConfig();
+        config.type = TileArchiveConfig.Type.DIRECTORY;
+        config.path = root.getPath();
+        config.extension = extension;
+        config.tms = tms;
+        return config;
+    }
+
+    private void write(String name, byte[] data) throws IOException {
+        File file = new File(root, name);
+        file.getParentFile().mkdirs();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.airbnb.android.react.maps.open.tile;
+
+import android.content.ContentValues;
+import android.database.sqlite.SQLiteDatabase;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class MBTilesArchiveTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = new File(folder.getRoot(), "test.mbtiles");
+        SQLiteDatabase db = SQLiteDatabase.openOrCreateDatabase(file, null);
+        try {
+            db.execSQL("CREATE TABLE tiles (zoom_level INTEGER, tile_column INTEGER, tile_row INTEGER, tile_data BLOB)");
+            db.execSQL("CREATE TABLE metadata (name TEXT, value TEXT)");
+            // stored bottom-up: TMS row 6 of zoom 3 is the XYZ row 1
+            insertTile(db, 3, 4, 6, new byte[] {7});
+            insertTile(db, 0, 0, 0, new byte[] {8});
+            insertMetadata(db, "name", "Test");
+            insertMetadata(db, "minzoom", "0");
+            insertMetadata(db, "maxzoom", "3");
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test
+    public void flipsRowsByDefault() throws IOException {
+        TileArchive archive = config(true).open();
+        try {
+            assertArrayEquals(new byte[] {7}, archive.readTile(3, 4, 1));
+            assertNull(archive.readTile(3, 4, 6));
+            assertArrayEquals(new byte[] {8}, archive.readTile(0, 0, 0));
+        } finally {
+            archive.close();
+        }
+    }
+
+    @Test
+    public void readsRowsAsStoredWithoutTms() throws IOException {
+        TileArchive archive = config(false).open();
+        try {
+            assertArrayEquals(new byte[] {7}, archive.readTile(3, 4, 6));
+            assertNull(archive.readTile(3, 4, 1));
+        } finally {
+            archive.close();
+        }
+    }
+
+    @Test
+    public void readsTheMetadata() throws IOException {
+        TileArchive archive = config(true).open();
+        try {
+            assertEquals("mbtiles:Test", archive.getName());
+            assertEquals(0, archive.getMinZoom());
+            assertEquals(3, archive.getMaxZoom());
+        } finally {
+            archive.close();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void refusesReadsAfterClosing() throws IOException {
+        TileArchive archive = config(true).open();
+        archive.close();
+        archive.readTile(0, 0, 0);
+    }
+
+    private TileArchiveConfig config(boolean tms) {
+        TileArchiveConfig config = new TileArchiveConfig();
+        config.path = file.getPath();
+        config.tms = tms;
+        return config;
+    }
+
+    private static void insertTile(SQLiteDatabase db, int zoom, int column, int row, byte[] data) {
+        ContentValues values = new ContentValues();
+        values.put("zoom_level", zoom);
+        values.put("tile_column", column);
+        values.put("tile_row", row);
+        values.put("tile_data", data);
+        db.insert("tiles", null, values);
+    }
+
+    private static void insertMetadata(SQLiteDatabase db, String name, String value) {
+        ContentValues values = new ContentValues();
+        values.put("name", name);
+        values.put("value", value);
+        db.insert("metadata", null, values);
+    }
+}
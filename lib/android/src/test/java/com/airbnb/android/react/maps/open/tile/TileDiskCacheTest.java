@@ -0,0 +1,192 @@
+package com.airbnb.android.react.maps.open.tile;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.tileprovider.tilesource.ITileSource;
+import org.osmdroid.tileprovider.tilesource.XYTileSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TileDiskCacheTest {
+    private static final int TILE_BYTES = 1000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ITileSource source = new XYTileSource("test", 0, 18, 256, ".png",
+            new String[] {"http://localhost/"});
+    private File root;
+
+    @Before
+    public void setUp() throws IOException {
+        root = folder.newFolder("cache");
+    }
+
+    @Test
+    public void indexesSavedTiles() {
+        TileDiskCache cache = new TileDiskCache(root, config(10 * TILE_BYTES, 8 * TILE_BYTES, TileCacheConfig.Eviction.LRU));
+        save(cache, 0, 3);
+        assertEquals(3, cache.getTileCount());
+        assertEquals(3 * TILE_BYTES, cache.getSizeBytes());
+        assertTrue(cache.exists(source, tile(1)));
+        assertFalse(cache.exists(source, tile(3)));
+
+        // a fresh instance finds the same tiles on disk
+        TileDiskCache reopened = new TileDiskCache(root, config(10 * TILE_BYTES, 8 * TILE_BYTES, TileCacheConfig.Eviction.LRU));
+        assertEquals(3, reopened.getTileCount());
+        assertEquals(3 * TILE_BYTES, reopened.getSizeBytes());
+    }
+
+    @Test
+    public void trimsLeastRecentlyUsedTiles() throws InterruptedException {
+        TileDiskCache cache = new TileDiskCache(root, config(5 * TILE_BYTES, 3 * TILE_BYTES, TileCacheConfig.Eviction.LRU));
+        save(cache, 0, 5);
+        // tiles 0 and 1 become the most recently used
+        Thread.sleep(5);
+        assertTrue(cache.markAccessed(source, tile(1)));
+        Thread.sleep(5);
+        assertTrue(cache.markAccessed(source, tile(0)));
+
+        // the sixth tile goes over the cap and trims down to three tiles
+        save(cache, 5, 6);
+        assertEquals(3 * TILE_BYTES, cache.getSizeBytes());
+        assertTrue(cache.exists(source, tile(0)));
+        assertTrue(cache.exists(source, tile(1)));
+        assertTrue(cache.exists(source, tile(5)));
+        for (int i = 2; i < 5; i++) {
+            assertFalse(cache.exists(source, tile(i)));
+            assertFalse(fileOf(i).exists());
+        }
+    }
+
+    @Test
+    public void trimsLeastFrequentlyUsedTiles() throws InterruptedException {
+        TileDiskCache cache = new TileDiskCache(root, config(4 * TILE_BYTES, 2 * TILE_BYTES, TileCacheConfig.Eviction.LFU));
+        save(cache, 0, 4);
+        for (int i = 0; i < 3; i++) {
+            cache.markAccessed(source, tile(2));
+        }
+        cache.markAccessed(source, tile(3));
+        cache.markAccessed(source, tile(3));
+        Thread.sleep(5);
+        // most recent, but used only once
+        cache.markAccessed(source, tile(0));
+
+        save(cache, 4, 5);
+        assertEquals(2 * TILE_BYTES, cache.getSizeBytes());
+        assertTrue(cache.exists(source, tile(2)));
+        assertTrue(cache.exists(source, tile(3)));
+    }
+
+    @Test
+    public void keepsAccessStatisticsAcrossInstances() throws InterruptedException {
+        TileCacheConfig large = config(10 * TILE_BYTES, 10 * TILE_BYTES, TileCacheConfig.Eviction.LFU);
+        TileDiskCache cache = new TileDiskCache(root, large);
+        save(cache, 0, 4);
+        for (int i = 0; i < 5; i++) {
+            cache.markAccessed(source, tile(1));
+        }
+        cache.onDetach();
+
+        TileDiskCache reopened = new TileDiskCache(root, large);
+        assertEquals(4, reopened.getTileCount());
+        reopened.setConfig(config(2 * TILE_BYTES, TILE_BYTES, TileCacheConfig.Eviction.LFU));
+        assertEquals(1, reopened.getTileCount());
+        assertTrue(reopened.exists(source, tile(1)));
+    }
+
+    @Test
+    public void buildsTheIndexOnceForConcurrentCallers() throws Exception {
+        save(new TileDiskCache(root, config(10 * TILE_BYTES, 8 * TILE_BYTES, TileCacheConfig.Eviction.LRU)), 0, 5);
+        final TileDiskCache reopened = new TileDiskCache(root, config(10 * TILE_BYTES, 8 * TILE_BYTES, TileCacheConfig.Eviction.LRU));
+        final AtomicInteger found = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int i = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    if (reopened.exists(source, tile(i))) {
+                        found.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(threads.length, found.get());
+        assertEquals(5, reopened.getTileCount());
+        assertEquals(5 * TILE_BYTES, reopened.getSizeBytes());
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        TileDiskCache cache = new TileDiskCache(root, config(10 * TILE_BYTES, 8 * TILE_BYTES, TileCacheConfig.Eviction.LRU));
+        save(cache, 0, 1);
+        assertTrue(cache.markAccessed(source, tile(0)));
+        assertFalse(cache.markAccessed(source, tile(1)));
+        assertFalse(cache.markAccessed(source, tile(2)));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void deletesOnlyStaleTempFiles() throws IOException {
+        File directory = fileOf(0).getParentFile();
+        assertTrue(directory.mkdirs());
+        File fresh = new File(directory, "0.tile.12");
+        File stale = new File(directory, "1.tile.13");
+        assertTrue(fresh.createNewFile());
+        assertTrue(stale.createNewFile());
+        assertTrue(stale.setLastModified(System.currentTimeMillis() - 2 * 60 * 60 * 1000));
+
+        TileDiskCache cache = new TileDiskCache(root, config(10 * TILE_BYTES, 8 * TILE_BYTES, TileCacheConfig.Eviction.LRU));
+        assertEquals(0, cache.getTileCount());
+        assertTrue(fresh.exists());
+        assertFalse(stale.exists());
+    }
+
+    @Test
+    public void clearRemovesTiles() {
+        TileDiskCache cache = new TileDiskCache(root, config(10 * TILE_BYTES, 8 * TILE_BYTES, TileCacheConfig.Eviction.LRU));
+        save(cache, 0, 3);
+        cache.clear();
+        assertEquals(0, cache.getTileCount());
+        assertEquals(0, cache.getSizeBytes());
+        assertFalse(fileOf(0).exists());
+    }
+
+    private void save(TileDiskCache cache, int from, int to) {
+        for (int i = from; i < to; i++) {
+            assertTrue(cache.saveFile(source, tile(i), new ByteArrayInputStream(new byte[TILE_BYTES])));
+        }
+    }
+
+    private static MapTile tile(int i) {
+        return new MapTile(10, i, 7);
+    }
+
+    private File fileOf(int i) {
+        return new File(root, "test/10/" + i + "/7.tile");
+    }
+
+    private static TileCacheConfig config(long maxSize, long trimSize, TileCacheConfig.Eviction eviction) {
+        TileCacheConfig config = new TileCacheConfig();
+        config.maxSizeBytes = maxSize;
+        config.trimSizeBytes = trimSize;
+        config.eviction = eviction;
+        return config;
+    }
+}
@@ -0,0 +1,132 @@
+package com.airbnb.android.react.maps.open.tile;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.tileprovider.tilesource.OnlineTileSourceBase;
+import org.osmdroid.tileprovider.tilesource.XYTileSource;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+// Prefetches from a local stand-in for a tile server. osmdroid's Configuration, which supplies
+// the user agent, reads android.os.Environment.
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class TilePrefetcherDownloadTest {
+    // the tile the server does not have
+    private static final String MISSING = "/1/1/0.png";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final Set<String> paths = Collections.synchronizedSet(new HashSet<String>());
+    private OnlineTileSourceBase source;
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String path = exchange.getRequestURI().getPath();
+                requests.incrementAndGet();
+                paths.add(path);
+                if (MISSING.equals(path)) {
+                    exchange.sendResponseHeaders(404, -1);
+                } else {
+                    byte[] body = path.getBytes("UTF-8");
+                    exchange.sendResponseHeaders(200, body.length);
+                    OutputStream out = exchange.getResponseBody();
+                    out.write(body);
+                    out.close();
+                }
+                exchange.close();
+            }
+        });
+        server.start();
+        source = new XYTileSource("local", 0, 18, 256, ".png",
+                new String[] {"http://127.0.0.1:" + server.getAddress().getPort() + "/"});
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void downloadsEveryTileOfTheRegionIntoTheCache() throws Exception {
+        TileDiskCache cache = new TileDiskCache(folder.newFolder("cache"), new TileCacheConfig());
+        Runs runs = new Runs();
+        TilePrefetcher prefetcher = new TilePrefetcher("test", source, cache, 85, 180, -85, -180, 0, 2, 3, runs);
+        prefetcher.start();
+        runs.await();
+
+        assertEquals(1 + 4 + 16, prefetcher.getTotal());
+        assertEquals(prefetcher.getTotal() - 1, prefetcher.getDownloaded());
+        assertEquals(1, prefetcher.getFailed());
+        assertEquals(0, prefetcher.getSkipped());
+        assertEquals(prefetcher.getTotal(), requests.get());
+        assertTrue(paths.contains("/2/3/3.png"));
+        assertTrue(cache.exists(source, new MapTile(2, 3, 3)));
+        assertFalse(cache.exists(source, new MapTile(1, 1, 0)));
+    }
+
+    @Test
+    public void skipsTilesAnEarlierPrefetchDownloaded() throws Exception {
+        TileDiskCache cache = new TileDiskCache(folder.newFolder("cache"), new TileCacheConfig());
+        Runs runs = new Runs();
+        new TilePrefetcher("first", source, cache, 85, 180, -85, -180, 0, 2, 3, runs).start();
+        runs.await();
+
+        requests.set(0);
+        TilePrefetcher second = new TilePrefetcher("second", source, cache, 85, 180, -85, -180, 0, 2, 3, runs);
+        second.start();
+        runs.await();
+        assertEquals(second.getTotal() - 1, second.getSkipped());
+        assertEquals(1, second.getFailed());
+        // only the tile the server does not have is asked for again
+        assertEquals(1, requests.get());
+    }
+
+    private static class Runs implements TilePrefetcher.Listener {
+        private final Semaphore finished = new Semaphore(0);
+
+        @Override
+        public void onProgress(TilePrefetcher prefetcher, boolean done) {
+            if (done) {
+                finished.release();
+            }
+        }
+
+        void await() throws InterruptedException {
+            if (!finished.tryAcquire(10, TimeUnit.SECONDS)) {
+                fail("prefetch did not finish");
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.airbnb.android.react.maps.open.tile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.tileprovider.tilesource.ITileSource;
+import org.osmdroid.tileprovider.tilesource.OnlineTileSourceBase;
+import org.osmdroid.tileprovider.tilesource.XYTileSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TilePrefetcherTest {
+    private static final int CONCURRENCY = 3;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final OnlineTileSourceBase source = new XYTileSource("test", 0, 18, 256, ".png",
+            new String[] {"http://localhost/"});
+
+    @Test
+    public void enumeratesTheWholeWorld() {
+        TilePrefetcher prefetcher = prefetcher(null, 85, 180, -85, -180, 0, 3, null);
+        assertEquals(1 + 4 + 16 + 64, prefetcher.getTotal());
+        assertEquals(new MapTile(0, 0, 0), prefetcher.tileAt(0));
+        assertEquals(new MapTile(1, 0, 0), prefetcher.tileAt(1));
+        assertEquals(new MapTile(1, 1, 0), prefetcher.tileAt(2));
+        assertEquals(new MapTile(1, 0, 1), prefetcher.tileAt(3));
+        assertEquals(new MapTile(3, 7, 7), prefetcher.tileAt(84));
+    }
+
+    @Test
+    public void enumeratesEveryTileOfTheBoxOnce() {
+        // around Paris
+        double north = 48.95;
+        double east = 2.5;
+        double south = 48.8;
+        double west = 2.2;
+        TilePrefetcher prefetcher = prefetcher(null, north, east, south, west, 8, 14, null);
+
+        Set<MapTile> tiles = new HashSet<>();
+        int lastZoom = 8;
+        for (long i = 0; i < prefetcher.getTotal(); i++) {
+            MapTile tile = prefetcher.tileAt(i);
+            assertTrue(tile.getZoomLevel() >= lastZoom);
+            lastZoom = tile.getZoomLevel();
+            assertTrue("duplicate " + tile, tiles.add(tile));
+        }
+        for (int zoom = 8; zoom <= 14; zoom++) {
+            int tiles1D = 1 << zoom;
+            int minX = (int) Math.floor((west + 180) / 360 * tiles1D);
+            int maxX = (int) Math.floor((east + 180) / 360 * tiles1D);
+            int minY = tileY(north, tiles1D);
+            int maxY = tileY(south, tiles1D);
+            for (int x = minX; x <= maxX; x++) {
+                for (int y = minY; y <= maxY; y++) {
+                    assertTrue("missing " + zoom + "/" + x + "/" + y, tiles.contains(new MapTile(zoom, x, y)));
+                }
+            }
+        }
+        assertEquals(14, lastZoom);
+    }
+
+    @Test
+    public void wrapsColumnsAcrossTheAntimeridian() {
+        // from 170E to 170W over the equator, in both ways of writing it
+        for (double east : new double[] {-170, 190}) {
+            TilePrefetcher prefetcher = prefetcher(null, 1, east, -1, 170, 3, 3, null);
+            assertEquals(2 * 2, prefetcher.getTotal());
+            Set<MapTile> tiles = new HashSet<>();
+            for (long i = 0; i < prefetcher.getTotal(); i++) {
+                tiles.add(prefetcher.tileAt(i));
+            }
+            assertTrue(tiles.contains(new MapTile(3, 7, 3)));
+            assertTrue(tiles.contains(new MapTile(3, 0, 3)));
+            assertTrue(tiles.contains(new MapTile(3, 7, 4)));
+            assertTrue(tiles.contains(new MapTile(3, 0, 4)));
+        }
+    }
+
+    @Test
+    public void doesNotWrapPastTheWholeWorld() {
+        TilePrefetcher prefetcher = prefetcher(null, 85, 200, -85, -170, 2, 2, null);
+        assertEquals(16, prefetcher.getTotal());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsIndicesPastTheEnd() {
+        TilePrefetcher prefetcher = prefetcher(null, 85, 180, -85, -180, 0, 1, null);
+        prefetcher.tileAt(prefetcher.getTotal());
+    }
+
+    @Test
+    public void skipsCachedTiles() throws Exception {
+        RecordingCache cache = cachedTiles(0, 4);
+        Runs runs = new Runs();
+        TilePrefetcher prefetcher = prefetcher(cache, 85, 180, -85, -180, 0, 4, runs);
+        prefetcher.start();
+        runs.await();
+
+        assertEquals(prefetcher.getTotal(), prefetcher.getSkipped());
+        assertEquals(0, prefetcher.getDownloaded());
+        assertEquals(0, prefetcher.getFailed());
+        assertEquals(prefetcher.getTotal(), cache.checked.size());
+    }
+
+    @Test
+    public void resumingAFinishedRunCountsNothingTwice() throws Exception {
+        RecordingCache cache = cachedTiles(0, 4);
+        Runs runs = new Runs();
+        TilePrefetcher prefetcher = prefetcher(cache, 85, 180, -85, -180, 0, 4, runs);
+        prefetcher.start();
+        runs.await();
+
+        cache.checked.clear();
+        prefetcher.resume();
+        runs.await();
+        assertEquals(0, cache.checked.size());
+        assertEquals(prefetcher.getTotal(), prefetcher.getSkipped());
+    }
+
+    @Test
+    public void cancelledRunCompletesOnResume() throws Exception {
+        RecordingCache cache = cachedTiles(0, 6);
+        Runs runs = new Runs();
+        runs.cancelOnProgress = true;
+        TilePrefetcher prefetcher = prefetcher(cache, 85, 180, -85, -180, 0, 6, runs);
+        prefetcher.start();
+        runs.await();
+        assertTrue(prefetcher.isCancelled());
+
+        runs.cancelOnProgress = false;
+        prefetcher.resume();
+        runs.await();
+        assertEquals(prefetcher.getTotal(), cache.checked.size());
+        assertEquals(prefetcher.getTotal(), prefetcher.getSkipped());
+        assertEquals(0, prefetcher.getFailed());
+    }
+
+    private TilePrefetcher prefetcher(TileDiskCache cache, double north, double east, double south,
+                                      double west, int minZoom, int maxZoom, TilePrefetcher.Listener listener) {
+        return new TilePrefetcher("test", source, cache, north, east, south, west, minZoom, maxZoom,
+                CONCURRENCY, listener);
+    }
+
+    private RecordingCache cachedTiles(int minZoom, int maxZoom) throws IOException {
+        RecordingCache cache = new RecordingCache(folder.newFolder("cache"));
+        for (int zoom = minZoom; zoom <= maxZoom; zoom++) {
+            for (int x = 0; x < 1 << zoom; x++) {
+                for (int y = 0; y < 1 << zoom; y++) {
+                    cache.saveFile(source, new MapTile(zoom, x, y), new ByteArrayInputStream(new byte[1]));
+                }
+            }
+        }
+        return cache;
+    }
+
+    private static int tileY(double latitude, int tiles) {
+        double sin = Math.sin(Math.toRadians(latitude));
+        return (int) Math.floor((0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI)) * tiles);
+    }
+
+    // cache that records every tile the prefetcher looked up
+    private static class RecordingCache extends TileDiskCache {
+        final Set<MapTile> checked = Collections.synchronizedSet(new HashSet<MapTile>());
+
+        RecordingCache(File root) {
+            super(root, new TileCacheConfig());
+        }
+
+        @Override
+        public boolean exists(ITileSource tileSource, MapTile tile) {
+            checked.add(tile);
+            return super.exists(tileSource, tile);
+        }
+    }
+
+    private static class Runs implements TilePrefetcher.Listener {
+        private final Semaphore finished = new Semaphore(0);
+        volatile boolean cancelOnProgress = false;
+
+        @Override
+        public void onProgress(TilePrefetcher prefetcher, boolean done) {
+            if (done) {
+                finished.release();
+            } else if (cancelOnProgress) {
+                prefetcher.cancel();
+            }
+        }
+
+        void await() throws InterruptedException {
+            if (!finished.tryAcquire(10, TimeUnit.SECONDS)) {
+                fail("prefetch did not finish");
+            }
+        }
+    }
+}
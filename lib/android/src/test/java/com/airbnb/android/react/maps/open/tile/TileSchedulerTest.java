@@ -0,0 +1,121 @@
+package com.airbnb.android.react.maps.open.tile;
+
+import org.junit.Test;
+import org.osmdroid.tileprovider.MapTile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TileSchedulerTest {
+
+    @Test
+    public void keepsEverythingWithoutViewport() {
+        TileScheduler scheduler = new TileScheduler();
+        assertFalse(scheduler.hasViewport());
+        assertEquals(0, scheduler.priorityOf(new MapTile(3, 1, 2)));
+        assertEquals(0, scheduler.priorityOf(new MapTile(12, 100, 200)));
+    }
+
+    @Test
+    public void servesTilesNearestToTheCenterFirst() {
+        final TileScheduler scheduler = new TileScheduler();
+        // a viewport of about 4x3 tiles at zoom 10 around tile 512/340
+        scheduler.setViewport(10, lat(10, 339.5), lng(10, 514.5), lat(10, 342.5), lng(10, 510.5));
+        assertTrue(scheduler.hasViewport());
+
+        List<MapTile> tiles = new ArrayList<>();
+        for (int x = 510; x <= 514; x++) {
+            for (int y = 339; y <= 342; y++) {
+                tiles.add(new MapTile(10, x, y));
+            }
+        }
+        Collections.sort(tiles, new Comparator<MapTile>() {
+            @Override
+            public int compare(MapTile a, MapTile b) {
+                long pa = scheduler.priorityOf(a);
+                long pb = scheduler.priorityOf(b);
+                return pa < pb ? -1 : (pa == pb ? 0 : 1);
+            }
+        });
+
+        // the center is at 512.5/341, between tiles 512/340 and 512/341
+        MapTile first = tiles.get(0);
+        assertEquals(512, first.getX());
+        assertTrue(first.getY() == 340 || first.getY() == 341);
+        MapTile last = tiles.get(tiles.size() - 1);
+        assertTrue(last.getX() == 510 || last.getX() == 514);
+        assertTrue(last.getY() == 339 || last.getY() == 342);
+
+        long previous = -1;
+        for (MapTile tile : tiles) {
+            long priority = scheduler.priorityOf(tile);
+            assertNotEquals(TileScheduler.CANCELLED, priority);
+            assertTrue(priority >= previous);
+            previous = priority;
+        }
+    }
+
+    @Test
+    public void cancelsTilesOfOtherZoomLevels() {
+        TileScheduler scheduler = new TileScheduler();
+        scheduler.setViewport(10, lat(10, 339.5), lng(10, 514.5), lat(10, 342.5), lng(10, 510.5));
+        assertEquals(TileScheduler.CANCELLED, scheduler.priorityOf(new MapTile(9, 256, 170)));
+        assertEquals(TileScheduler.CANCELLED, scheduler.priorityOf(new MapTile(11, 1024, 680)));
+    }
+
+    @Test
+    public void keepsOneTileOfMarginAroundTheViewport() {
+        TileScheduler scheduler = new TileScheduler();
+        scheduler.setViewport(10, lat(10, 339.5), lng(10, 514.5), lat(10, 342.5), lng(10, 510.5));
+        assertNotEquals(TileScheduler.CANCELLED, scheduler.priorityOf(new MapTile(10, 509, 338)));
+        assertNotEquals(TileScheduler.CANCELLED, scheduler.priorityOf(new MapTile(10, 515, 343)));
+        assertEquals(TileScheduler.CANCELLED, scheduler.priorityOf(new MapTile(10, 508, 340)));
+        assertEquals(TileScheduler.CANCELLED, scheduler.priorityOf(new MapTile(10, 516, 340)));
+        assertEquals(TileScheduler.CANCELLED, scheduler.priorityOf(new MapTile(10, 512, 337)));
+        assertEquals(TileScheduler.CANCELLED, scheduler.priorityOf(new MapTile(10, 512, 344)));
+    }
+
+    @Test
+    public void followsTheLatestViewport() {
+        TileScheduler scheduler = new TileScheduler();
+        scheduler.setViewport(10, lat(10, 339.5), lng(10, 514.5), lat(10, 342.5), lng(10, 510.5));
+        MapTile tile = new MapTile(10, 512, 340);
+        assertNotEquals(TileScheduler.CANCELLED, scheduler.priorityOf(tile));
+        scheduler.setViewport(10, lat(10, 100.5), lng(10, 104.5), lat(10, 103.5), lng(10, 100.5));
+        assertEquals(TileScheduler.CANCELLED, scheduler.priorityOf(tile));
+    }
+
+    @Test
+    public void unwrapsViewportsAcrossTheAntimeridian() {
+        TileScheduler scheduler = new TileScheduler();
+        // zoom 4, from the middle of tile 14 to the middle of tile 1 of the next world copy
+        scheduler.setViewport(4, lat(4, 7.5), lng(4, 1.5), lat(4, 8.5), lng(4, 14.5));
+
+        long west = scheduler.priorityOf(new MapTile(4, 15, 8));
+        long east = scheduler.priorityOf(new MapTile(4, 0, 8));
+        assertNotEquals(TileScheduler.CANCELLED, west);
+        assertNotEquals(TileScheduler.CANCELLED, east);
+        // the center lies on the antimeridian, both neighbours are equally near
+        assertEquals(west, east);
+        assertTrue(scheduler.priorityOf(new MapTile(4, 14, 8)) > west);
+        assertTrue(scheduler.priorityOf(new MapTile(4, 1, 8)) > east);
+        assertNotEquals(TileScheduler.CANCELLED, scheduler.priorityOf(new MapTile(4, 2, 8)));
+        assertEquals(TileScheduler.CANCELLED, scheduler.priorityOf(new MapTile(4, 8, 8)));
+    }
+
+    private static double lng(int zoom, double tileX) {
+        return tileX / (1 << zoom) * 360 - 180;
+    }
+
+    private static double lat(int zoom, double tileY) {
+        double n = Math.PI - 2 * Math.PI * tileY / (1 << zoom);
+        return Math.toDegrees(Math.atan(Math.sinh(n)));
+    }
+}
@@ -0,0 +1,69 @@
+package com.airbnb.android.react.maps.open.tile;
+
+import org.junit.Test;
+import org.osmdroid.tileprovider.MapTile;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class UrlTemplateTileSourceTest {
+
+    @Test
+    public void fillsTheTemplate() {
+        UrlTemplateTileSource source = source("https://tiles.example.com/{z}/{x}/{y}.png", new String[0], false);
+        assertEquals("https://tiles.example.com/3/5/2.png", source.getTileURLString(new MapTile(3, 5, 2)));
+    }
+
+    @Test
+    public void flipsRowsOfTmsSources() {
+        UrlTemplateTileSource source = source("https://tiles.example.com/{z}/{x}/{y}.png", new String[0], true);
+        assertEquals("https://tiles.example.com/0/0/0.png", source.getTileURLString(new MapTile(0, 0, 0)));
+        assertEquals("https://tiles.example.com/3/5/7.png", source.getTileURLString(new MapTile(3, 5, 0)));
+        assertEquals("https://tiles.example.com/3/5/0.png", source.getTileURLString(new MapTile(3, 5, 7)));
+        assertEquals("https://tiles.example.com/10/5/1021.png", source.getTileURLString(new MapTile(10, 5, 2)));
+    }
+
+    @Test
+    public void rotatesSubdomainsByTile() {
+        String[] subdomains = {"a", "b", "c"};
+        UrlTemplateTileSource source = source("https://{s}.tiles.example.com/{z}/{x}/{y}.png", subdomains, false);
+        assertEquals("https://a.tiles.example.com/3/1/2.png", source.getTileURLString(new MapTile(3, 1, 2)));
+        assertEquals("https://b.tiles.example.com/3/2/2.png", source.getTileURLString(new MapTile(3, 2, 2)));
+        assertEquals("https://c.tiles.example.com/3/2/3.png", source.getTileURLString(new MapTile(3, 2, 3)));
+
+        // a tile always comes from the same host, its neighbours from other ones
+        MapTile tile = new MapTile(12, 2000, 1500);
+        assertEquals(source.getTileURLString(tile), source.getTileURLString(new MapTile(12, 2000, 1500)));
+        assertNotEquals(host(source, tile), host(source, new MapTile(12, 2001, 1500)));
+        assertNotEquals(host(source, tile), host(source, new MapTile(12, 2000, 1501)));
+
+        Set<String> hosts = new HashSet<>();
+        for (int x = 0; x < 3; x++) {
+            hosts.add(host(source, new MapTile(5, x, 0)));
+        }
+        assertEquals(3, hosts.size());
+        assertEquals(3, source.getHostCount());
+    }
+
+    @Test
+    public void rotatesSubdomainsOfTmsSourcesByTheRequestedRow() {
+        String[] subdomains = {"a", "b"};
+        UrlTemplateTileSource source = source("https://{s}.tiles.example.com/{z}/{x}/{y}.png", subdomains, true);
+        assertEquals("https://b.tiles.example.com/2/0/2.png", source.getTileURLString(new MapTile(2, 0, 1)));
+        assertEquals("https://a.tiles.example.com/2/1/2.png", source.getTileURLString(new MapTile(2, 1, 1)));
+    }
+
+    private static String host(UrlTemplateTileSource source, MapTile tile) {
+        String url = source.getTileURLString(tile);
+        return url.substring(0, url.indexOf('/', "https://".length()));
+    }
+
+    private static UrlTemplateTileSource source(String template, String[] subdomains, boolean tms) {
+        return new UrlTemplateTileSource("test", template, subdomains, 0, 19, 256, tms,
+                Collections.<String, String>emptyMap(), 2);
+    }
+}
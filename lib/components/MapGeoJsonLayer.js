@@ -0,0 +1,97 @@
+import PropTypes from 'prop-types';
+import React from 'react';
+import {
+  ViewPropTypes,
+  View,
+} from 'react-native';
+import decorateMapComponent, {
+  USES_DEFAULT_IMPLEMENTATION,
+  NOT_SUPPORTED,
+} from './decorateMapComponent';
+
+// if ViewPropTypes is not defined fall back to View.propType (to support RN < 0.44)
+const viewPropTypes = ViewPropTypes || View.propTypes;
+
+const propTypes = {
+  ...viewPropTypes,
+
+  /**
+   * Path or `file://` uri of a GeoJSON file. The file is read and parsed natively, without
+   * passing through JavaScript.
+   */
+  path: PropTypes.string,
+
+  /**
+   * A GeoJSON document as a string, used instead of `path`.
+   */
+  data: PropTypes.string,
+
+  /**
+   * The color of lines and polygon outlines.
+   */
+  strokeColor: PropTypes.string,
+
+  /**
+   * The width of lines and polygon outlines in points.
+   */
+  strokeWidth: PropTypes.number,
+
+  /**
+   * The fill color of polygons.
+   */
+  fillColor: PropTypes.string,
+
+  /**
+   * The color of points.
+   */
+  pointColor: PropTypes.string,
+
+  /**
+   * The radius of points in points.
+   */
+  pointRadius: PropTypes.number,
+
+  /**
+   * Callback that is called with `{ features, vertices }` once the whole document is shown.
+   */
+  onLoad: PropTypes.func,
+
+  /**
+   * Callback that is called with `{ message, features, vertices }` when the document can't be
+   * read. Features read before the error stay on the map.
+   */
+  onError: PropTypes.func,
+};
+
+const defaultProps = {
+  strokeColor: '#000',
+  strokeWidth: 1,
+  pointColor: '#000',
+  pointRadius: 4,
+};
+
+class MapGeoJsonLayer extends React.Component {
+  setNativeProps(props) {
+    this.layer.setNativeProps(props);
+  }
+
+  render() {
+    const AIRMapGeoJsonLayer = this.getAirComponent();
+    return (
+      <AIRMapGeoJsonLayer {...this.props} ref={ref => { this.layer = ref; }} />
+    );
+  }
+}
+
+MapGeoJsonLayer.propTypes = propTypes;
+MapGeoJsonLayer.defaultProps = defaultProps;
+
+module.exports = decorateMapComponent(MapGeoJsonLayer, {
+  componentType: 'GeoJsonLayer',
+  providers: {
+    google: {
+      ios: NOT_SUPPORTED,
+      android: USES_DEFAULT_IMPLEMENTATION,
+    },
+  },
+});
@@ -170,9 +170,9 @@ const propTypes = {
   draggable: PropTypes.bool,
 
   /**
-   * Sets whether this marker should track view changes true.
-   *
-   * @platform ios
+   * Sets whether this marker should track view changes true. On Android a marker with custom
+   * children is rasterised once when this is `false`, and bitmaps are shared between markers
+   * with the same `reuseIdentifier`.
    */
 
   tracksViewChanges: PropTypes.bool,
@@ -228,6 +228,7 @@ class MapMarker extends React.Component {
 
     this.showCallout = this.showCallout.bind(this);
     this.hideCallout = this.hideCallout.bind(this);
+    this.animateMarkerToCoordinate = this.animateMarkerToCoordinate.bind(this);
   }
 
   setNativeProps(props) {
@@ -242,6 +243,10 @@ class MapMarker extends React.Component {
     this._runCommand('hideCallout', []);
   }
 
+  animateMarkerToCoordinate(coordinate, duration) {
+    this._runCommand('animateMarkerToCoordinate', [coordinate, duration || 500]);
+  }
+
   _getHandle() {
     return findNodeHandle(this.marker);
   }
@@ -0,0 +1,107 @@
+import PropTypes from 'prop-types';
+import React from 'react';
+import {
+  ViewPropTypes,
+  View,
+  processColor,
+} from 'react-native';
+import decorateMapComponent, {
+  USES_DEFAULT_IMPLEMENTATION,
+  NOT_SUPPORTED,
+} from './decorateMapComponent';
+
+// if ViewPropTypes is not defined fall back to View.propType (to support RN < 0.44)
+const viewPropTypes = ViewPropTypes || View.propTypes;
+
+const propTypes = {
+  ...viewPropTypes,
+
+  /**
+   * The points as a flat `[lat, lng, lat, lng, ...]` array. The whole array is drawn by one
+   * native layer, so it can hold thousands of points.
+   */
+  packedCoordinates: PropTypes.arrayOf(PropTypes.number).isRequired,
+
+  /**
+   * The color of every point, in the order of `packedCoordinates`. Points are drawn in
+   * `color` when omitted.
+   */
+  colors: PropTypes.arrayOf(PropTypes.string),
+
+  /**
+   * The color of points without an entry in `colors`.
+   */
+  color: PropTypes.string,
+
+  /**
+   * The radius of the points in points.
+   */
+  radius: PropTypes.number,
+
+  /**
+   * The color of the outline drawn around every point.
+   */
+  strokeColor: PropTypes.string,
+
+  /**
+   * The width of the outline in points, `0` for none.
+   */
+  strokeWidth: PropTypes.number,
+
+  /**
+   * Ids of the points, in the order of `packedCoordinates`, reported by `onPress`. Points
+   * without an id report their index.
+   */
+  ids: PropTypes.arrayOf(PropTypes.oneOfType([PropTypes.string, PropTypes.number])),
+
+  /**
+   * Callback that is called with `{ coordinate, position, id }` when a point is pressed.
+   */
+  onPress: PropTypes.func,
+};
+
+const defaultProps = {
+  color: '#f00',
+  radius: 4,
+  strokeColor: '#fff',
+  strokeWidth: 1,
+};
+
+class MapPointLayer extends React.Component {
+  setNativeProps(props) {
+    this.layer.setNativeProps(props);
+  }
+
+  // converted once per colors array, so re-renders don't send thousands of colors again
+  processedColors(colors) {
+    if (colors !== this.colors) {
+      this.colors = colors;
+      this.nativeColors = colors && colors.map(color => processColor(color));
+    }
+    return this.nativeColors;
+  }
+
+  render() {
+    const AIRMapPointLayer = this.getAirComponent();
+    return (
+      <AIRMapPointLayer
+        {...this.props}
+        colors={this.processedColors(this.props.colors)}
+        ref={ref => { this.layer = ref; }}
+      />
+    );
+  }
+}
+
+MapPointLayer.propTypes = propTypes;
+MapPointLayer.defaultProps = defaultProps;
+
+module.exports = decorateMapComponent(MapPointLayer, {
+  componentType: 'PointLayer',
+  providers: {
+    google: {
+      ios: NOT_SUPPORTED,
+      android: USES_DEFAULT_IMPLEMENTATION,
+    },
+  },
+});
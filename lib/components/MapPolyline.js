@@ -3,6 +3,7 @@ import React from 'react';
 import {
   ViewPropTypes,
   View,
+  processColor,
 } from 'react-native';
 import decorateMapComponent, {
   USES_DEFAULT_IMPLEMENTATION,
@@ -26,6 +27,21 @@ const propTypes = {
     longitude: PropTypes.number.isRequired,
   })),
 
+  /**
+   * The coordinates as a flat `[lat, lng, lat, lng, ...]` array. Cheaper to send over the
+   * bridge than `coordinates` for long lines.
+   *
+   * @platform android
+   */
+  packedCoordinates: PropTypes.arrayOf(PropTypes.number),
+
+  /**
+   * The coordinates as a string in the Encoded Polyline Algorithm Format (precision 5).
+   *
+   * @platform android
+   */
+  encodedCoordinates: PropTypes.string,
+
   /**
    * Callback that is called when the user presses on the polyline
    */
@@ -52,7 +68,9 @@ const propTypes = {
   strokeColor: PropTypes.string,
 
   /**
-   * The stroke colors to use for the path.
+   * The stroke colors to use for the path, one per coordinate. On Android every segment is
+   * drawn in the color of its first coordinate, and the whole line is still a single native
+   * view however many colors it has.
    */
   strokeColors: PropTypes.arrayOf(PropTypes.string),
 
@@ -119,8 +137,6 @@ const propTypes = {
    * middle of the first gap.
    *
    * The default value of this property is 0.
-   *
-   * @platform ios
    */
   lineDashPhase: PropTypes.number,
 
@@ -133,8 +149,6 @@ const propTypes = {
    * segment length, and so on.
    *
    * This property is set to `null` by default, which indicates no line dash pattern.
-   *
-   * @platform ios
    */
   lineDashPattern: PropTypes.arrayOf(PropTypes.number),
 };
@@ -151,10 +165,23 @@ class MapPolyline extends React.Component {
     this.polyline.setNativeProps(props);
   }
 
+  // converted once per colors array, so re-renders don't send every color again
+  processedColors(colors) {
+    if (colors !== this.strokeColors) {
+      this.strokeColors = colors;
+      this.nativeStrokeColors = colors && colors.map(color => processColor(color));
+    }
+    return this.nativeStrokeColors;
+  }
+
   render() {
     const AIRMapPolyline = this.getAirComponent();
     return (
-      <AIRMapPolyline {...this.props} ref={ref => { this.polyline = ref; }} />
+      <AIRMapPolyline
+        {...this.props}
+        strokeColors={this.processedColors(this.props.strokeColors)}
+        ref={ref => { this.polyline = ref; }}
+      />
     );
   }
 }
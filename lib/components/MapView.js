@@ -10,10 +10,14 @@ import {
   findNodeHandle,
   ViewPropTypes,
   View,
+  DeviceEventEmitter,
+  processColor,
 } from 'react-native';
 
 import MapMarker from './MapMarker';
 import MapPolyline from './MapPolyline';
+import MapPointLayer from './MapPointLayer';
+import MapGeoJsonLayer from './MapGeoJsonLayer';
 import MapPolygon from './MapPolygon';
 import {
   contextTypes as childContextTypes,
@@ -258,8 +262,14 @@ const propTypes = {
    * - hybrid: satellite view with roads and points of interest overlayed
    * - terrain: topographic view
    * - none: no base map
+   *
+   * On Android this can also be the name of a source registered with
+   * `MapView.registerTileSource`.
    */
-  mapType: PropTypes.oneOf(Object.values(MAP_TYPES)),
+  mapType: PropTypes.oneOfType([
+    PropTypes.oneOf(Object.values(MAP_TYPES)),
+    PropTypes.string,
+  ]),
 
   /**
    * The region to be displayed by the map.
@@ -357,6 +367,14 @@ const propTypes = {
    */
   onRegionChangeComplete: PropTypes.func,
 
+  /**
+   * Minimum number of milliseconds between two `onRegionChange` calls. By
+   * default the map reports at most one region change per frame.
+   *
+   * @platform android
+   */
+  regionChangeThrottle: PropTypes.number,
+
   /**
    * Callback that is called when user taps on the map.
    */
@@ -425,6 +443,87 @@ const propTypes = {
   maxZoomLevel: PropTypes.number,
   router: PropTypes.object,
 
+  /**
+   * Configures the on-disk tile cache used by this map. Maps sharing a `namespace` share
+   * one cache.
+   *
+   * @platform android
+   */
+  tileCache: PropTypes.shape({
+    namespace: PropTypes.string,
+    maxSize: PropTypes.number,
+    trimSize: PropTypes.number,
+    maxAge: PropTypes.number,
+    eviction: PropTypes.oneOf(['lru', 'lfu']),
+  }),
+
+  /**
+   * Number of tiles downloaded in parallel. Defaults to 2, or to the connection
+   * limit of all hosts of a registered tile source.
+   *
+   * @platform android
+   */
+  tileDownloadConcurrency: PropTypes.number,
+
+  /**
+   * Number of tiles waiting for a download slot. Pending tiles closest to the
+   * center of the map are downloaded first. Default 40.
+   *
+   * @platform android
+   */
+  tileDownloadQueueSize: PropTypes.number,
+
+  /**
+   * Reads tiles from a local MBTiles file or tile directory instead of the
+   * network. `mapType` and `tileCache` apply again once this is unset.
+   *
+   * @platform android
+   */
+  tileSource: PropTypes.shape({
+    type: PropTypes.oneOf(['mbtiles', 'directory']).isRequired,
+    path: PropTypes.string.isRequired,
+    extension: PropTypes.string,
+    minZoom: PropTypes.number,
+    maxZoom: PropTypes.number,
+    tms: PropTypes.bool,
+    hotCacheSize: PropTypes.number,
+  }),
+
+  /**
+   * If `true` markers close to each other are grouped natively into clusters.
+   *
+   * @platform android
+   */
+  clusteringEnabled: PropTypes.bool,
+
+  /**
+   * Radius (in points) within which markers are merged into one cluster.
+   *
+   * @platform android
+   */
+  clusterRadius: PropTypes.number,
+
+  /**
+   * Background color of the cluster bubbles.
+   *
+   * @platform android
+   */
+  clusterColor: ColorPropType,
+
+  /**
+   * Color of the marker count drawn inside the cluster bubbles.
+   *
+   * @platform android
+   */
+  clusterTextColor: ColorPropType,
+
+  /**
+   * Callback that is called when the user presses on a cluster, with its
+   * `coordinate`, `count` and the `markers` identifiers it contains.
+   *
+   * @platform android
+   */
+  onClusterPress: PropTypes.func,
 };
 
 class MapView extends Component {
@@ -550,6 +649,17 @@ class MapView extends Component {
       animated = true,
     } = options;
 
+    if (Platform.OS === 'android') {
+      // a flat number array crosses the bridge much faster than an array of objects
+      const packed = new Array(coordinates.length * 2);
+      for (let i = 0; i < coordinates.length; i++) {
+        packed[2 * i] = coordinates[i].latitude;
+        packed[2 * i + 1] = coordinates[i].longitude;
+      }
+      this._runCommand('fitToCoordinates', [packed, edgePadding, animated]);
+      return;
+    }
+
     this._runCommand('fitToCoordinates', [coordinates, edgePadding, animated]);
   }
 
@@ -557,6 +667,26 @@ class MapView extends Component {
     this._runCommand('setMapBoundaries', [northEast, southWest]);
   }
 
+  /**
+   * Adds, updates and removes many native markers and polylines in one call.
+   * Features are identified by `id`; see the README for their properties.
+   *
+   * @platform android
+   */
+  applyFeatureBatch({ add = [], update = [], remove = [] }) {
+    const toNative = feature => (
+      feature.strokeColor === undefined ? feature : {
+        ...feature,
+        strokeColor: processColor(feature.strokeColor),
+      }
+    );
+    this._runCommand('applyFeatureBatch', [{
+      add: add.map(toNative),
+      update: update.map(toNative),
+      remove,
+    }]);
+  }
+
   /**
    * Takes a snapshot of the map and saves it to a picture
    * file or returns the image as a base64 encoded string.
@@ -609,7 +739,7 @@ class MapView extends Component {
 
     // Call native function
     if (Platform.OS === 'android') {
-      return NativeModules.OpenMapsModule.takeSnapshot(this._getHandle(), config);
+      return OpenAirMapModule.takeSnapshot(this._getHandle(), config);
     } else if (Platform.OS === 'ios') {
       return new Promise((resolve, reject) => {
         this._runCommand('takeSnapshot', [
@@ -753,7 +883,35 @@ const AIRMapLite = NativeModules.UIManager.AIRMapLite &&
 MapView.Marker = MapMarker;
 MapView.Polyline = MapPolyline;
 MapView.Polygon = MapPolygon;
+MapView.PointLayer = MapPointLayer;
+MapView.GeoJsonLayer = MapGeoJsonLayer;
 Object.assign(MapView, ProviderConstants);
 MapView.ProviderPropType = PropTypes.oneOf(Object.values(ProviderConstants));
 
+const OpenAirMapModule = NativeModules.OpenAirMapModule;
+
+MapView.getTileCacheStats = () => OpenAirMapModule.getTileCacheStats();
+MapView.clearTileCache = (namespace = null) => OpenAirMapModule.clearTileCache(namespace);
+MapView.registerTileSource = (name, config) => OpenAirMapModule.registerTileSource(name, config);
+MapView.prefetchRegion = (options) => OpenAirMapModule.prefetchRegion(options);
+MapView.cancelPrefetch = (id) => OpenAirMapModule.cancelPrefetch(id);
+MapView.resumePrefetch = (id) => OpenAirMapModule.resumePrefetch(id);
+MapView.setViewPoolSize = (size) => OpenAirMapModule.setMapViewPoolSize(size);
+MapView.renderStaticMap = ({ polyline, markers, ...options }) => OpenAirMapModule.renderStaticMap({
+  ...options,
+  ...(polyline && {
+    polyline: polyline.strokeColor === undefined ? polyline : {
+      ...polyline,
+      strokeColor: processColor(polyline.strokeColor),
+    },
+  }),
+  ...(markers && {
+    markers: markers.map(marker => (
+      marker.color === undefined ? marker : { ...marker, color: processColor(marker.color) }
+    )),
+  }),
+});
+MapView.addPrefetchListener = (listener) =>
+  DeviceEventEmitter.addListener(OpenAirMapModule.prefetchProgressEvent, listener);
+
 module.exports = MapView;